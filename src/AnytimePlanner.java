@@ -0,0 +1,245 @@
+import java.util.Arrays;
+
+// This AnytimePlanner class implements Anytime Repairing A* (ARA*) for planning cycles with a hard time budget.
+// The search starts with the heuristic inflated by a weight epsilon > 1, which finds a path quickly whose cost is
+// at most epsilon times the optimum, and then lowers epsilon step by step down to 1. Each improvement reuses the
+// g-values of the previous round: only the cells whose cost dropped (the open list plus the inconsistent cells
+// closed earlier in the round) are searched again.
+// A call to plan runs until its budget expires and returns the best path so far with its suboptimality bound.
+// Calling plan again for the same query on an unchanged grid continues where the last call stopped; a new query
+// or a changed grid starts over.
+public class AnytimePlanner extends GridPathPlanner {
+	private static final int DEADLINE_CHECK_INTERVAL = 256; // Expansions between clock reads
+
+	private final float initialEpsilon;
+	private final float epsilonStep;
+	private final int[] closed; // Round in which each cell was expanded
+	private int round;
+	private int[] inconsistent = new int[256]; // Cells improved after being closed in the current round
+	private int inconsistentCount;
+	private int[] rekeyBuffer = new int[256];
+
+	// State of the current query
+	private int queryStart = -1;
+	private int queryGoal = -1;
+	private long queryVersion;
+	private float epsilon;
+	private int[] bestPath;
+	private float bestBound;
+	private boolean complete;
+
+	// Result of one planning call
+	public static class Result {
+		private final int[] path;
+		private final float bound;
+		private final boolean complete;
+		private final int expanded;
+
+		Result(int[] path, float bound, boolean complete, int expanded) {
+			this.path = path;
+			this.bound = bound;
+			this.complete = complete;
+			this.expanded = expanded;
+		}
+
+		// Method to return the best path found so far, or null if none has been found (yet)
+		public int[] getPath() {
+			return path;
+		}
+
+		// Method to return the factor by which the path may be longer than the shortest one
+		// (infinity while no path has been found)
+		public float getBound() {
+			return bound;
+		}
+
+		// Method to check whether the search is finished: the path is optimal, or no path exists
+		public boolean isComplete() {
+			return complete;
+		}
+
+		public int getExpanded() {
+			return expanded;
+		}
+	}
+
+	// Constructor to plan with an initial heuristic weight of 3, lowered by 0.5 per improvement
+	public AnytimePlanner(Grid grid) {
+		this(grid, 3, 0.5f);
+	}
+
+	// Constructor to plan with the given initial heuristic weight and the step by which it is lowered
+	public AnytimePlanner(Grid grid, float initialEpsilon, float epsilonStep) {
+		super(grid);
+		if (!(initialEpsilon >= 1) || !(epsilonStep > 0)) {
+			throw new IllegalArgumentException("Initial epsilon must be at least 1 and the step positive");
+		}
+		this.initialEpsilon = initialEpsilon;
+		this.epsilonStep = epsilonStep;
+		this.closed = new int[g.length];
+	}
+
+	public Result plan(RobotState startState, RobotState goalState, long budgetNanos) {
+		if (!grid.isValidPosition(startState.getRow(), startState.getColumn())
+				|| !grid.isValidPosition(goalState.getRow(), goalState.getColumn())) {
+			return new Result(null, Float.POSITIVE_INFINITY, true, 0);
+		}
+		return plan(cellIndex(startState.getRow(), startState.getColumn()),
+				cellIndex(goalState.getRow(), goalState.getColumn()), budgetNanos);
+	}
+
+	// Method to improve the path between two cells for at most budgetNanos, continuing the previous call
+	// if it was for the same query on the same grid
+	public Result plan(int start, int goal, long budgetNanos) {
+		long startTime = System.nanoTime();
+		resetCounters();
+		if (start != queryStart || goal != queryGoal || grid.getVersion() != queryVersion) {
+			startQuery(start, goal);
+		}
+
+		int expandedBefore = expandedCount;
+		while (!complete) {
+			if (!improvePath(startTime, budgetNanos)) {
+				break; // Out of time; the next call resumes here
+			}
+			if (mark[goal] == openStamp) {
+				bestPath = reconstructPath(goal);
+				bestBound = (float) Math.min(epsilon, g[goal] / Math.max(1e-6, minimumLowerBound()));
+			}
+			if (bestPath == null || epsilon <= 1) {
+				complete = true; // No path exists, or the path is optimal
+				bestBound = bestPath == null ? Float.POSITIVE_INFINITY : 1;
+				break;
+			}
+			nextRound(Math.max(1, epsilon - epsilonStep));
+		}
+		return new Result(bestPath, bestBound, complete, expandedCount - expandedBefore);
+	}
+
+	// Method to run the query to completion, so findPath returns an optimal path like the other planners
+	@Override
+	protected int[] search(int start, int goal) {
+		return plan(start, goal, Long.MAX_VALUE).getPath();
+	}
+
+	// Method to forget the previous query and open the start cell with the initial epsilon
+	private void startQuery(int start, int goal) {
+		queryStart = start;
+		queryGoal = goal;
+		queryVersion = grid.getVersion();
+		bestPath = null;
+		bestBound = Float.POSITIVE_INFINITY;
+		complete = false;
+		epsilon = initialEpsilon;
+		inconsistentCount = 0;
+
+		beginSearch();
+		if (++round == Integer.MAX_VALUE) {
+			Arrays.fill(closed, 0);
+			round = 1;
+		}
+		if (start == goal) {
+			bestPath = new int[] { start };
+			bestBound = 1;
+			complete = true;
+		} else if (isBlocked(start) || isBlocked(goal)) {
+			complete = true; // No path found
+		} else {
+			open(start, 0, -1, goal);
+		}
+	}
+
+	// Method to expand cells until no open cell could lead to a cheaper goal under the current epsilon.
+	// Returns false if the budget ran out first.
+	private boolean improvePath(long startTime, long budgetNanos) {
+		int goal = queryGoal;
+		int expandedThisCall = 0;
+		while (!openList.isEmpty()) {
+			if (mark[goal] == openStamp && g[goal] <= openList.peekKey()) {
+				return true;
+			}
+			if (++expandedThisCall % DEADLINE_CHECK_INTERVAL == 0 && System.nanoTime() - startTime > budgetNanos) {
+				return false;
+			}
+			int current = openList.pop();
+			expandedCount++;
+			closed[current] = round;
+			expand(current, goal);
+		}
+		return true;
+	}
+
+	// Method to lower cost of a neighbor, queueing it again in this round or, if it was already expanded in this
+	// round, remembering it for the next one
+	@Override
+	protected void relax(int current, int neighbor, double tentativeG, int goal) {
+		if (isBlocked(neighbor) || (mark[neighbor] == openStamp && tentativeG >= g[neighbor])) {
+			return;
+		}
+		if (closed[neighbor] == round) {
+			g[neighbor] = tentativeG;
+			parent[neighbor] = current;
+			if (inconsistentCount == inconsistent.length) {
+				inconsistent = Arrays.copyOf(inconsistent, inconsistentCount * 2);
+			}
+			inconsistent[inconsistentCount++] = neighbor;
+			reopenedCount++;
+		} else {
+			open(neighbor, tentativeG, current, goal);
+		}
+	}
+
+	// Method to record a cell's cost and parent and push it keyed by g + epsilon * h
+	@Override
+	protected void open(int cell, double cost, int from, int goal) {
+		double h = calculateHeuristic(cell, goal);
+		g[cell] = cost;
+		parent[cell] = from;
+		mark[cell] = openStamp;
+		openList.push(cell, cost + epsilon * h, h);
+		countPush(false);
+	}
+
+	// Method to start the next round: the inconsistent cells rejoin the open list, every open cell is re-keyed
+	// with the new epsilon and the closed set is emptied
+	private void nextRound(float newEpsilon) {
+		epsilon = newEpsilon;
+		int size = openList.size();
+		if (rekeyBuffer.length < size + inconsistentCount) {
+			rekeyBuffer = new int[size + inconsistentCount];
+		}
+		for (int i = 0; i < size; i++) {
+			rekeyBuffer[i] = openList.idAt(i);
+		}
+		System.arraycopy(inconsistent, 0, rekeyBuffer, size, inconsistentCount);
+		for (int i = 0; i < size + inconsistentCount; i++) {
+			int cell = rekeyBuffer[i];
+			double h = calculateHeuristic(cell, queryGoal);
+			openList.push(cell, g[cell] + epsilon * h, h);
+		}
+		inconsistentCount = 0;
+		if (++round == Integer.MAX_VALUE) {
+			Arrays.fill(closed, 0);
+			round = 1;
+		}
+	}
+
+	// Method to return the smallest unweighted f = g + h over the open and inconsistent cells, a lower bound on
+	// the optimal path cost
+	private double minimumLowerBound() {
+		double best = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < openList.size(); i++) {
+			int cell = openList.idAt(i);
+			best = Math.min(best, g[cell] + calculateHeuristic(cell, queryGoal));
+		}
+		for (int i = 0; i < inconsistentCount; i++) {
+			int cell = inconsistent[i];
+			best = Math.min(best, g[cell] + calculateHeuristic(cell, queryGoal));
+		}
+		return Math.min(best, g[queryGoal]);
+	}
+
+	public float getEpsilon() {
+		return epsilon;
+	}
+}
@@ -0,0 +1,59 @@
+// This ArrayGridStorage class keeps occupancy in a boolean 2D array, one byte per cell.
+// It is the original Grid layout and is still the default for small grids built in memory.
+public class ArrayGridStorage implements GridStorage {
+	private final boolean[][] cells; // true for occupied by obstacle, false for empty
+
+	// Constructor to create an empty storage of the given dimensions
+	public ArrayGridStorage(int numRows, int numCols) {
+		this.cells = new boolean[numRows][numCols];
+	}
+
+	// Constructor that wraps an existing boolean 2D array without copying it
+	public ArrayGridStorage(boolean[][] cells) {
+		this.cells = cells;
+	}
+
+	@Override
+	public int getNumRows() {
+		return cells.length;
+	}
+
+	@Override
+	public int getNumCols() {
+		return cells[0].length;
+	}
+
+	@Override
+	public boolean get(int row, int col) {
+		return cells[row][col];
+	}
+
+	@Override
+	public void set(int row, int col, boolean obstacle) {
+		cells[row][col] = obstacle;
+	}
+
+	@Override
+	public long getWord(int row, int wordIndex) {
+		boolean[] line = cells[row];
+		int from = wordIndex << 6;
+		int to = Math.min(from + 64, line.length);
+		long bits = 0;
+		for (int col = from; col < to; col++) {
+			if (line[col]) {
+				bits |= 1L << (col - from);
+			}
+		}
+		return bits;
+	}
+
+	@Override
+	public void setWord(int row, int wordIndex, long bits) {
+		boolean[] line = cells[row];
+		int from = wordIndex << 6;
+		int to = Math.min(from + 64, line.length);
+		for (int col = from; col < to; col++) {
+			line[col] = (bits & (1L << (col - from))) != 0;
+		}
+	}
+}
@@ -0,0 +1,99 @@
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// This BatchPathPlanner class solves many start/goal queries against one grid concurrently.
+// Queries are split across a fork-join pool and each worker thread keeps its own GridPathPlanner,
+// so no search state is shared between threads and the buffers are reused from query to query.
+// The grid is only read while planning and must not be modified during a call to planAll.
+public class BatchPathPlanner implements AutoCloseable {
+	private static final int QUERIES_PER_TASK = 16; // Queries below which a task stops splitting
+
+	private final Grid grid;
+	private final ForkJoinPool pool;
+	private final ThreadLocal<GridPathPlanner> planners; // One set of search buffers per worker thread
+	private volatile SearchMetrics metrics; // Shared by all worker planners, or null when disabled
+	private volatile ConnectivityIndex connectivity; // Shared by all worker planners, or null when disabled
+
+	// Constructor to plan on the given grid using one worker per available core
+	public BatchPathPlanner(Grid grid) {
+		this(grid, Runtime.getRuntime().availableProcessors());
+	}
+
+	// Constructor to plan on the given grid using the given number of worker threads
+	public BatchPathPlanner(Grid grid, int parallelism) {
+		this(grid, parallelism, PlannerMode.ASTAR);
+	}
+
+	// Constructor to plan on the given grid with the given planner mode and number of worker threads
+	public BatchPathPlanner(Grid grid, int parallelism, PlannerMode mode) {
+		this.grid = grid;
+		this.pool = new ForkJoinPool(parallelism);
+		this.planners = ThreadLocal.withInitial(() -> mode.create(this.grid));
+	}
+
+	public Grid getGrid() {
+		return grid;
+	}
+
+	public int getParallelism() {
+		return pool.getParallelism();
+	}
+
+	// Method to reject queries between different components of the grid without searching (null to disable)
+	public void setConnectivity(ConnectivityIndex connectivity) {
+		this.connectivity = connectivity;
+	}
+
+	// Method to record the queries of following calls to planAll into metrics (null to disable)
+	public void setMetrics(SearchMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	// Method to solve all queries, returning the path of cell indices for each query (null when none exists)
+	// in the same order as the queries
+	public int[][] planAll(List<PathQuery> queries) {
+		int[][] paths = new int[queries.size()][];
+		pool.invoke(new PlanTask(queries, paths, 0, queries.size()));
+		return paths;
+	}
+
+	// Method to stop the worker threads
+	@Override
+	public void close() {
+		pool.shutdown();
+	}
+
+	// Task that solves a range of queries, splitting it in half until it is small enough
+	private class PlanTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final List<PathQuery> queries;
+		private final int[][] paths;
+		private final int from;
+		private final int to;
+
+		PlanTask(List<PathQuery> queries, int[][] paths, int from, int to) {
+			this.queries = queries;
+			this.paths = paths;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= QUERIES_PER_TASK) {
+				GridPathPlanner planner = planners.get();
+				planner.setMetrics(metrics);
+				planner.setConnectivity(connectivity);
+				for (int i = from; i < to; i++) {
+					PathQuery query = queries.get(i);
+					paths[i] = planner.findPath(query.getStart(), query.getGoal());
+				}
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new PlanTask(queries, paths, from, middle), new PlanTask(queries, paths, middle, to));
+		}
+	}
+}
@@ -0,0 +1,289 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+// This BatchScenarioRunner class replays a scenario file of start/goal queries against one grid without any
+// interaction, for scripted benchmarks of logged requests.
+// A scenario file has one query per line, "startRow startCol goalRow goalCol" separated by spaces, tabs or commas;
+// empty lines and lines starting with "#" are skipped.
+// The grid is loaded once, queries are streamed through a single planner and each result (path length, cost,
+// time and expanded nodes) is written as one CSV row or JSON line through large buffers, so neither side holds
+// the whole batch in memory and throughput is limited by planning rather than by I/O.
+public class BatchScenarioRunner {
+	public static final String FORMAT_CSV = "csv";
+	public static final String FORMAT_JSONL = "jsonl";
+
+	private static final int IO_BUFFER_CHARS = 1 << 16;
+	private static final String CSV_HEADER = "query,start_row,start_col,goal_row,goal_col,found,length,cost,time_ns,"
+			+ "expanded";
+
+	private final Grid grid;
+	private final GridPathPlanner planner;
+	private final PlannerMode mode;
+	private final boolean json;
+	private final SearchMetrics metrics = new SearchMetrics();
+	private PrintStream renderStream; // Console to draw each query on, or null
+	private ClearanceMap clearance; // Built on first use by a footprint radius above 0
+	private final StringBuilder line = new StringBuilder(128);
+	private final int[] fields = new int[4];
+
+	private long queries;
+	private long invalidLines;
+	private long planningNanos;
+
+	// Constructor to replay queries on the given grid with the given planner mode and output format
+	public BatchScenarioRunner(Grid grid, PlannerMode mode, String format) {
+		if (!FORMAT_CSV.equals(format) && !FORMAT_JSONL.equals(format)) {
+			throw new IllegalArgumentException("Unknown output format: " + format + " (expected csv or jsonl)");
+		}
+		this.grid = grid;
+		this.mode = mode;
+		this.planner = mode.create(grid);
+		this.json = FORMAT_JSONL.equals(format);
+		planner.setMetrics(metrics);
+	}
+
+	// Method to draw the grid and path of every query to the given stream (null to disable)
+	public void setRenderStream(PrintStream renderStream) {
+		this.renderStream = renderStream;
+	}
+
+	// Method to plan for robots covering the (2 * radius + 1) x (2 * radius + 1) square around their position
+	public void setFootprintRadius(int radius) {
+		if (radius > 0 && clearance == null) {
+			clearance = new ClearanceMap(grid);
+		}
+		planner.setFootprint(clearance, radius);
+	}
+
+	// Method to plan every query of the scenario and write one result per query
+	public void run(BufferedReader scenario, Writer results) throws IOException {
+		if (!json) {
+			results.write(CSV_HEADER);
+			results.write('\n');
+		}
+		String text;
+		int lineNumber = 0;
+		while ((text = scenario.readLine()) != null) {
+			lineNumber++;
+			int count = parseFields(text);
+			if (count == 0) {
+				continue; // Empty or comment line
+			}
+			if (count != 4) {
+				invalidLines++;
+				System.err.println("Skipping invalid scenario line " + lineNumber + ": " + text);
+				continue;
+			}
+			runQuery(results);
+		}
+		results.flush();
+	}
+
+	// Method to plan one query from the parsed fields and write its result
+	private void runQuery(Writer results) throws IOException {
+		RobotState start = new RobotState(fields[0], fields[1], Direction.UP);
+		RobotState goal = new RobotState(fields[2], fields[3], Direction.UP);
+		long startTime = System.nanoTime();
+		int[] path = planner.findPath(start, goal);
+		long elapsed = System.nanoTime() - startTime;
+		planningNanos += elapsed;
+
+		line.setLength(0);
+		if (json) {
+			line.append("{\"query\":").append(queries).append(",\"start\":[").append(fields[0]).append(',')
+					.append(fields[1]).append("],\"goal\":[").append(fields[2]).append(',').append(fields[3])
+					.append("],\"found\":").append(path != null).append(",\"length\":")
+					.append(path == null ? 0 : path.length).append(",\"cost\":");
+			if (path == null) {
+				line.append("null");
+			} else {
+				line.append(planner.getPathCost(path));
+			}
+			line.append(",\"time_ns\":").append(elapsed).append(",\"expanded\":").append(planner.getExpandedCount())
+					.append('}');
+		} else {
+			line.append(queries).append(',').append(fields[0]).append(',').append(fields[1]).append(',')
+					.append(fields[2]).append(',').append(fields[3]).append(',').append(path != null).append(',')
+					.append(path == null ? 0 : path.length).append(',');
+			if (path != null) {
+				line.append(planner.getPathCost(path));
+			}
+			line.append(',').append(elapsed).append(',').append(planner.getExpandedCount());
+		}
+		line.append('\n');
+		results.append(line);
+		queries++;
+
+		if (renderStream != null) {
+			results.flush(); // Keep the results and the drawings in order when both go to the console
+			renderStream.println("Query " + (queries - 1) + ": Start (" + fields[0] + ", " + fields[1] + ") | Goal ("
+					+ fields[2] + ", " + fields[3] + ")");
+			if (grid.isValidPosition(fields[0], fields[1]) && grid.isValidPosition(fields[2], fields[3])) {
+				GridRenderer renderer = new GridRenderer(grid);
+				renderer.setStart(fields[0], fields[1]);
+				renderer.setGoal(fields[2], fields[3]);
+				renderer.markPath(path);
+				renderer.renderFitted(renderStream, 200, 200);
+			}
+		}
+	}
+
+	// Helper method to parse up to four non-negative integers from a line without splitting it, returning how
+	// many fields it holds (0 for empty and comment lines, -1 if it is malformed)
+	private int parseFields(String text) {
+		int count = 0;
+		long value = 0;
+		boolean inNumber = false;
+		for (int i = 0; i <= text.length(); i++) {
+			char c = i < text.length() ? text.charAt(i) : ' ';
+			if (c >= '0' && c <= '9') {
+				value = value * 10 + (c - '0');
+				if (value > Integer.MAX_VALUE) {
+					return -1;
+				}
+				inNumber = true;
+			} else if (c == ' ' || c == '\t' || c == ',' || c == '\r') {
+				if (inNumber) {
+					if (count == fields.length) {
+						return -1;
+					}
+					fields[count++] = (int) value;
+					value = 0;
+					inNumber = false;
+				}
+			} else if (c == '#' && count == 0 && !inNumber) {
+				return 0; // Comment
+			} else {
+				return -1;
+			}
+		}
+		return count;
+	}
+
+	// Method to print the totals of the batch
+	public void printSummary(PrintStream out, long wallNanos) {
+		out.println("Planner: " + mode.getDisplayName() + " | Grid: " + grid.getNumRows() + "x" + grid.getNumCols()
+				+ " | Invalid lines: " + invalidLines);
+		out.println("Planning time: " + planningNanos / 1_000_000.0 + " ms | Wall time: " + wallNanos / 1_000_000.0
+				+ " ms | Throughput: " + (long) (queries * 1e9 / Math.max(1, wallNanos)) + " queries/s");
+		metrics.printSummary(out);
+	}
+
+	public long getQueries() {
+		return queries;
+	}
+
+	public long getInvalidLines() {
+		return invalidLines;
+	}
+
+	public SearchMetrics getMetrics() {
+		return metrics;
+	}
+
+	// Method to run a batch from command-line arguments:
+	// <grid file> <scenario file> [--out file] [--format csv|jsonl] [--mode ASTAR|JUMP_POINT|...] [--costs file]
+	// [--radius r] [--render]
+	// Without --out the results go to standard output and the summary to standard error.
+	// Returns the process exit code.
+	public static int runFromArgs(String[] args) {
+		if (args.length < 2) {
+			System.err.println("Usage: --batch <grid file> <scenario file> [--out file] [--format csv|jsonl] "
+					+ "[--mode ASTAR|JUMP_POINT|BIDIRECTIONAL] [--costs file] [--radius r] [--render]");
+			return 2;
+		}
+		String gridPath = args[0];
+		String scenarioPath = args[1];
+		String outPath = null;
+		String costsPath = null;
+		String format = FORMAT_CSV;
+		PlannerMode mode = PlannerMode.ASTAR;
+		int radius = 0;
+		boolean render = false;
+		for (int i = 2; i < args.length; i++) {
+			switch (args[i]) {
+			case "--render":
+				render = true;
+				break;
+			case "--out":
+			case "--costs":
+			case "--format":
+			case "--mode":
+			case "--radius":
+				if (i + 1 == args.length) {
+					System.err.println("Missing value for option: " + args[i]);
+					return 2;
+				}
+				String value = args[++i];
+				if (args[i - 1].equals("--out")) {
+					outPath = value;
+				} else if (args[i - 1].equals("--costs")) {
+					costsPath = value;
+				} else if (args[i - 1].equals("--format")) {
+					format = value.toLowerCase();
+				} else if (args[i - 1].equals("--radius")) {
+					try {
+						radius = Integer.parseInt(value);
+					} catch (NumberFormatException e) {
+						System.err.println("Invalid footprint radius: " + value);
+						return 2;
+					}
+				} else {
+					try {
+						mode = PlannerMode.valueOf(value.toUpperCase());
+					} catch (IllegalArgumentException e) {
+						System.err.println("Unknown planner mode: " + value);
+						return 2;
+					}
+				}
+				break;
+			default:
+				System.err.println("Unknown option: " + args[i]);
+				return 2;
+			}
+		}
+
+		try {
+			long startTime = System.nanoTime();
+			Grid grid = GridLoader.load(gridPath);
+			if (costsPath != null) {
+				GridLoader.loadCellCosts(grid, costsPath);
+			}
+			BatchScenarioRunner runner = new BatchScenarioRunner(grid, mode, format);
+			runner.setFootprintRadius(radius);
+			if (render) {
+				runner.setRenderStream(System.out);
+			}
+			Writer results = new BufferedWriter(new OutputStreamWriter(
+					outPath == null ? System.out : new FileOutputStream(outPath), StandardCharsets.UTF_8),
+					IO_BUFFER_CHARS);
+			try (BufferedReader scenario = new BufferedReader(
+					new InputStreamReader(new FileInputStream(scenarioPath), StandardCharsets.UTF_8),
+					IO_BUFFER_CHARS)) {
+				runner.run(scenario, results);
+			} finally {
+				if (outPath == null) {
+					results.flush(); // Standard output stays open
+				} else {
+					results.close();
+				}
+			}
+			runner.printSummary(outPath == null ? System.err : System.out, System.nanoTime() - startTime);
+			return 0;
+		} catch (IOException e) {
+			System.err.println("Batch failed: " + e.getMessage());
+			return 1;
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			return 2;
+		}
+	}
+}
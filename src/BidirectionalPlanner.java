@@ -0,0 +1,188 @@
+import java.util.Arrays;
+
+// This BidirectionalPlanner class runs A* from the start and from the goal at the same time.
+// Each search explores roughly a disc of half the route length, so long routes touch far fewer cells than a single
+// search grown all the way from the start.
+// The forward search uses the inherited buffers; the backward search has its own g, parent, stamp and open list.
+// Whenever one search reaches a cell the other has already reached, the joined cost becomes a candidate for the
+// best path cost mu.
+// Both searches are guided by the balanced potential p(n) = (h(n, goal) - h(n, start)) / 2: the forward search is
+// keyed by g + p and the backward search by g - p. As both heuristics are consistent, this is bidirectional Dijkstra
+// on non-negative reduced edge costs, and the forward and backward keys of any cell add up to the cost of the path
+// through it. The search can therefore stop as soon as the two smallest keys add up to at least mu, which happens
+// far earlier than waiting for either key alone to reach mu.
+// Each step expands the side with the smaller open list, which keeps the two frontiers balanced.
+public class BidirectionalPlanner extends GridPathPlanner {
+	private final double[] gBack; // Cost to the goal, valid only for cells stamped in markBack
+	private final int[] parentBack; // Next cell towards the goal on the best known path
+	private final int[] markBack; // Backward search stamp, using the same openStamp as the forward search
+	private final IndexedMinHeap openBack;
+
+	private double bestCost; // mu: cost of the best path found so far
+	private int meetingCell; // Cell joining the two halves of that path, or -1
+	private int searchStart;
+	private int searchGoal;
+
+	// Constructor to allocate the working buffers of both searches for the given grid
+	public BidirectionalPlanner(Grid grid) {
+		super(grid);
+		this.gBack = new double[g.length];
+		this.parentBack = new int[g.length];
+		this.markBack = new int[g.length];
+		this.openBack = new IndexedMinHeap(g.length);
+	}
+
+	// Implements bidirectional A* over cell indices, returning the path from start to goal or null if none exists
+	@Override
+	protected int[] search(int start, int goal) {
+		resetCounters();
+		if (start == goal) {
+			return new int[] { start };
+		}
+		if (isBlocked(start) || isBlocked(goal)) {
+			return null; // No path found
+		}
+
+		beginSearch();
+		bestCost = Double.POSITIVE_INFINITY;
+		meetingCell = -1;
+		searchStart = start;
+		searchGoal = goal;
+		open(start, 0, -1, goal);
+		openBackward(goal, 0, -1, start);
+
+		while (!openList.isEmpty() && !openBack.isEmpty()) {
+			if (openList.peekKey() + openBack.peekKey() >= bestCost) {
+				break; // No unexplored path can be cheaper than mu
+			}
+			if (openList.size() <= openBack.size()) {
+				int current = openList.pop();
+				expandedCount++;
+				mark[current] = openStamp + 1;
+				expand(current, goal);
+			} else {
+				int current = openBack.pop();
+				expandedCount++;
+				markBack[current] = openStamp + 1;
+				expandBackward(current, start);
+			}
+		}
+
+		return meetingCell == -1 ? null : joinPath(meetingCell); // Null when no path found
+	}
+
+	// Method to relax a neighbor in the forward search and check whether it joins the backward search
+	@Override
+	protected void relax(int current, int neighbor, double tentativeG, int goal) {
+		super.relax(current, neighbor, tentativeG, goal);
+		if (markBack[neighbor] >= openStamp) {
+			meet(neighbor); // Reached by both searches (and therefore free)
+		}
+	}
+
+	// Method to record a cell's cost and parent in the forward search and push it keyed by g + p
+	@Override
+	protected void open(int cell, double cost, int from, int goal) {
+		boolean reopening = mark[cell] == openStamp + 1;
+		g[cell] = cost;
+		parent[cell] = from;
+		mark[cell] = openStamp;
+		openList.push(cell, cost + potential(cell), calculateHeuristic(cell, goal));
+		countPush(reopening);
+	}
+
+	// Method to relax the four neighbors of a cell in the backward search
+	private void expandBackward(int current, int start) {
+		int row = rowOf(current);
+		int col = colOf(current);
+		// The backward search walks moves in reverse: a neighbor reaches the goal through this cell by entering it
+		double nextG = gBack[current] + (cellCosts == null ? 1 : cellCosts[current] & 0xFF);
+
+		if (row > 0)
+			relaxBackward(current, current - numCols, nextG, start);
+		if (row < numRows - 1)
+			relaxBackward(current, current + numCols, nextG, start);
+		if (col > 0)
+			relaxBackward(current, current - 1, nextG, start);
+		if (col < numCols - 1)
+			relaxBackward(current, current + 1, nextG, start);
+	}
+
+	private void relaxBackward(int current, int neighbor, double tentativeG, int start) {
+		int state = markBack[neighbor];
+		if (state == openStamp + 1 || isBlocked(neighbor)) {
+			return; // Closed or obstacle
+		}
+		if (state != openStamp || tentativeG < gBack[neighbor]) {
+			openBackward(neighbor, tentativeG, current, start);
+		}
+		if (mark[neighbor] >= openStamp) {
+			meet(neighbor);
+		}
+	}
+
+	private void openBackward(int cell, double cost, int towardsGoal, int start) {
+		boolean reopening = markBack[cell] == openStamp + 1;
+		gBack[cell] = cost;
+		parentBack[cell] = towardsGoal;
+		markBack[cell] = openStamp;
+		openBack.push(cell, cost - potential(cell), calculateHeuristic(cell, start));
+		countPush(reopening);
+	}
+
+	// Method to compute the balanced potential of a cell for the current query
+	private double potential(int cell) {
+		return (calculateHeuristic(cell, searchGoal) - calculateHeuristic(cell, searchStart)) / 2;
+	}
+
+	// Method to update mu with the path through a cell reached by both searches
+	private void meet(int cell) {
+		double cost = g[cell] + gBack[cell];
+		if (cost < bestCost) {
+			bestCost = cost;
+			meetingCell = cell;
+		}
+	}
+
+	// Method to count pushes and track the combined size of both open lists
+	@Override
+	protected void countPush(boolean reopening) {
+		super.countPush(reopening);
+		heapHighWater = Math.max(heapHighWater, openList.size() + openBack.size());
+	}
+
+	// Method to start both searches, clearing the backward stamps whenever the forward ones are cleared
+	@Override
+	protected void beginSearch() {
+		super.beginSearch();
+		openBack.clear();
+		if (openStamp == 2) {
+			Arrays.fill(markBack, 0);
+		}
+	}
+
+	// Method to join the forward path from the start to the meeting cell with the backward path on to the goal
+	private int[] joinPath(int meeting) {
+		int forwardLength = 0;
+		for (int cell = meeting; cell != -1; cell = parent[cell]) {
+			forwardLength++;
+		}
+		int length = forwardLength;
+		for (int cell = parentBack[meeting]; cell != -1; cell = parentBack[cell]) {
+			length++;
+		}
+
+		int[] path = new int[length];
+		int cell = meeting;
+		for (int i = forwardLength - 1; i >= 0; i--) {
+			path[i] = cell;
+			cell = parent[cell];
+		}
+		cell = parentBack[meeting];
+		for (int i = forwardLength; i < length; i++) {
+			path[i] = cell;
+			cell = parentBack[cell];
+		}
+		return path;
+	}
+}
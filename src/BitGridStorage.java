@@ -0,0 +1,67 @@
+// This BitGridStorage class packs occupancy into a long[] bitset, one bit per cell.
+// Every row starts on a word boundary so a row can be read 64 cells at a time,
+// which costs 1/8 of the memory of a boolean[][] and needs no per-row array headers.
+public class BitGridStorage implements GridStorage {
+	private final int numRows;
+	private final int numCols;
+	private final int wordsPerRow;
+	private final long[] words; // Row-major words, wordsPerRow words per row
+
+	// Constructor to create an empty bitset of the given dimensions
+	public BitGridStorage(int numRows, int numCols) {
+		this.numRows = numRows;
+		this.numCols = numCols;
+		this.wordsPerRow = (numCols + 63) >>> 6;
+		long numWords = (long) numRows * wordsPerRow;
+		if (numWords > Integer.MAX_VALUE - 8) {
+			throw new IllegalArgumentException("Grid too large for an in-memory bitset: " + numRows + "x" + numCols);
+		}
+		this.words = new long[(int) numWords];
+	}
+
+	@Override
+	public int getNumRows() {
+		return numRows;
+	}
+
+	@Override
+	public int getNumCols() {
+		return numCols;
+	}
+
+	@Override
+	public int getWordsPerRow() {
+		return wordsPerRow;
+	}
+
+	@Override
+	public boolean get(int row, int col) {
+		return (words[row * wordsPerRow + (col >>> 6)] & (1L << col)) != 0;
+	}
+
+	@Override
+	public void set(int row, int col, boolean obstacle) {
+		int index = row * wordsPerRow + (col >>> 6);
+		if (obstacle) {
+			words[index] |= 1L << col;
+		} else {
+			words[index] &= ~(1L << col);
+		}
+	}
+
+	@Override
+	public long getWord(int row, int wordIndex) {
+		return words[row * wordsPerRow + wordIndex];
+	}
+
+	@Override
+	public void setWord(int row, int wordIndex, long bits) {
+		words[row * wordsPerRow + wordIndex] = bits & validMask(wordIndex);
+	}
+
+	// Helper method to mask off the bits past the last column in the final word of a row
+	private long validMask(int wordIndex) {
+		int remaining = numCols - (wordIndex << 6);
+		return remaining >= 64 ? -1L : (1L << remaining) - 1;
+	}
+}
@@ -0,0 +1,254 @@
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+// This ClearanceMap class holds the obstacle distance transform of a grid: for every cell, the Chebyshev distance
+// (the number of king moves) to the nearest obstacle, with the cells just outside the grid counted as obstacles.
+// A robot covering the (2r + 1) x (2r + 1) square of cells centered on its position fits at a cell exactly when
+// the clearance of that cell is greater than r, so one map serves planners for robots of every size: a single-cell
+// robot has radius 0 and a 3x3 robot radius 1.
+// The transform is computed in linear time in two separable passes: every row finds the distance to the nearest
+// obstacle in that row, then every column combines these with the lower envelope of Meijster's algorithm for
+// the Chebyshev metric. Rows are processed in parallel and then columns, in bands of 64 columns.
+// Clearances are stored in one unsigned byte per cell and saturated at MAX_CLEARANCE.
+// The map listens to the grid. A new obstacle only lowers clearances, and only around itself, so it is applied
+// with a breadth-first search over king moves that stops where the stored clearances are already small enough;
+// a freed cell or a grid reset marks the map dirty and it is rebuilt lazily by the next query.
+// A rebuild fills a new array and only then swaps it in, so queries on other threads keep reading the previous
+// clearances meanwhile; the first of them to find the map dirty rebuilds it and the others wait for that result.
+public class ClearanceMap implements GridListener {
+	public static final int MAX_CLEARANCE = 255;
+	private static final int BAND_COLS = 64;
+
+	private final Grid grid;
+	private final int numRows;
+	private final int numCols;
+	private volatile byte[] clearance; // Unsigned clearance of each cell, 0 for obstacles
+	private volatile boolean dirty;
+	private int[] updateQueue; // Reused by incremental updates
+
+	private long buildTimeNanos;
+	private int rebuildCount;
+	private long updateCount;
+
+	// Constructor to compute the clearance map of the given grid
+	public ClearanceMap(Grid grid) {
+		this.grid = grid;
+		this.numRows = grid.getNumRows();
+		this.numCols = grid.getNumCols();
+		GridPathPlanner.cellCount(grid); // Rejects grids too large to map
+		rebuild();
+		grid.addListener(this);
+	}
+
+	// Method to return the clearance of a cell: 0 for an obstacle, otherwise the Chebyshev distance to the nearest
+	// obstacle or grid edge, at most MAX_CLEARANCE
+	public int getClearance(int cell) {
+		return currentClearance()[cell] & 0xFF;
+	}
+
+	public int getClearance(int row, int col) {
+		return getClearance(row * numCols + col);
+	}
+
+	// Method to check whether a robot of the given footprint radius fits at a cell
+	public boolean fits(int cell, int radius) {
+		return (currentClearance()[cell] & 0xFF) > radius;
+	}
+
+	// Helper method to return the clearances, first rebuilding them if the map is dirty. The flag is checked again
+	// under the lock, since another thread may have rebuilt the map while this one waited for it.
+	private byte[] currentClearance() {
+		if (dirty) {
+			synchronized (this) {
+				if (dirty) {
+					rebuild();
+				}
+			}
+		}
+		return clearance;
+	}
+
+	// Method to recompute the whole map into a new array, rows in parallel and then columns in parallel, then
+	// publish it
+	public synchronized void rebuild() {
+		long startTime = System.nanoTime();
+		byte[] clearance = new byte[numRows * numCols];
+		IntStream.range(0, numRows).parallel().forEach(row -> transformRow(clearance, row));
+		int numBands = (numCols + BAND_COLS - 1) / BAND_COLS;
+		IntStream.range(0, numBands).parallel().forEach(band -> transformColumns(clearance, band));
+		this.clearance = clearance;
+		dirty = false;
+		rebuildCount++;
+		buildTimeNanos = System.nanoTime() - startTime;
+	}
+
+	// Method to store, for every cell of a row, the distance to the nearest obstacle in the same row or to the
+	// nearest end of the row, scanning a 64-cell word at a time
+	private void transformRow(byte[] clearance, int row) {
+		int base = row * numCols;
+		int distance = 0; // The cell before the row counts as an obstacle
+		for (int word = 0; word < grid.getWordsPerRow(); word++) {
+			long obstacles = grid.getObstacleWord(row, word);
+			int end = Math.min(numCols, (word + 1) << 6);
+			for (int col = word << 6; col < end; col++) {
+				distance = (obstacles & (1L << col)) != 0 ? 0 : distance + 1;
+				clearance[base + col] = (byte) Math.min(distance, MAX_CLEARANCE);
+			}
+		}
+		distance = 0; // And so does the cell after it
+		for (int col = numCols - 1; col >= 0; col--) {
+			int stored = clearance[base + col] & 0xFF;
+			distance = stored == 0 ? 0 : distance + 1;
+			if (distance < stored) {
+				clearance[base + col] = (byte) distance;
+			}
+		}
+	}
+
+	// Method to turn the row distances of a band of columns into clearances. For each column, the clearance of row
+	// y is the smallest max(|y - i|, rowDistance(i)) over all rows i and the two rows just outside the grid; the
+	// rows i that achieve it for some y form a lower envelope built going down the column and read back going up.
+	// All columns of the band are advanced together a row at a time, so the grid is only read and written in row
+	// segments, and the envelopes of the columns are interleaved for the same reason.
+	private void transformColumns(byte[] clearance, int band) {
+		int colFrom = band * BAND_COLS;
+		int width = Math.min(numCols, colFrom + BAND_COLS) - colFrom;
+		int[] top = new int[width]; // Index of the last envelope entry of each column
+		int[] envelope = new int[numRows * width]; // Entry k of column i at k * width + i: a row on the envelope,
+		int[] from = new int[envelope.length]; // the first row y it is the nearest for,
+		int[] reach = new int[envelope.length]; // and its row distance
+
+		for (int i = 0; i < width; i++) {
+			reach[i] = clearance[colFrom + i] & 0xFF; // Row 0 starts every envelope
+		}
+		for (int u = 1; u < numRows; u++) {
+			int base = u * numCols + colFrom;
+			for (int i = 0; i < width; i++) {
+				int distance = clearance[base + i] & 0xFF;
+				int t = top[i];
+				// Drop the entries that row u is nearer than from the first row they cover
+				while (t >= 0) {
+					int k = t * width + i;
+					if (Math.max(Math.abs(from[k] - envelope[k]), reach[k]) <= Math.max(Math.abs(u - from[k]), distance)) {
+						break;
+					}
+					t--;
+				}
+				if (t < 0) {
+					t = 0;
+					envelope[i] = u;
+					from[i] = 0;
+					reach[i] = distance;
+				} else {
+					int k = t * width + i;
+					int w = 1 + separator(envelope[k], reach[k], u, distance);
+					if (w < numRows) {
+						t++;
+						k += width;
+						envelope[k] = u;
+						from[k] = w;
+						reach[k] = distance;
+					}
+				}
+				top[i] = t;
+			}
+		}
+
+		for (int row = numRows - 1; row >= 0; row--) {
+			int base = row * numCols + colFrom;
+			int edge = Math.min(Math.min(row + 1, numRows - row), MAX_CLEARANCE); // Rows outside count as obstacles
+			for (int i = 0; i < width; i++) {
+				int k = top[i] * width + i;
+				clearance[base + i] = (byte) Math.min(Math.max(Math.abs(row - envelope[k]), reach[k]), edge);
+				if (row == from[k]) {
+					top[i]--;
+				}
+			}
+		}
+	}
+
+	// Helper method to return the last row y at which row i (with i < u and row distance gi) is at least as near as
+	// row u (with row distance gu)
+	private static int separator(int i, int gi, int u, int gu) {
+		if (gi <= gu) {
+			return Math.max(i + gu, (i + u) / 2);
+		}
+		return Math.min(u - gi, (i + u) / 2);
+	}
+
+	// Method to lower the clearances around a new obstacle, or mark the map dirty when a cell is freed
+	@Override
+	public synchronized void cellChanged(int row, int col, boolean obstacle) {
+		if (!obstacle || dirty) {
+			dirty = true; // A freed cell can raise clearances anywhere around it
+			return;
+		}
+		byte[] clearance = this.clearance;
+		int cell = row * numCols + col;
+		if (clearance[cell] == 0) {
+			return;
+		}
+		if (updateQueue == null) {
+			updateQueue = new int[64];
+		}
+		int[] queue = updateQueue;
+		int head = 0;
+		int tail = 0;
+		clearance[cell] = 0;
+		queue[tail++] = cell;
+		// Clearances change by at most one between neighboring cells, so a cell that the new obstacle does not lower
+		// shields every cell behind it
+		while (head < tail) {
+			int current = queue[head++];
+			int currentRow = current / numCols;
+			int currentCol = current % numCols;
+			int next = Math.max(Math.abs(currentRow - row), Math.abs(currentCol - col)) + 1;
+			for (int r = Math.max(0, currentRow - 1); r <= Math.min(numRows - 1, currentRow + 1); r++) {
+				for (int c = Math.max(0, currentCol - 1); c <= Math.min(numCols - 1, currentCol + 1); c++) {
+					int neighbor = r * numCols + c;
+					if ((clearance[neighbor] & 0xFF) > next
+							&& Math.max(Math.abs(r - row), Math.abs(c - col)) == next) {
+						clearance[neighbor] = (byte) next;
+						if (tail == queue.length) {
+							queue = Arrays.copyOf(queue, queue.length * 2);
+							updateQueue = queue;
+						}
+						queue[tail++] = neighbor;
+					}
+				}
+			}
+		}
+		updateCount++;
+	}
+
+	@Override
+	public synchronized void gridReset() {
+		dirty = true;
+	}
+
+	// Method to stop following changes of the grid
+	public void detach() {
+		grid.removeListener(this);
+	}
+
+	public Grid getGrid() {
+		return grid;
+	}
+
+	public boolean isDirty() {
+		return dirty;
+	}
+
+	// Getters for the statistics of the rebuilds and incremental updates
+	public long getBuildTimeNanos() {
+		return buildTimeNanos;
+	}
+
+	public int getRebuildCount() {
+		return rebuildCount;
+	}
+
+	public long getUpdateCount() {
+		return updateCount;
+	}
+}
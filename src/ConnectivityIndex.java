@@ -0,0 +1,241 @@
+import java.util.stream.IntStream;
+
+// This ConnectivityIndex class labels the 4-connected components of free cells, so a planner can reject a
+// start/goal pair in different components in O(1) instead of flooding the whole reachable area first.
+// Labels are computed with union-find in two passes: every band of BAND_ROWS rows is labelled on its own, in
+// parallel, and the bands are then joined along their boundary rows.
+// The index listens to the grid. A new obstacle only removes its cell when its free neighbors stay connected
+// around it (through the surrounding ring of eight cells); otherwise the component may have been split and the
+// index is marked dirty and rebuilt lazily by the next query.
+// Queries may run on several threads: a rebuild labels a fresh array under the lock and then publishes it, so
+// readers see either the old labels or the new ones, never a half-built array, and only one of the threads that
+// found the index dirty rebuilds it.
+public class ConnectivityIndex implements GridListener {
+	private static final int BAND_ROWS = 64;
+	private static final int BLOCKED = -1;
+
+	private final Grid grid;
+	private final int numRows;
+	private final int numCols;
+	private volatile int[] labels; // Component of each cell (the index of its root cell), or BLOCKED
+	private volatile boolean dirty;
+	private int componentCount;
+
+	private long buildTimeNanos;
+	private int rebuildCount;
+
+	// Constructor to label the components of the given grid
+	public ConnectivityIndex(Grid grid) {
+		this.grid = grid;
+		this.numRows = grid.getNumRows();
+		this.numCols = grid.getNumCols();
+		GridPathPlanner.cellCount(grid); // Rejects grids too large to index
+		rebuild();
+		grid.addListener(this);
+	}
+
+	// Method to check whether a path can exist between two cells: both are free and in the same component
+	public boolean isConnected(int cellA, int cellB) {
+		int[] current = currentLabels();
+		int label = current[cellA];
+		return label != BLOCKED && label == current[cellB];
+	}
+
+	public boolean isConnected(RobotState a, RobotState b) {
+		if (!grid.isValidPosition(a.getRow(), a.getColumn()) || !grid.isValidPosition(b.getRow(), b.getColumn())) {
+			return false;
+		}
+		return isConnected(a.getRow() * numCols + a.getColumn(), b.getRow() * numCols + b.getColumn());
+	}
+
+	// Method to return the component label of a cell, or -1 for an obstacle
+	public int getComponent(int cell) {
+		return currentLabels()[cell];
+	}
+
+	public synchronized int getComponentCount() {
+		currentLabels();
+		return componentCount;
+	}
+
+	// Helper method to return the labels, first rebuilding them if the index is dirty. The flag is checked again
+	// under the lock, so threads that queued up behind a rebuild use its result instead of repeating it.
+	private int[] currentLabels() {
+		if (dirty) {
+			synchronized (this) {
+				if (dirty) {
+					rebuild();
+				}
+			}
+		}
+		return labels;
+	}
+
+	// Method to relabel the whole grid into a new array, in parallel across row bands, then publish it
+	public synchronized void rebuild() {
+		long startTime = System.nanoTime();
+		int numBands = (numRows + BAND_ROWS - 1) / BAND_ROWS;
+		int[] labels = new int[numRows * numCols];
+
+		// Each band only links cells inside its own rows, so the bands never touch the same entries
+		IntStream.range(0, numBands).parallel().forEach(band -> labelBand(labels, band));
+
+		// Join each band to the one above it along its first row
+		for (int band = 1; band < numBands; band++) {
+			int row = band * BAND_ROWS;
+			for (int col = 0; col < numCols; col++) {
+				int cell = row * numCols + col;
+				if (labels[cell] != BLOCKED && labels[cell - numCols] != BLOCKED) {
+					union(labels, cell, cell - numCols);
+				}
+			}
+		}
+
+		// Point every cell straight at its root. The bands flatten concurrently, so roots are looked up without
+		// path halving: the only writes are roots into a band's own cells, and a link replaced by its root still
+		// leads to the same root for the other bands following it.
+		componentCount = IntStream.range(0, numBands).parallel().map(band -> flattenBand(labels, band)).sum();
+
+		this.labels = labels;
+		dirty = false;
+		rebuildCount++;
+		buildTimeNanos = System.nanoTime() - startTime;
+	}
+
+	// Method to link each free cell of a band to its free left and upper neighbors inside the band
+	private void labelBand(int[] labels, int band) {
+		int firstRow = band * BAND_ROWS;
+		int lastRow = Math.min(numRows, firstRow + BAND_ROWS) - 1;
+		for (int row = firstRow; row <= lastRow; row++) {
+			for (int col = 0; col < numCols; col++) {
+				int cell = row * numCols + col;
+				if (grid.isObstacle(row, col)) {
+					labels[cell] = BLOCKED;
+					continue;
+				}
+				labels[cell] = cell;
+				if (col > 0 && labels[cell - 1] != BLOCKED) {
+					union(labels, cell, cell - 1);
+				}
+				if (row > firstRow && labels[cell - numCols] != BLOCKED) {
+					union(labels, cell, cell - numCols);
+				}
+			}
+		}
+	}
+
+	// Method to replace the links of a band with their roots, returning the number of roots in the band
+	private int flattenBand(int[] labels, int band) {
+		int first = band * BAND_ROWS * numCols;
+		int end = Math.min(numRows, (band + 1) * BAND_ROWS) * numCols;
+		int roots = 0;
+		for (int cell = first; cell < end; cell++) {
+			if (labels[cell] != BLOCKED) {
+				int root = findRoot(labels, cell);
+				labels[cell] = root;
+				if (root == cell) {
+					roots++;
+				}
+			}
+		}
+		return roots;
+	}
+
+	// Method to find the root of a cell, halving the path on the way; only for links no other thread is reading
+	private static int find(int[] labels, int cell) {
+		while (labels[cell] != cell) {
+			int next = labels[cell];
+			labels[cell] = labels[next];
+			cell = next;
+		}
+		return cell;
+	}
+
+	// Method to find the root of a cell without changing any link, for lookups that run concurrently
+	private static int findRoot(int[] labels, int cell) {
+		while (labels[cell] != cell) {
+			cell = labels[cell];
+		}
+		return cell;
+	}
+
+	// Method to merge the components of two cells, keeping the smaller root
+	private static void union(int[] labels, int a, int b) {
+		int rootA = find(labels, a);
+		int rootB = find(labels, b);
+		if (rootA < rootB) {
+			labels[rootB] = rootA;
+		} else if (rootB < rootA) {
+			labels[rootA] = rootB;
+		}
+	}
+
+	// Method to remove a new obstacle from its component, or mark the index dirty when it may split it. Runs under
+	// the lock so it never updates an array that a rebuild is about to replace.
+	@Override
+	public synchronized void cellChanged(int row, int col, boolean obstacle) {
+		int cell = row * numCols + col;
+		if (!obstacle || dirty) {
+			dirty = true; // A freed cell can merge components
+			return;
+		}
+		if (labels[cell] == BLOCKED) {
+			return;
+		}
+
+		// Walk around the cell: up, right, down, left. Two consecutive free neighbors stay connected through
+		// the corner cell between them when that corner is free.
+		boolean[] free = { isFree(row - 1, col), isFree(row, col + 1), isFree(row + 1, col), isFree(row, col - 1) };
+		boolean[] corner = { isFree(row - 1, col + 1), isFree(row + 1, col + 1), isFree(row + 1, col - 1),
+				isFree(row - 1, col - 1) };
+		int freeCount = 0;
+		int groups = 0;
+		for (int i = 0; i < 4; i++) {
+			if (free[i]) {
+				freeCount++;
+				int previous = (i + 3) % 4;
+				if (!(free[previous] && corner[previous])) {
+					groups++; // Starts a new run around the ring
+				}
+			}
+		}
+		if (freeCount == 4 && groups == 0) {
+			groups = 1; // All neighbors and corners free: a single run with no start
+		}
+
+		labels[cell] = BLOCKED;
+		if (freeCount == 0) {
+			componentCount--; // The cell was a component on its own
+		} else if (groups > 1) {
+			dirty = true;
+		}
+	}
+
+	@Override
+	public synchronized void gridReset() {
+		dirty = true;
+	}
+
+	// Helper method to check a position is inside the grid and not an obstacle
+	private boolean isFree(int row, int col) {
+		return row >= 0 && row < numRows && col >= 0 && col < numCols && !grid.isObstacle(row, col);
+	}
+
+	// Method to stop following changes of the grid
+	public void detach() {
+		grid.removeListener(this);
+	}
+
+	public boolean isDirty() {
+		return dirty;
+	}
+
+	// Getters for the statistics of the last rebuild
+	public long getBuildTimeNanos() {
+		return buildTimeNanos;
+	}
+
+	public int getRebuildCount() {
+		return rebuildCount;
+	}
+}
@@ -0,0 +1,286 @@
+import java.util.Arrays;
+import java.util.List;
+
+// This CooperativePlanner class plans collision-free paths for many robots sharing one grid (cooperative A*).
+// Robots are planned one after another in the given priority order. Each robot runs A* over (cell, time) states,
+// where a step either moves to a neighboring cell or waits in place, and avoids the cells and moves that the
+// ReservationTable holds for the robots planned before it; its own path is then reserved in turn. After
+// reaching its goal a robot parks there, so a robot only finishes at its goal once nobody needs that cell later.
+// Space-time states are kept in a hash set and a growable node list, so the search never allocates per-cell
+// arrays over the time horizon. Keys never fall below the time the goal becomes free to park at, so a robot
+// that has to wait for its goal does not flood every earlier time step first.
+// Planning stops when the time budget runs out. Robots not planned by then (or with no conflict-free path within
+// the horizon) are reported as unplanned and reserved at their start cell; robots planned before them may still
+// pass through that cell, so the caller has to hold or replan them.
+public class CooperativePlanner {
+	private static final long EMPTY = -1;
+	private static final int DEADLINE_CHECK_INTERVAL = 1024; // Expansions between clock reads
+
+	private final Grid grid;
+	private final int numRows;
+	private final int numCols;
+	private final int horizon; // Largest time step a path may reach
+	private final long budgetNanos;
+
+	// Search nodes of the current robot: cell, time and parent node, indexed by node id
+	private int[] nodeCell = new int[1024];
+	private int[] nodeTime = new int[1024];
+	private int[] nodeParent = new int[1024];
+	private int nodeCount;
+	private long[] heap = new long[1024]; // (f << 32) | ~node id, so ties favor the newest (deepest) node
+	private int heapSize;
+	private long[] seen = new long[1 << 12]; // Open-addressing set of (time << 31) | cell states already reached
+	private int seenCount;
+	private int parkingTime; // Earliest time the current robot may finish at its goal
+
+	// Result of a planning run
+	public static class Result {
+		private final int[][] paths;
+		private final int unplanned;
+		private final int makespan;
+		private final long sumOfCosts;
+		private final long planningNanos;
+
+		Result(int[][] paths, int unplanned, int makespan, long sumOfCosts, long planningNanos) {
+			this.paths = paths;
+			this.unplanned = unplanned;
+			this.makespan = makespan;
+			this.sumOfCosts = sumOfCosts;
+			this.planningNanos = planningNanos;
+		}
+
+		// Method to return each robot's cell at every time step until it parks, or null if it was not planned
+		public int[][] getPaths() {
+			return paths;
+		}
+
+		public int getUnplanned() {
+			return unplanned;
+		}
+
+		// Method to return the time step at which the last robot reaches its goal
+		public int getMakespan() {
+			return makespan;
+		}
+
+		// Method to return the total number of time steps all planned robots take to reach their goals
+		public long getSumOfCosts() {
+			return sumOfCosts;
+		}
+
+		public long getPlanningNanos() {
+			return planningNanos;
+		}
+	}
+
+	// Constructor to plan on the given grid with a horizon of 4 * (rows + cols) steps and a one second budget
+	public CooperativePlanner(Grid grid) {
+		this(grid, 4 * (grid.getNumRows() + grid.getNumCols()), 1_000_000_000L);
+	}
+
+	// Constructor to plan on the given grid with the given time horizon (in steps) and planning budget
+	public CooperativePlanner(Grid grid, int horizon, long budgetNanos) {
+		GridPathPlanner.cellCount(grid);
+		this.grid = grid;
+		this.numRows = grid.getNumRows();
+		this.numCols = grid.getNumCols();
+		this.horizon = horizon;
+		this.budgetNanos = budgetNanos;
+	}
+
+	// Method to plan all robots in order, returning their paths with the makespan and planning time
+	public Result planAll(List<PathQuery> robots) {
+		long startTime = System.nanoTime();
+		long deadline = startTime + budgetNanos;
+		ReservationTable reservations = new ReservationTable(numCols);
+		int[][] paths = new int[robots.size()][];
+		int[] starts = new int[robots.size()];
+
+		// Every robot occupies its start cell when planning begins
+		for (int i = 0; i < robots.size(); i++) {
+			RobotState start = robots.get(i).getStart();
+			starts[i] = start.getRow() * numCols + start.getColumn();
+			reservations.reserveCell(starts[i], 0);
+		}
+
+		int unplanned = 0;
+		int makespan = 0;
+		long sumOfCosts = 0;
+		for (int i = 0; i < robots.size(); i++) {
+			RobotState goal = robots.get(i).getGoal();
+			int[] path = null;
+			if (System.nanoTime() < deadline && grid.isValidPosition(goal.getRow(), goal.getColumn())) {
+				path = search(starts[i], goal.getRow() * numCols + goal.getColumn(), reservations, deadline);
+			}
+			if (path == null) {
+				unplanned++;
+				reservations.reservePath(new int[] { starts[i] }); // The robot stays where it is
+				continue;
+			}
+			reservations.reservePath(path);
+			paths[i] = path;
+			makespan = Math.max(makespan, path.length - 1);
+			sumOfCosts += path.length - 1;
+		}
+		return new Result(paths, unplanned, makespan, sumOfCosts, System.nanoTime() - startTime);
+	}
+
+	// Implements space-time A* for one robot, returning its cell at each time step or null
+	private int[] search(int start, int goal, ReservationTable reservations, long deadline) {
+		if (grid.isObstacle(start / numCols, start % numCols) || grid.isObstacle(goal / numCols, goal % numCols)) {
+			return null; // No path found
+		}
+		parkingTime = reservations.earliestParkingTime(goal);
+		if (parkingTime < 0) {
+			return null; // Another robot already parks at the goal
+		}
+		nodeCount = 0;
+		heapSize = 0;
+		seenCount = 0;
+		Arrays.fill(seen, EMPTY);
+		markSeen(start);
+		addNode(start, 0, -1, goal);
+
+		int expanded = 0;
+		while (heapSize > 0) {
+			int node = pop();
+			int cell = nodeCell[node];
+			int t = nodeTime[node];
+			if (cell == goal && reservations.canParkFrom(cell, t)) {
+				return reconstructPath(node);
+			}
+			if (++expanded % DEADLINE_CHECK_INTERVAL == 0 && System.nanoTime() > deadline) {
+				return null; // Out of time
+			}
+			if (t >= horizon) {
+				continue;
+			}
+
+			int row = cell / numCols;
+			int col = cell % numCols;
+			tryStep(node, cell, cell, t, goal, reservations); // Wait in place
+			if (row > 0)
+				tryStep(node, cell, cell - numCols, t, goal, reservations);
+			if (row < numRows - 1)
+				tryStep(node, cell, cell + numCols, t, goal, reservations);
+			if (col > 0)
+				tryStep(node, cell, cell - 1, t, goal, reservations);
+			if (col < numCols - 1)
+				tryStep(node, cell, cell + 1, t, goal, reservations);
+		}
+		return null; // No path found
+	}
+
+	// Method to add the state (to, t + 1) unless it is blocked, reserved or already reached
+	private void tryStep(int node, int from, int to, int t, int goal, ReservationTable reservations) {
+		if (to != from && grid.isObstacle(to / numCols, to % numCols)) {
+			return;
+		}
+		if (!reservations.isFree(from, to, t) || !markSeen(((long) (t + 1) << 31) | to)) {
+			return;
+		}
+		addNode(to, t + 1, node, goal);
+	}
+
+	private void addNode(int cell, int t, int parentNode, int goal) {
+		if (nodeCount == nodeCell.length) {
+			nodeCell = Arrays.copyOf(nodeCell, nodeCount * 2);
+			nodeTime = Arrays.copyOf(nodeTime, nodeCount * 2);
+			nodeParent = Arrays.copyOf(nodeParent, nodeCount * 2);
+		}
+		int node = nodeCount++;
+		nodeCell[node] = cell;
+		nodeTime[node] = t;
+		nodeParent[node] = parentNode;
+		// The robot can neither reach the goal sooner than the Manhattan distance nor finish before the goal is free
+		long f = Math.max(parkingTime,
+				t + Math.abs(cell / numCols - goal / numCols) + Math.abs(cell % numCols - goal % numCols));
+		push((f << 32) | (~node & 0xFFFFFFFFL));
+	}
+
+	// Method to record a state as reached, returning false if it already was
+	private boolean markSeen(long state) {
+		if (2 * (seenCount + 1) > seen.length) {
+			long[] old = seen;
+			seen = new long[old.length * 2];
+			Arrays.fill(seen, EMPTY);
+			for (long value : old) {
+				if (value != EMPTY) {
+					insertSeen(value);
+				}
+			}
+		}
+		int mask = seen.length - 1;
+		for (int i = slotOf(state, mask);; i = (i + 1) & mask) {
+			if (seen[i] == EMPTY) {
+				seen[i] = state;
+				seenCount++;
+				return true;
+			}
+			if (seen[i] == state) {
+				return false;
+			}
+		}
+	}
+
+	private void insertSeen(long state) {
+		int mask = seen.length - 1;
+		int i = slotOf(state, mask);
+		while (seen[i] != EMPTY) {
+			i = (i + 1) & mask;
+		}
+		seen[i] = state;
+	}
+
+	private static int slotOf(long key, int mask) {
+		return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+	}
+
+	// Methods for the binary min-heap of packed (f, node) keys
+	private void push(long key) {
+		if (heapSize == heap.length) {
+			heap = Arrays.copyOf(heap, heapSize * 2);
+		}
+		int i = heapSize++;
+		while (i > 0) {
+			int parentSlot = (i - 1) >>> 1;
+			if (heap[parentSlot] <= key) {
+				break;
+			}
+			heap[i] = heap[parentSlot];
+			i = parentSlot;
+		}
+		heap[i] = key;
+	}
+
+	private int pop() {
+		long top = heap[0];
+		long last = heap[--heapSize];
+		int i = 0;
+		while (true) {
+			int child = 2 * i + 1;
+			if (child >= heapSize) {
+				break;
+			}
+			if (child + 1 < heapSize && heap[child + 1] < heap[child]) {
+				child++;
+			}
+			if (heap[child] >= last) {
+				break;
+			}
+			heap[i] = heap[child];
+			i = child;
+		}
+		heap[i] = last;
+		return ~(int) top;
+	}
+
+	// Method to list the cells of a node's path, one per time step from time 0
+	private int[] reconstructPath(int node) {
+		int[] path = new int[nodeTime[node] + 1];
+		for (int n = node; n != -1; n = nodeParent[n]) {
+			path[nodeTime[n]] = nodeCell[n];
+		}
+		return path;
+	}
+}
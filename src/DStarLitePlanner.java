@@ -0,0 +1,232 @@
+import java.util.Arrays;
+
+// This DStarLitePlanner class implements D* Lite for robots that discover obstacles while driving.
+// The search runs backwards from the goal and keeps its g/rhs values between calls, so when a cell changes
+// occupancy only the vertices whose distance to the goal actually changed are re-expanded, and the robot can
+// replan from wherever it currently is without starting over.
+// The planner listens to the grid, so calling Grid.setObstacle is enough to schedule the repair; the work
+// itself is done lazily by the next call to plan or replan.
+public class DStarLitePlanner implements GridListener {
+	private static final float INFINITY = Float.POSITIVE_INFINITY;
+
+	private final Grid grid;
+	private final int numRows;
+	private final int numCols;
+	private final float[] g; // Distance to the goal as of the last expansion
+	private final float[] rhs; // One-step lookahead distance to the goal
+	private final IndexedMinHeap openList; // Inconsistent vertices keyed by [k1, k2]
+	private final int goal;
+	private int start; // Current robot cell
+	private float keyModifier; // km: accumulated heuristic shift from robot movement since the search began
+
+	private int lastExpanded;
+	private long lastPlanNanos;
+
+	// Constructor to set up a search from the given start state towards the given goal state
+	public DStarLitePlanner(Grid grid, RobotState startState, RobotState goalState) {
+		this.grid = grid;
+		this.numRows = grid.getNumRows();
+		this.numCols = grid.getNumCols();
+		int numCells = GridPathPlanner.cellCount(grid);
+		this.g = new float[numCells];
+		this.rhs = new float[numCells];
+		this.openList = new IndexedMinHeap(numCells);
+		this.goal = goalState.getRow() * numCols + goalState.getColumn();
+		this.start = startState.getRow() * numCols + startState.getColumn();
+		initialize();
+		grid.addListener(this);
+	}
+
+	// Method to reset the search state, as at the start of D* Lite
+	private void initialize() {
+		Arrays.fill(g, INFINITY);
+		Arrays.fill(rhs, INFINITY);
+		openList.clear();
+		keyModifier = 0;
+		rhs[goal] = 0;
+		openList.push(goal, heuristic(start, goal), 0);
+	}
+
+	// Method to move the robot to a new position without planning yet. Keys already queued were computed from
+	// the old position, so the key modifier grows by the distance moved to keep them lower bounds.
+	public void moveTo(RobotState current) {
+		int cell = current.getRow() * numCols + current.getColumn();
+		keyModifier += heuristic(start, cell);
+		start = cell;
+	}
+
+	// Method to move the robot to its current position and return a path from there to the goal
+	public int[] replan(RobotState current) {
+		moveTo(current);
+		return plan();
+	}
+
+	// Method to repair the search as needed and return the path from the robot's cell to the goal, or null
+	public int[] plan() {
+		long startTime = System.nanoTime();
+		computeShortestPath();
+		int[] path = extractPath();
+		lastPlanNanos = System.nanoTime() - startTime;
+		return path;
+	}
+
+	// Method to record a changed cell: its own lookahead value and those of its neighbors depend on it
+	@Override
+	public void cellChanged(int row, int col, boolean obstacle) {
+		int cell = row * numCols + col;
+		updateVertex(cell);
+		if (row > 0)
+			updateVertex(cell - numCols);
+		if (row < numRows - 1)
+			updateVertex(cell + numCols);
+		if (col > 0)
+			updateVertex(cell - 1);
+		if (col < numCols - 1)
+			updateVertex(cell + 1);
+	}
+
+	@Override
+	public void gridReset() {
+		initialize();
+	}
+
+	// Method to stop following changes of the grid
+	public void detach() {
+		grid.removeListener(this);
+	}
+
+	// Method to expand inconsistent vertices until the robot's cell is consistent and no cheaper key remains
+	private void computeShortestPath() {
+		lastExpanded = 0;
+		while (!openList.isEmpty()) {
+			float startKey = Math.min(g[start], rhs[start]);
+			double topKey = openList.peekKey();
+			double topSecondary = openList.peekSecondaryKey();
+			if (!keyLess(topKey, topSecondary, startKey + keyModifier, startKey) && rhs[start] == g[start]) {
+				break;
+			}
+
+			int u = openList.peek();
+			float best = Math.min(g[u], rhs[u]);
+			float newKey = best + heuristic(start, u) + keyModifier;
+			lastExpanded++;
+			if (keyLess(topKey, topSecondary, newKey, best)) {
+				openList.push(u, newKey, best); // Key was outdated by robot movement
+			} else if (g[u] > rhs[u]) {
+				g[u] = rhs[u];
+				openList.remove(u);
+				updateNeighbors(u);
+			} else {
+				g[u] = INFINITY;
+				updateVertex(u);
+				updateNeighbors(u);
+			}
+		}
+	}
+
+	private void updateNeighbors(int cell) {
+		int row = cell / numCols;
+		int col = cell % numCols;
+		if (row > 0)
+			updateVertex(cell - numCols);
+		if (row < numRows - 1)
+			updateVertex(cell + numCols);
+		if (col > 0)
+			updateVertex(cell - 1);
+		if (col < numCols - 1)
+			updateVertex(cell + 1);
+	}
+
+	// Method to recompute a vertex's lookahead value and queue it if it is inconsistent
+	private void updateVertex(int cell) {
+		if (cell != goal) {
+			rhs[cell] = isBlocked(cell) ? INFINITY : bestSuccessorCost(cell);
+		}
+		if (g[cell] != rhs[cell]) {
+			float best = Math.min(g[cell], rhs[cell]);
+			openList.push(cell, best + heuristic(start, cell) + keyModifier, best);
+		} else {
+			openList.remove(cell);
+		}
+	}
+
+	// Method to return the cheapest cost to the goal through one of the four neighbors
+	private float bestSuccessorCost(int cell) {
+		int row = cell / numCols;
+		int col = cell % numCols;
+		float best = INFINITY;
+		if (row > 0)
+			best = Math.min(best, stepCost(cell - numCols));
+		if (row < numRows - 1)
+			best = Math.min(best, stepCost(cell + numCols));
+		if (col > 0)
+			best = Math.min(best, stepCost(cell - 1));
+		if (col < numCols - 1)
+			best = Math.min(best, stepCost(cell + 1));
+		return best;
+	}
+
+	private float stepCost(int next) {
+		return isBlocked(next) ? INFINITY : 1 + g[next];
+	}
+
+	// Method to follow the cheapest successors from the robot's cell down to the goal
+	private int[] extractPath() {
+		if (isBlocked(start) || g[start] == INFINITY) {
+			return start == goal ? new int[] { start } : null; // No path found
+		}
+		int length = (int) g[start] + 1;
+		int[] path = new int[length];
+		int current = start;
+		path[0] = current;
+		for (int i = 1; i < length; i++) {
+			int row = current / numCols;
+			int col = current % numCols;
+			int next = -1;
+			float best = INFINITY;
+			if (row > 0 && stepCost(current - numCols) < best) {
+				best = stepCost(current - numCols);
+				next = current - numCols;
+			}
+			if (row < numRows - 1 && stepCost(current + numCols) < best) {
+				best = stepCost(current + numCols);
+				next = current + numCols;
+			}
+			if (col > 0 && stepCost(current - 1) < best) {
+				best = stepCost(current - 1);
+				next = current - 1;
+			}
+			if (col < numCols - 1 && stepCost(current + 1) < best) {
+				next = current + 1;
+			}
+			if (next < 0) {
+				return null;
+			}
+			path[i] = next;
+			current = next;
+		}
+		return path;
+	}
+
+	private boolean isBlocked(int cell) {
+		return grid.isObstacle(cell / numCols, cell % numCols);
+	}
+
+	// Method to compute the heuristic (Manhattan distance) between two cells
+	private float heuristic(int a, int b) {
+		return Math.abs(a / numCols - b / numCols) + Math.abs(a % numCols - b % numCols);
+	}
+
+	private static boolean keyLess(double key1, double tie1, double key2, double tie2) {
+		return key1 < key2 || (key1 == key2 && tie1 < tie2);
+	}
+
+	// Getters for the statistics of the last plan
+	public int getLastExpanded() {
+		return lastExpanded;
+	}
+
+	public long getLastPlanNanos() {
+		return lastPlanNanos;
+	}
+}
@@ -0,0 +1,301 @@
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+// This FrontierBFS class runs unit-cost breadth-first searches over the whole grid at once, for the questions that
+// need no point-to-point planner: which cells a robot can reach, how far every cell is from a goal (one distance
+// field serves every robot heading there), and how much of the map is covered.
+// The search is level-synchronous and works on bitsets in which each 64-bit word holds a tile of 8 x 8 cells, bit
+// (r * 8 + c) for row r and column c of the tile. Breadth-first frontiers run diagonally across the grid, so a
+// word of 64 cells along one row would hold only one or two frontier cells, where a square tile holds about eight.
+// The frontier of level d + 1 is pulled a tile at a time from the frontier of level d: a tile collects its frontier
+// bits shifted one row up and down and one column left and right, the facing edges of the four tiles around it,
+// and keeps the free cells not visited yet. Every tile is written only by its own task, so the tiles of a level are
+// computed in parallel without locks.
+// The nonzero tiles of the frontier are kept in a list, and only them and those of their four neighbors that still
+// hold unvisited cells are pulled, so a level costs about as much as its frontier rather than the whole map.
+// The bitsets have a row of empty tiles above and below the grid and an empty tile after every row of tiles, so
+// tiles at the edges need no bounds checks. Searches of one instance are serialized; the obstacles are copied from
+// the grid at the start of each one.
+public class FrontierBFS {
+	public static final int UNREACHABLE = -1;
+	private static final int PARALLEL_TILES = 4096; // Levels with fewer candidate tiles are computed on one thread
+	private static final long FIRST_COLUMN = 0x0101010101010101L;
+	private static final long LAST_COLUMN = 0x8080808080808080L;
+
+	private final Grid grid;
+	private final int numRows;
+	private final int numCols;
+	private final int tileRows;
+	private final int stride; // Tiles per row of tiles, the padding tile included
+	private final long[] free; // Free cells, tile (row / 8 + 1) * stride + col / 8
+	private final long[] unvisited; // Free cells not reached yet by the current search
+	private long[] frontier;
+	private long[] next;
+	private int[] activeTiles; // Nonzero tiles of the frontier, in increasing order
+	private int activeCount;
+	private int[] candidates; // Tiles that may be reached by the next level, in increasing order
+	private final long[] candidateBits; // One bit per tile, set while collecting the candidates
+	private final long[] candidateSummary; // One bit per word of candidateBits
+
+	private int lastDepth;
+	private long lastReached;
+	private long lastTimeNanos;
+
+	// Constructor to prepare searches over the given grid
+	public FrontierBFS(Grid grid) {
+		this.grid = grid;
+		this.numRows = grid.getNumRows();
+		this.numCols = grid.getNumCols();
+		this.tileRows = (numRows + 7) >>> 3;
+		this.stride = ((numCols + 7) >>> 3) + 1;
+		int tiles = (tileRows + 2) * stride;
+		this.free = new long[tiles];
+		this.unvisited = new long[tiles];
+		this.frontier = new long[tiles];
+		this.next = new long[tiles];
+		this.activeTiles = new int[64];
+		this.candidates = new int[64];
+		this.candidateBits = new long[(tiles + 63) >>> 6];
+		this.candidateSummary = new long[(candidateBits.length + 63) >>> 6];
+	}
+
+	// Method to return the number of moves from every cell to the nearest source cell, UNREACHABLE for obstacles
+	// and cells cut off from all sources
+	public int[] distanceField(int... sources) {
+		int[] field = new int[GridPathPlanner.cellCount(grid)];
+		distanceField(field, sources);
+		return field;
+	}
+
+	// Method to fill a caller's array (of at least numRows * numCols entries) with the distance field, so repeated
+	// fields can reuse one array
+	public synchronized void distanceField(int[] field, int... sources) {
+		Arrays.fill(field, 0, numRows * numCols, UNREACHABLE);
+		search(sources, field, -1);
+	}
+
+	// Method to count the free cells reachable from the sources, the sources included
+	public synchronized long countReachable(int... sources) {
+		search(sources, null, -1);
+		return lastReached;
+	}
+
+	// Method to check whether a path exists between two cells, stopping at the level that reaches the target
+	public synchronized boolean isReachable(int source, int target) {
+		checkCell(target);
+		if (grid.isObstacle(target / numCols, target % numCols)) {
+			return false;
+		}
+		search(new int[] { source }, null, target);
+		return wasReached(target);
+	}
+
+	// Method to check, after the last search, whether it reached a cell
+	public synchronized boolean wasReached(int cell) {
+		checkCell(cell);
+		int index = tileIndex(cell);
+		return (free[index] & ~unvisited[index] & tileBit(cell)) != 0;
+	}
+
+	// Helper method to run a search from the sources, writing distances into field unless it is null and stopping
+	// early once the target is reached unless it is negative
+	private void search(int[] sources, int[] field, int target) {
+		long startTime = System.nanoTime();
+		for (int source : sources) {
+			checkCell(source);
+		}
+		loadObstacles();
+		Arrays.fill(frontier, 0);
+		Arrays.fill(next, 0);
+		activeCount = 0;
+
+		long reached = 0;
+		for (int source : sources) {
+			int index = tileIndex(source);
+			long bit = tileBit(source);
+			if ((unvisited[index] & bit) == 0) {
+				continue; // Obstacle or repeated source
+			}
+			if (frontier[index] == 0) {
+				addActive(index);
+			}
+			unvisited[index] &= ~bit;
+			frontier[index] |= bit;
+			if (field != null) {
+				field[source] = 0;
+			}
+			reached++;
+		}
+		Arrays.sort(activeTiles, 0, activeCount);
+
+		int targetIndex = target < 0 ? -1 : tileIndex(target);
+		long targetBit = target < 0 ? 0 : tileBit(target);
+		int level = 0;
+		while (activeCount > 0 && (targetIndex < 0 || (unvisited[targetIndex] & targetBit) != 0)) {
+			long added = expand(level + 1, field);
+			if (added > 0) {
+				level++;
+				reached += added;
+			}
+		}
+		lastDepth = level;
+		lastReached = reached;
+		lastTimeNanos = System.nanoTime() - startTime;
+	}
+
+	// Method to compute the frontier of the given level from the current one, then make it current. Returns the
+	// number of cells reached.
+	private long expand(int level, int[] field) {
+		// The candidates are collected in a bitmap rather than a list, which drops the duplicates and sorts them,
+		// so the tiles are then pulled in memory order
+		for (int i = 0; i < activeCount; i++) {
+			int index = activeTiles[i];
+			addCandidate(index - stride);
+			addCandidate(index - 1);
+			addCandidate(index);
+			addCandidate(index + 1);
+			addCandidate(index + stride);
+		}
+		if (candidates.length < 5 * activeCount) {
+			candidates = new int[5 * activeCount];
+		}
+		int count = 0;
+		for (int i = 0; i < candidateSummary.length; i++) {
+			for (long summary = candidateSummary[i]; summary != 0; summary &= summary - 1) {
+				int bitsIndex = (i << 6) + Long.numberOfTrailingZeros(summary);
+				for (long bits = candidateBits[bitsIndex]; bits != 0; bits &= bits - 1) {
+					candidates[count++] = (bitsIndex << 6) + Long.numberOfTrailingZeros(bits);
+				}
+				candidateBits[bitsIndex] = 0;
+			}
+			candidateSummary[i] = 0;
+		}
+
+		// Tiles that reach nothing are marked -1 in the candidates, each by its own task
+		int[] tiles = candidates;
+		IntStream indices = IntStream.range(0, count);
+		if (count >= PARALLEL_TILES) {
+			indices = indices.parallel();
+		}
+		long reached = indices.mapToLong(i -> {
+			int added = pullTile(tiles[i], level, field);
+			if (added == 0) {
+				tiles[i] = -1;
+			}
+			return added;
+		}).sum();
+
+		// The old frontier becomes the buffer for the next level, so its tiles are cleared
+		for (int i = 0; i < activeCount; i++) {
+			frontier[activeTiles[i]] = 0;
+		}
+		activeCount = 0;
+		for (int i = 0; i < count; i++) {
+			if (tiles[i] >= 0) {
+				addActive(tiles[i]);
+			}
+		}
+		long[] swap = frontier;
+		frontier = next;
+		next = swap;
+		return reached;
+	}
+
+	// Helper method to add a tile to the candidates unless it has no unvisited cells (such as the padding, whose
+	// neighbors would fall outside the bitsets)
+	private void addCandidate(int index) {
+		if (unvisited[index] != 0) {
+			candidateBits[index >>> 6] |= 1L << index;
+			candidateSummary[index >>> 12] |= 1L << (index >>> 6);
+		}
+	}
+
+	private void addActive(int index) {
+		if (activeCount == activeTiles.length) {
+			activeTiles = Arrays.copyOf(activeTiles, activeCount * 2);
+		}
+		activeTiles[activeCount++] = index;
+	}
+
+	// Method to pull one tile of the next frontier from the current frontier tiles around it, marking its cells
+	// visited and recording their distances. Returns the number of cells reached.
+	private int pullTile(int index, int level, int[] field) {
+		long current = frontier[index];
+		long spread = current | current << 8 | current >>> 8 | (current << 1 & ~FIRST_COLUMN)
+				| (current >>> 1 & ~LAST_COLUMN) | (frontier[index - 1] >>> 7 & FIRST_COLUMN)
+				| (frontier[index + 1] << 7 & LAST_COLUMN) | frontier[index - stride] >>> 56
+				| frontier[index + stride] << 56;
+		long bits = spread & unvisited[index];
+		if (bits == 0) {
+			return 0;
+		}
+		unvisited[index] &= ~bits;
+		next[index] = bits;
+		if (field != null) {
+			int tileRow = index / stride - 1;
+			int cellBase = (tileRow << 3) * numCols + ((index - (tileRow + 1) * stride) << 3);
+			for (long remaining = bits; remaining != 0; remaining &= remaining - 1) {
+				int bit = Long.numberOfTrailingZeros(remaining);
+				field[cellBase + (bit >>> 3) * numCols + (bit & 7)] = level;
+			}
+		}
+		return Long.bitCount(bits);
+	}
+
+	// Helper method to copy the free cells of the grid into tiles, rows of tiles in parallel: each byte of a grid
+	// word is one row of a tile. The cells past the last row and column and the padding stay clear so searches never
+	// leave the grid.
+	private void loadObstacles() {
+		int wordsPerRow = grid.getWordsPerRow();
+		int tailBits = numCols & 63;
+		long lastMask = tailBits == 0 ? -1L : (1L << tailBits) - 1;
+		IntStream.range(0, tileRows).parallel().forEach(tileRow -> {
+			int base = (tileRow + 1) * stride;
+			Arrays.fill(free, base, base + stride, 0);
+			for (int row = tileRow << 3; row < Math.min(numRows, (tileRow + 1) << 3); row++) {
+				int shift = (row & 7) << 3;
+				for (int word = 0; word < wordsPerRow; word++) {
+					long cells = ~grid.getObstacleWord(row, word) & (word == wordsPerRow - 1 ? lastMask : -1L);
+					int tile = base + (word << 3);
+					for (int part = 0; part < 8 && cells != 0; part++) {
+						free[tile + part] |= (cells & 0xFF) << shift;
+						cells >>>= 8;
+					}
+				}
+			}
+			System.arraycopy(free, base, unvisited, base, stride);
+		});
+	}
+
+	private int tileIndex(int cell) {
+		return ((cell / numCols >>> 3) + 1) * stride + (cell % numCols >>> 3);
+	}
+
+	private long tileBit(int cell) {
+		return 1L << ((cell / numCols & 7) << 3 | cell % numCols & 7);
+	}
+
+	private void checkCell(int cell) {
+		if (cell < 0 || cell >= numRows * numCols) {
+			throw new IllegalArgumentException("Cell outside the grid: " + cell);
+		}
+	}
+
+	public Grid getGrid() {
+		return grid;
+	}
+
+	// Getters for the statistics of the last search: the distance of the farthest cell reached, the number of cells
+	// reached and the time taken
+	public int getLastDepth() {
+		return lastDepth;
+	}
+
+	public long getLastReached() {
+		return lastReached;
+	}
+
+	public long getLastTimeNanos() {
+		return lastTimeNanos;
+	}
+}
@@ -1,26 +1,55 @@
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
 import java.util.Scanner;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 // This Grid class allows to create a grid of a specified size and mark cells as obstacles.
+// The cells are kept in a GridStorage: a boolean 2D array by default, or a packed bitset
+// (in memory or memory-mapped from a file) for very large maps.
+// A grid may also carry a terrain cost layer: the cost of entering each cell, one byte per cell from 1 to 255.
+// The layer is only allocated once a cell gets a cost other than 1, so uniform grids pay nothing for it.
 public class Grid {
+	public static final int MAX_CELL_COST = 255;
+
 	private int numRows;
 	private int numCols;
-	private boolean[][] grid; // Represents the grid cells, true for occupied by obstacle, false for empty
+	private GridStorage grid; // Represents the grid cells, true for occupied by obstacle, false for empty
+	private final List<GridListener> listeners = new CopyOnWriteArrayList<>(); // Notified when cells change
+	private long version; // Incremented on every change made through this Grid
+	private byte[] cellCosts; // Unsigned cost of entering each cell (row * numCols + col), or null if all cost 1
+	private int minCellCost = 1; // Smallest cost in the layer, recomputed lazily after the minimum was raised
+	private boolean minCellCostStale;
 
 	// Constructor to initialize the grid with given dimensions
 	public Grid(int numRows, int numCols) {
-		this.numRows = numRows;
-		this.numCols = numCols;
-		this.grid = new boolean[numRows][numCols]; // By default, all cells are initialized as empty
+		this(new ArrayGridStorage(numRows, numCols)); // By default, all cells are initialized as empty
 	}
 
 	// Constructor that accepts a boolean 2D array representing the grid
 	public Grid(boolean[][] grid) {
+		this(new ArrayGridStorage(grid));
+	}
+
+	// Constructor that accepts any storage backing for the grid cells
+	public Grid(GridStorage grid) {
 		this.grid = grid;
-		this.numRows = grid.length;
-		this.numCols = grid[0].length;
+		this.numRows = grid.getNumRows();
+		this.numCols = grid.getNumCols();
+	}
+
+	// Create an empty grid that packs the cells into a long[] bitset (one bit per cell)
+	public static Grid createPacked(int numRows, int numCols) {
+		return new Grid(new BitGridStorage(numRows, numCols));
+	}
+
+	// Create a grid whose packed cells live in a memory-mapped file, created if it does not exist
+	public static Grid createMapped(String filePath, int numRows, int numCols) throws IOException {
+		return new Grid(new MappedGridStorage(filePath, 0, numRows, numCols, FileChannel.MapMode.READ_WRITE));
 	}
 
 	// Getters
@@ -32,56 +61,173 @@ public class Grid {
 		return numCols;
 	}
 
+	public GridStorage getStorage() {
+		return grid;
+	}
+
+	// Method to return the version of the grid contents, which changes whenever a cell is changed through this Grid
+	public long getVersion() {
+		return version;
+	}
+
+	// Method to register a listener that is told about every change made through this Grid.
+	// Changes written directly to the GridStorage are not reported.
+	public void addListener(GridListener listener) {
+		listeners.add(listener);
+	}
+
+	public void removeListener(GridListener listener) {
+		listeners.remove(listener);
+	}
+
 	// Setters
 	public void setGrid(boolean[][] grid) {
-		this.grid = grid;
+		this.grid = new ArrayGridStorage(grid);
+		this.numRows = this.grid.getNumRows();
+		this.numCols = this.grid.getNumCols();
+		this.cellCosts = null; // The cost layer may no longer match the dimensions
+		this.minCellCost = 1;
+		this.minCellCostStale = false;
+		notifyReset();
 	}
 
 	// Method to set an obstacle at the specified position
 	public void setObstacle(int row, int col) {
 		if (isValidPosition(row, col)) {
-			grid[row][col] = true;
+			changeCell(row, col, true);
 		} else {
 			System.out.println("Invalid position for setting obstacle.");
 		}
 	}
 
+	// Method to remove the obstacle at the specified position, e.g. when a pallet is taken away
+	public void clearObstacle(int row, int col) {
+		if (isValidPosition(row, col)) {
+			changeCell(row, col, false);
+		} else {
+			System.out.println("Invalid position for clearing obstacle.");
+		}
+	}
+
+	// Helper method to change a cell and tell the listeners, unless it already holds the given state
+	private void changeCell(int row, int col, boolean obstacle) {
+		if (grid.get(row, col) != obstacle) {
+			grid.set(row, col, obstacle);
+			version++;
+			for (GridListener listener : listeners) {
+				listener.cellChanged(row, col, obstacle);
+			}
+		}
+	}
+
+	// Method to set the cost of entering a cell, from 1 (the default) to MAX_CELL_COST
+	public void setCellCost(int row, int col, int cost) {
+		if (!isValidPosition(row, col)) {
+			throw new IllegalArgumentException("Invalid position for setting cell cost: (" + row + ", " + col + ")");
+		}
+		if (cost < 1 || cost > MAX_CELL_COST) {
+			throw new IllegalArgumentException("Cell cost must be between 1 and " + MAX_CELL_COST + ": " + cost);
+		}
+		if (cellCosts == null) {
+			if (cost == 1) {
+				return;
+			}
+			cellCosts = new byte[GridPathPlanner.cellCount(this)];
+			Arrays.fill(cellCosts, (byte) 1);
+		}
+		int cell = row * numCols + col;
+		int previous = cellCosts[cell] & 0xFF;
+		if (previous == cost) {
+			return;
+		}
+		cellCosts[cell] = (byte) cost;
+		if (cost < minCellCost) {
+			minCellCost = cost;
+		} else if (previous == minCellCost && cost > previous) {
+			minCellCostStale = true;
+		}
+		version++;
+		for (GridListener listener : listeners) {
+			listener.cellCostChanged(row, col, cost > previous);
+		}
+	}
+
+	// Method to return the cost of entering a cell (1 unless a cost layer sets it)
+	public int getCellCost(int row, int col) {
+		return cellCosts == null ? 1 : cellCosts[row * numCols + col] & 0xFF;
+	}
+
+	// Method to check whether any cell costs more than 1
+	public boolean hasCellCosts() {
+		return cellCosts != null;
+	}
+
+	// Method to return the smallest cost of entering any cell, which keeps distance heuristics admissible
+	// when multiplied with them
+	public int getMinCellCost() {
+		if (minCellCostStale) {
+			int min = MAX_CELL_COST;
+			for (byte cost : cellCosts) {
+				min = Math.min(min, cost & 0xFF);
+			}
+			minCellCost = min;
+			minCellCostStale = false;
+		}
+		return minCellCost;
+	}
+
+	// Method to drop the cost layer, so every cell costs 1 again
+	public void clearCellCosts() {
+		if (cellCosts != null) {
+			cellCosts = null;
+			minCellCost = 1;
+			minCellCostStale = false;
+			version++;
+			for (GridListener listener : listeners) {
+				listener.cellCostsCleared();
+			}
+		}
+	}
+
+	// Method to return the cost layer itself for planners that read it in their inner loop, or null if every
+	// cell costs 1. The array must not be modified.
+	byte[] getCostLayer() {
+		return cellCosts;
+	}
+
 	// Method to check an obstacle at the specified position
 	public boolean isObstacle(int row, int col) {
-		return grid[row][col];
+		return grid.get(row, col);
 	}
 
 	// Method to generate random obstacles based on obstacle density
 	public void generateRandomObstacles(double obstacleDensity) {
-		Random random = new Random();
-		for (int row = 0; row < numRows; row++) {
-			for (int col = 0; col < numCols; col++) {
-				grid[row][col] = random.nextDouble() < obstacleDensity;
-			}
-		}
+		generateRandomObstacles(obstacleDensity, new Random().nextLong());
+	}
+
+	// Method to regenerate every cell from a seed; the same seed and density always give the same obstacles
+	public void generateRandomObstacles(double obstacleDensity, long seed) {
+		new GridGenerator(seed).fillRandom(grid, obstacleDensity);
+		notifyReset();
 	}
 
 	// Generate a random grid with obstacles based on the specified
 	// number of rows, columns, and obstacle density.
 	public static Grid generateRandomGrid(int numRows, int numCols, double obstacleDensity) {
-		Random random = new Random();
-		Grid grid = new Grid(numRows, numCols);
-
-		for (int row = 0; row < numRows; row++) {
-			for (int col = 0; col < numCols; col++) {
-				if (random.nextDouble() < obstacleDensity) {
-					grid.setObstacle(row, col); // Place obstacle
-				}
-			}
-		}
+		return generateRandomGrid(numRows, numCols, obstacleDensity, new Random().nextLong());
+	}
 
+	// Generate a random grid as above, reproducibly from a seed
+	public static Grid generateRandomGrid(int numRows, int numCols, double obstacleDensity, long seed) {
+		Grid grid = new Grid(numRows, numCols);
+		new GridGenerator(seed).fillRandom(grid.grid, obstacleDensity);
 		return grid;
 	}
 
 	// Method to check if a cell is empty (not occupied by an obstacle)
 	public boolean isCellEmpty(int row, int col) {
 		if (isValidPosition(row, col)) {
-			return !grid[row][col];
+			return !grid.get(row, col);
 		} else {
 			System.out.println("Invalid position for checking cell state.");
 			return false;
@@ -93,6 +239,47 @@ public class Grid {
 		return row >= 0 && row < numRows && col >= 0 && col < numCols;
 	}
 
+	// Method to bump the version and tell every listener that many cells may have changed
+	private void notifyReset() {
+		version++;
+		for (GridListener listener : listeners) {
+			listener.gridReset();
+		}
+	}
+
+	// Method to return the number of 64-cell words that cover one row
+	public int getWordsPerRow() {
+		return grid.getWordsPerRow();
+	}
+
+	// Method to read 64 cells of a row at once; bit i is set when column wordIndex * 64 + i is an obstacle
+	public long getObstacleWord(int row, int wordIndex) {
+		return grid.getWord(row, wordIndex);
+	}
+
+	// Method to find the first obstacle in a row at or after the given column, or numCols if there is none.
+	// Scans a whole word of 64 cells per step.
+	public int nextObstacleInRow(int row, int fromCol) {
+		if (fromCol >= numCols) {
+			return numCols;
+		}
+		int wordIndex = fromCol >>> 6;
+		long bits = grid.getWord(row, wordIndex) & (-1L << fromCol);
+		int wordsPerRow = grid.getWordsPerRow();
+		while (bits == 0) {
+			if (++wordIndex == wordsPerRow) {
+				return numCols;
+			}
+			bits = grid.getWord(row, wordIndex);
+		}
+		return (wordIndex << 6) + Long.numberOfTrailingZeros(bits);
+	}
+
+	// Method to check if every cell of a row between fromCol and toCol (inclusive) is empty
+	public boolean isRowSpanFree(int row, int fromCol, int toCol) {
+		return nextObstacleInRow(row, fromCol) > toCol;
+	}
+
 	// Method to read grid locations from a file
 	public static Grid readGridFromFile(String filePath) throws FileNotFoundException {
 		File file = new File(filePath);
@@ -103,7 +290,7 @@ public class Grid {
 		while (scanner.hasNext()) {
 			int row = scanner.nextInt();
 			int col = scanner.nextInt();
-			grid.grid[row][col] = true;
+			grid.grid.set(row, col, true);
 		}
 		scanner.close();
 		return grid;
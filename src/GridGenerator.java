@@ -0,0 +1,224 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+// This GridGenerator class builds test maps quickly and reproducibly from a seed.
+// Maps are generated in bands of 64 rows filled in parallel. Each band draws from its own SplittableRandom seeded
+// from the generator seed and the band number, and structured layouts place their doors and corridors with a hash
+// of the seed and their position, so the same seed always yields the same map whatever the number of threads.
+// Cells are written a 64-cell word at a time straight into the grid's storage, without per-cell bounds checks or
+// listener calls.
+// Random maps draw each word from 16 random longs combined bit by bit along the binary digits of the density,
+// so the obstacle probability of a cell is the density rounded to a multiple of 1/65536.
+// Structured layouts:
+// - rooms: square rooms separated by one-cell walls, with a door in every wall between two rooms,
+// - corridors: solid rock with straight horizontal and vertical corridors crossing it,
+// - warehouse: rows of two-cell-deep racks separated by aisles, broken up by cross aisles, with some
+//   pallets left in the aisles.
+public class GridGenerator {
+	private static final int BAND_ROWS = 64;
+	private static final int DENSITY_BITS = 16;
+
+	private final long seed;
+
+	// Constructor to create a generator for the given seed
+	public GridGenerator(long seed) {
+		this.seed = seed;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	// Method to create a packed grid with obstacles placed at random with the given density
+	public Grid random(int numRows, int numCols, double obstacleDensity) {
+		Grid grid = Grid.createPacked(numRows, numCols);
+		fillRandom(grid.getStorage(), obstacleDensity);
+		return grid;
+	}
+
+	// Method to overwrite every cell of a storage with random obstacles of the given density
+	public void fillRandom(GridStorage storage, double obstacleDensity) {
+		// Densities outside [0, 1] are clamped, as a per-cell comparison with a random double would do
+		double density = Math.max(0, Math.min(1, obstacleDensity));
+		int threshold = (int) Math.round(density * (1 << DENSITY_BITS));
+		int wordsPerRow = storage.getWordsPerRow();
+		forEachBand(storage.getNumRows(), (band, from, to) -> {
+			SplittableRandom random = new SplittableRandom(mix(seed, band));
+			for (int row = from; row < to; row++) {
+				for (int word = 0; word < wordsPerRow; word++) {
+					storage.setWord(row, word, randomWord(random, threshold) & validMask(storage, word));
+				}
+			}
+		});
+	}
+
+	// Method to create a packed grid of square rooms of the given inner size, each wall between two rooms having
+	// a one-cell door at a random position
+	public Grid rooms(int numRows, int numCols, int roomSize) {
+		if (roomSize < 1) {
+			throw new IllegalArgumentException("Room size must be positive: " + roomSize);
+		}
+		Grid grid = Grid.createPacked(numRows, numCols);
+		GridStorage storage = grid.getStorage();
+		int period = roomSize + 1; // Room plus the wall after it
+		forEachBand(numRows, (band, from, to) -> {
+			long[] line = new long[storage.getWordsPerRow()];
+			for (int row = from; row < to; row++) {
+				Arrays.fill(line, 0);
+				int roomRow = row / period;
+				if (row % period == roomSize) {
+					// Horizontal wall with a door into each room below it
+					for (int col = 0; col < numCols; col++) {
+						int roomCol = col / period;
+						int width = Math.min(roomSize, numCols - roomCol * period); // Rooms at the edge may be cut
+						if (col % period == roomSize || col % period != door(1, roomRow, roomCol, width)) {
+							setBit(line, col);
+						}
+					}
+				} else {
+					// Vertical walls with a door in each room's right wall
+					int offset = row % period;
+					int height = Math.min(roomSize, numRows - roomRow * period);
+					for (int col = roomSize; col < numCols; col += period) {
+						if (offset != door(2, roomRow, col / period, height)) {
+							setBit(line, col);
+						}
+					}
+				}
+				writeLine(storage, row, line);
+			}
+		});
+		return grid;
+	}
+
+	// Method to create a packed grid of solid rock crossed by straight corridors of the given width, about one
+	// corridor per spacing rows and one per spacing columns
+	public Grid corridors(int numRows, int numCols, int spacing, int width) {
+		if (spacing < 1 || width < 1 || width > spacing) {
+			throw new IllegalArgumentException("Corridor width must be between 1 and the spacing: " + width + ", "
+					+ spacing);
+		}
+		Grid grid = Grid.createPacked(numRows, numCols);
+		GridStorage storage = grid.getStorage();
+		// Vertical corridors are the same in every row, so their row pattern is built once
+		long[] rock = new long[storage.getWordsPerRow()];
+		for (int col = 0; col < numCols; col++) {
+			if (!inCorridor(3, col, spacing, width)) {
+				setBit(rock, col);
+			}
+		}
+		long[] open = new long[rock.length];
+		forEachBand(numRows, (band, from, to) -> {
+			for (int row = from; row < to; row++) {
+				writeLine(storage, row, inCorridor(4, row, spacing, width) ? open : rock);
+			}
+		});
+		return grid;
+	}
+
+	// Method to create a packed warehouse floor: racks two cells deep in horizontal rows separated by one-cell
+	// aisles, cut by a two-cell cross aisle every 20 columns and kept clear of a two-cell border, with about
+	// one aisle cell in clutterPercent percent blocked by a pallet
+	public Grid warehouse(int numRows, int numCols, int clutterPercent) {
+		if (clutterPercent < 0 || clutterPercent > 100) {
+			throw new IllegalArgumentException("Clutter must be between 0 and 100 percent: " + clutterPercent);
+		}
+		Grid grid = Grid.createPacked(numRows, numCols);
+		GridStorage storage = grid.getStorage();
+		int threshold = clutterPercent * (1 << DENSITY_BITS) / 100;
+		// Every rack row looks the same, and so does the area inside the border, so both are built once
+		long[] racks = new long[storage.getWordsPerRow()];
+		long[] inside = new long[racks.length];
+		for (int col = 2; col < numCols - 2; col++) {
+			setBit(inside, col);
+			if ((col - 2) % 20 < 18) {
+				setBit(racks, col); // Rack, unless in a cross aisle
+			}
+		}
+		forEachBand(numRows, (band, from, to) -> {
+			SplittableRandom random = new SplittableRandom(mix(seed, band));
+			long[] line = new long[racks.length];
+			for (int row = from; row < to; row++) {
+				boolean border = row < 2 || row >= numRows - 2;
+				boolean rackRow = !border && (row - 2) % 3 != 2;
+				for (int word = 0; word < line.length; word++) {
+					long pallets = border ? 0 : randomWord(random, threshold) & inside[word];
+					line[word] = rackRow ? pallets | racks[word] : pallets;
+				}
+				writeLine(storage, row, line);
+			}
+		});
+		return grid;
+	}
+
+	// Helper to run a band filler over all bands of 64 rows in parallel
+	private interface BandFiller {
+		void fill(int band, int fromRow, int toRow);
+	}
+
+	private static void forEachBand(int numRows, BandFiller filler) {
+		int bands = (numRows + BAND_ROWS - 1) / BAND_ROWS;
+		IntStream.range(0, bands).parallel().forEach(
+				band -> filler.fill(band, band * BAND_ROWS, Math.min(numRows, (band + 1) * BAND_ROWS)));
+	}
+
+	// Helper method to draw 64 cells that are each set with probability threshold / 65536: starting from the
+	// lowest binary digit of the threshold, a 1 digit ORs in a fresh random word and a 0 digit ANDs one in
+	private static long randomWord(SplittableRandom random, int threshold) {
+		if (threshold <= 0) {
+			return 0;
+		}
+		if (threshold >= 1 << DENSITY_BITS) {
+			return -1L;
+		}
+		int lowest = Integer.numberOfTrailingZeros(threshold);
+		long bits = random.nextLong();
+		for (int digit = lowest + 1; digit < DENSITY_BITS; digit++) {
+			if ((threshold & (1 << digit)) != 0) {
+				bits |= random.nextLong();
+			} else {
+				bits &= random.nextLong();
+			}
+		}
+		return bits;
+	}
+
+	// Helper method to return the position (0 to length - 1) of the door in a wall, the same for every band
+	private int door(int kind, int roomRow, int roomCol, int length) {
+		return (int) Long.remainderUnsigned(mix(mix(seed, kind), ((long) roomRow << 32) | roomCol), length);
+	}
+
+	// Helper method to check whether a row or column index lies in a corridor: each stretch of spacing indices
+	// holds one corridor at a random offset
+	private boolean inCorridor(int kind, int index, int spacing, int width) {
+		int stretch = index / spacing;
+		int offset = (int) Long.remainderUnsigned(mix(mix(seed, kind), stretch), spacing - width + 1);
+		int position = index % spacing;
+		return position >= offset && position < offset + width;
+	}
+
+	private static void setBit(long[] line, int col) {
+		line[col >>> 6] |= 1L << col;
+	}
+
+	private static void writeLine(GridStorage storage, int row, long[] line) {
+		for (int word = 0; word < line.length; word++) {
+			storage.setWord(row, word, line[word] & validMask(storage, word));
+		}
+	}
+
+	// Helper method to mask off the bits past the last column in the final word of a row
+	private static long validMask(GridStorage storage, int word) {
+		int remaining = storage.getNumCols() - (word << 6);
+		return remaining >= 64 ? -1L : (1L << remaining) - 1;
+	}
+
+	// Helper method to combine a seed with a value into a well-mixed 64-bit seed (the SplitMix64 finalizer)
+	private static long mix(long seed, long value) {
+		long z = seed + (value + 1) * 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
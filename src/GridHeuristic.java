@@ -0,0 +1,7 @@
+// This GridHeuristic interface lets the index-based planners use a heuristic other than Manhattan distance.
+// Estimates must never exceed the true number of moves between two cells and must be consistent (changing by at
+// most 1 between neighboring cells), so the planners keep returning shortest paths.
+public interface GridHeuristic {
+	// Returns a lower bound on the number of moves from cell to goal
+	float estimate(int cell, int goal);
+}
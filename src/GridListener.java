@@ -0,0 +1,18 @@
+// This GridListener interface lets planners and indexes that precompute data from a Grid
+// hear about changes to it, so they can update only what a change affects.
+public interface GridListener {
+	// Called after a single cell changed between empty and obstacle
+	void cellChanged(int row, int col, boolean obstacle);
+
+	// Called after many cells may have changed at once, e.g. when obstacles are regenerated
+	void gridReset();
+
+	// Called after the cost of entering a cell changed; raised tells whether it went up. Costs never change which
+	// cells are reachable, so listeners that only follow obstacles can keep this empty default.
+	default void cellCostChanged(int row, int col, boolean raised) {
+	}
+
+	// Called after the whole cost layer was dropped, so every cell costs 1 again
+	default void cellCostsCleared() {
+	}
+}
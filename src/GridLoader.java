@@ -0,0 +1,381 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+// This GridLoader class loads grids quickly from disk, as a faster alternative to Grid.readGridFromFile.
+// Text maps ("rows cols" followed by "row col" obstacle pairs, as in grid1.txt) are parsed straight out of a
+// memory-mapped buffer without creating a token per number. Maps can also be stored in a compact binary format:
+//   bytes 0-3   magic "GRDB"
+//   bytes 4-7   format version (1)
+//   bytes 8-15  rows, cols (int each)
+//   byte  16    encoding: 0 = raw bitmap, 1 = run-length encoded
+//   bytes 17-31 reserved (zero)
+// followed by either the raw row-aligned little-endian bitmap (the BitGridStorage layout, which is mapped
+// directly without copying), or run lengths as unsigned varints alternating empty/obstacle runs in row-major
+// order, starting with an empty run.
+// All loaded grids use packed storage. Terrain cost layers are kept in separate "row col cost" text files and
+// applied to a loaded grid with loadCellCosts.
+public class GridLoader {
+	public static final int ENCODING_RAW = 0;
+	public static final int ENCODING_RLE = 1;
+
+	private static final int MAGIC = 0x42445247; // "GRDB" read as a little-endian int
+	private static final int VERSION = 1;
+	private static final int HEADER_BYTES = 32;
+	private static final long MAX_WINDOW_BYTES = 1L << 30;
+
+	// Method to load a grid from either the text or the binary format, detected from the file contents
+	public static Grid load(String filePath) throws IOException {
+		try (RandomAccessFile file = new RandomAccessFile(filePath, "r")) {
+			if (file.length() >= HEADER_BYTES && Integer.reverseBytes(file.readInt()) == MAGIC) {
+				return loadBinary(filePath);
+			}
+		}
+		return loadText(filePath);
+	}
+
+	// Method to parse a text grid file from a memory-mapped buffer, one byte at a time
+	public static Grid loadText(String filePath) throws IOException {
+		try (RandomAccessFile file = new RandomAccessFile(filePath, "r"); FileChannel channel = file.getChannel()) {
+			long length = channel.size();
+			int numRows = -1;
+			int numCols = -1;
+			int pendingRow = -1;
+			GridStorage storage = null;
+
+			long value = 0;
+			boolean inNumber = false;
+			// Large files are mapped in windows; a number split across two windows simply carries over
+			for (long position = 0; position <= length; position += MAX_WINDOW_BYTES) {
+				long windowBytes = Math.min(MAX_WINDOW_BYTES, length - position);
+				MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, windowBytes);
+				int limit = (int) windowBytes;
+				boolean lastWindow = position + windowBytes >= length;
+				for (int i = 0; i <= limit; i++) {
+					int c = i < limit ? buffer.get(i) : (lastWindow ? ' ' : -1);
+					if (c == -1) {
+						break; // Continue the current number in the next window
+					}
+					if (c >= '0' && c <= '9') {
+						value = value * 10 + (c - '0');
+						if (value > Integer.MAX_VALUE) {
+							throw new IOException("Number too large in grid file at byte " + (position + i));
+						}
+						inNumber = true;
+						continue;
+					}
+					if (c > ' ') {
+						throw new IOException("Unexpected character '" + (char) c + "' in grid file at byte "
+								+ (position + i));
+					}
+					if (!inNumber) {
+						continue;
+					}
+
+					int number = (int) value;
+					value = 0;
+					inNumber = false;
+					if (numRows < 0) {
+						numRows = number;
+					} else if (numCols < 0) {
+						numCols = number;
+						storage = new BitGridStorage(numRows, numCols);
+					} else if (pendingRow < 0) {
+						pendingRow = number;
+					} else {
+						if (pendingRow >= numRows || number >= numCols) {
+							throw new IOException("Obstacle (" + pendingRow + ", " + number + ") is outside the "
+									+ numRows + "x" + numCols + " grid");
+						}
+						storage.set(pendingRow, number, true);
+						pendingRow = -1;
+					}
+				}
+				if (lastWindow) {
+					break;
+				}
+			}
+
+			if (storage == null) {
+				throw new IOException("Grid file is missing the \"rows cols\" header");
+			}
+			if (pendingRow >= 0) {
+				throw new IOException("Grid file ends with an incomplete obstacle position");
+			}
+			return new Grid(storage);
+		}
+	}
+
+	// Method to load a binary grid file; raw bitmaps are mapped copy-on-write instead of being read into the heap
+	public static Grid loadBinary(String filePath) throws IOException {
+		try (RandomAccessFile file = new RandomAccessFile(filePath, "r"); FileChannel channel = file.getChannel()) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			while (header.hasRemaining()) {
+				if (channel.read(header) < 0) {
+					throw new IOException("Binary grid file is truncated");
+				}
+			}
+			header.flip();
+			if (header.getInt() != MAGIC) {
+				throw new IOException("Not a binary grid file: " + filePath);
+			}
+			int version = header.getInt();
+			if (version != VERSION) {
+				throw new IOException("Unsupported binary grid version " + version);
+			}
+			int numRows = header.getInt();
+			int numCols = header.getInt();
+			int encoding = header.get();
+			if (numRows < 1 || numCols < 1) {
+				throw new IOException("Invalid grid dimensions in binary grid file: " + numRows + "x" + numCols);
+			}
+
+			if (encoding == ENCODING_RAW) {
+				long expected = HEADER_BYTES + (long) numRows * ((numCols + 63) >>> 6) * Long.BYTES;
+				if (channel.size() != expected) {
+					throw new IOException("Binary grid file has " + channel.size() + " bytes, not the " + expected
+							+ " of a raw " + numRows + "x" + numCols + " grid");
+				}
+				return new Grid(new MappedGridStorage(filePath, HEADER_BYTES, numRows, numCols,
+						FileChannel.MapMode.PRIVATE));
+			} else if (encoding == ENCODING_RLE) {
+				// Runs are decoded onto the heap, so only raw files can hold grids beyond int cell indices
+				if ((long) numRows * numCols > Integer.MAX_VALUE) {
+					throw new IOException("Grid too large to decode onto the heap: " + numRows + "x" + numCols
+							+ "; store it raw to map it instead");
+				}
+				return new Grid(decodeRuns(channel, numRows, numCols));
+			} else {
+				throw new IOException("Unknown binary grid encoding " + encoding);
+			}
+		}
+	}
+
+	// Method to load a terrain cost layer onto a grid from a text file of "row col cost" triples, one cell per
+	// triple; cells not listed keep their current cost. Returns the number of cells set.
+	public static int loadCellCosts(Grid grid, String filePath) throws IOException {
+		try (BufferedInputStream in = new BufferedInputStream(new FileInputStream(filePath), 1 << 16)) {
+			int[] triple = new int[3];
+			int count = 0;
+			int filled = 0;
+			long value = 0;
+			boolean inNumber = false;
+			long position = 0;
+			for (int c = in.read();; c = in.read(), position++) {
+				if (c >= '0' && c <= '9') {
+					value = value * 10 + (c - '0');
+					if (value > Integer.MAX_VALUE) {
+						throw new IOException("Number too large in cost file at byte " + position);
+					}
+					inNumber = true;
+					continue;
+				}
+				if (c > ' ') {
+					throw new IOException("Unexpected character '" + (char) c + "' in cost file at byte " + position);
+				}
+				if (inNumber) {
+					triple[filled++] = (int) value;
+					value = 0;
+					inNumber = false;
+					if (filled == 3) {
+						if (!grid.isValidPosition(triple[0], triple[1])) {
+							throw new IOException("Cost for (" + triple[0] + ", " + triple[1] + ") is outside the "
+									+ grid.getNumRows() + "x" + grid.getNumCols() + " grid");
+						}
+						if (triple[2] < 1 || triple[2] > Grid.MAX_CELL_COST) {
+							throw new IOException("Cost " + triple[2] + " at (" + triple[0] + ", " + triple[1]
+									+ ") is not between 1 and " + Grid.MAX_CELL_COST);
+						}
+						grid.setCellCost(triple[0], triple[1], triple[2]);
+						filled = 0;
+						count++;
+					}
+				}
+				if (c < 0) {
+					break;
+				}
+			}
+			if (filled != 0) {
+				throw new IOException("Cost file ends with an incomplete \"row col cost\" triple");
+			}
+			return count;
+		}
+	}
+
+	// Method to write a grid in the binary format, either as a raw bitmap or run-length encoded
+	public static void writeBinary(Grid grid, String filePath, int encoding) throws IOException {
+		int numRows = grid.getNumRows();
+		int numCols = grid.getNumCols();
+		int wordsPerRow = grid.getWordsPerRow();
+
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(filePath), 1 << 16))) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			header.putInt(MAGIC).putInt(VERSION).putInt(numRows).putInt(numCols).put((byte) encoding);
+			out.write(header.array());
+
+			if (encoding == ENCODING_RAW) {
+				ByteBuffer row = ByteBuffer.allocate(wordsPerRow * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+				for (int r = 0; r < numRows; r++) {
+					row.clear();
+					for (int w = 0; w < wordsPerRow; w++) {
+						row.putLong(grid.getObstacleWord(r, w));
+					}
+					out.write(row.array());
+				}
+			} else if (encoding == ENCODING_RLE) {
+				encodeRuns(grid, out);
+			} else {
+				throw new IllegalArgumentException("Unknown binary grid encoding " + encoding);
+			}
+		}
+	}
+
+	// Method to write alternating empty/obstacle run lengths over the cells in row-major order
+	private static void encodeRuns(Grid grid, OutputStream out) throws IOException {
+		int numRows = grid.getNumRows();
+		int numCols = grid.getNumCols();
+		boolean runIsObstacle = false;
+		long runLength = 0;
+
+		for (int row = 0; row < numRows; row++) {
+			int col = 0;
+			while (col < numCols) {
+				// Find the end of the current run within this row a word at a time
+				int end = runIsObstacle ? nextFreeInRow(grid, row, col) : grid.nextObstacleInRow(row, col);
+				runLength += end - col;
+				col = end;
+				if (col < numCols) {
+					writeVarLong(out, runLength);
+					runIsObstacle = !runIsObstacle;
+					runLength = 0;
+				}
+			}
+		}
+		writeVarLong(out, runLength);
+	}
+
+	// Method to read run lengths back into packed storage, filling obstacle runs a word at a time
+	private static GridStorage decodeRuns(FileChannel channel, int numRows, int numCols) throws IOException {
+		BitGridStorage storage = new BitGridStorage(numRows, numCols);
+		long totalCells = (long) numRows * numCols;
+		long cell = 0;
+		boolean runIsObstacle = false;
+
+		long position = HEADER_BYTES;
+		long length = channel.size();
+		MappedByteBuffer buffer = null;
+		long bufferStart = 0;
+
+		while (cell < totalCells) {
+			long runLength = 0;
+			int shift = 0;
+			while (true) {
+				if (buffer == null || position - bufferStart >= buffer.limit()) {
+					if (position >= length) {
+						throw new IOException("Binary grid file is truncated");
+					}
+					bufferStart = position;
+					buffer = channel.map(FileChannel.MapMode.READ_ONLY, position,
+							Math.min(MAX_WINDOW_BYTES, length - position));
+				}
+				int b = buffer.get((int) (position++ - bufferStart));
+				runLength |= (long) (b & 0x7F) << shift;
+				if ((b & 0x80) == 0) {
+					break;
+				}
+				shift += 7;
+			}
+			if (runLength > totalCells - cell) {
+				throw new IOException("Run length exceeds the grid size");
+			}
+
+			if (runIsObstacle) {
+				fillRun(storage, numCols, cell, runLength);
+			}
+			cell += runLength;
+			runIsObstacle = !runIsObstacle;
+		}
+		return storage;
+	}
+
+	// Helper method to mark a row-major run of cells as obstacles, splitting it at row and word boundaries
+	private static void fillRun(GridStorage storage, int numCols, long firstCell, long runLength) {
+		long cell = firstCell;
+		long end = firstCell + runLength;
+		while (cell < end) {
+			int row = (int) (cell / numCols);
+			int col = (int) (cell % numCols);
+			int stop = (int) Math.min(numCols, col + (end - cell));
+			while (col < stop) {
+				int wordIndex = col >>> 6;
+				int wordEnd = Math.min(stop, (wordIndex + 1) << 6);
+				int bits = wordEnd - col;
+				long mask = (bits == 64 ? -1L : (1L << bits) - 1) << col;
+				storage.setWord(row, wordIndex, storage.getWord(row, wordIndex) | mask);
+				col = wordEnd;
+			}
+			cell += stop - (int) (cell % numCols);
+		}
+	}
+
+	// Helper method to find the first empty cell in a row at or after the given column, or numCols
+	private static int nextFreeInRow(Grid grid, int row, int fromCol) {
+		int numCols = grid.getNumCols();
+		int wordIndex = fromCol >>> 6;
+		long bits = ~grid.getObstacleWord(row, wordIndex) & (-1L << fromCol);
+		while (bits == 0) {
+			if (++wordIndex == grid.getWordsPerRow()) {
+				return numCols;
+			}
+			bits = ~grid.getObstacleWord(row, wordIndex);
+		}
+		return Math.min(numCols, (wordIndex << 6) + Long.numberOfTrailingZeros(bits));
+	}
+
+	private static void writeVarLong(OutputStream out, long value) throws IOException {
+		while ((value & ~0x7FL) != 0) {
+			out.write((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.write((int) value);
+	}
+
+	// Converts grid1..grid5.txt-style text maps to the binary format and reports the load times.
+	// Usage: java GridLoader <input.txt> <output.grid> [raw|rle]
+	public static void main(String[] args) {
+		if (args.length < 2) {
+			System.out.println("Usage: java GridLoader <input.txt> <output.grid> [raw|rle]");
+			return;
+		}
+		int encoding = args.length > 2 && args[2].equalsIgnoreCase("rle") ? ENCODING_RLE : ENCODING_RAW;
+
+		try {
+			long startTime = System.nanoTime();
+			Grid grid = loadText(args[0]);
+			long textTime = System.nanoTime() - startTime;
+
+			writeBinary(grid, args[1], encoding);
+
+			startTime = System.nanoTime();
+			load(args[1]);
+			long binaryTime = System.nanoTime() - startTime;
+
+			System.out.println("Grid: " + grid.getNumRows() + "x" + grid.getNumCols());
+			System.out.println("Text load time: " + (textTime / 1_000_000.0) + " ms");
+			System.out.println("Binary load time (" + (encoding == ENCODING_RLE ? "rle" : "raw") + "): "
+					+ (binaryTime / 1_000_000.0) + " ms");
+		} catch (IOException e) {
+			System.out.println("Conversion failed: " + e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,335 @@
+import java.util.Arrays;
+
+// This GridPathPlanner class implements the A* algorithm directly on grid cell indices (row * numCols + col)
+// instead of building a PathPlanner.Node object graph.
+// g-scores, parents and open/closed flags live in primitive arrays sized to the grid, and the open list is an
+// IndexedMinHeap with decrease-key. All working buffers are reused across queries: a search only stamps the
+// cells it touches, so a steady-state query allocates nothing beyond the returned path.
+// A planner instance holds per-query state and must not be shared between threads.
+// Each query counts its expansions, pushes, reopenings and open-list high-water mark in plain int fields; when
+// a SearchMetrics is attached the query is also timed and the counts are added to it, otherwise nothing else runs.
+// On grids with a terrain cost layer a move costs the cost of the cell it enters, and the heuristic is scaled by
+// the smallest cell cost so it stays admissible.
+// Costs and open-list keys are doubles: float sums stop being exact at 2^24, which a long weighted path on a large
+// map exceeds, while a double holds any path cost on an indexable grid exactly.
+// Cells are indexed by int, so planning is limited to grids of up to Integer.MAX_VALUE - 8 cells; larger grids,
+// which the bitset storages can hold, can be loaded and edited but not planned on.
+public class GridPathPlanner {
+	protected final Grid grid;
+	protected final int numRows;
+	protected final int numCols;
+	protected final double[] g; // Cost from the start, valid only for cells stamped by the current search
+	protected final int[] parent; // Predecessor cell on the best known path, valid like g
+	protected final int[] mark; // Search stamp of each cell: openStamp when reached, openStamp + 1 when closed
+	protected final IndexedMinHeap openList;
+	protected int openStamp;
+	protected int expandedCount; // Number of cells taken off the open list by the last query
+	protected int pushedCount; // Number of pushes (including decrease-key updates) by the last query
+	protected int reopenedCount; // Number of closed cells pushed again by the last query
+	protected int heapHighWater; // Largest open-list size during the last query
+	private SearchMetrics metrics; // Aggregated statistics, or null when disabled
+	private ConnectivityIndex connectivity; // Used to reject unreachable goals without searching, or null
+	private GridHeuristic heuristic; // Replaces the Manhattan distance when set
+	private ClearanceMap clearance; // Clearances of the grid's cells when planning for a larger robot, or null
+	private int footprintRadius; // The robot covers the (2r + 1) x (2r + 1) square of cells around its position
+	protected byte[] cellCosts; // The grid's cost layer as of the current query, or null if every move costs 1
+	protected double minCellCost = 1; // Scale of the heuristic for the current query
+
+	// Constructor to allocate the working buffers for the given grid
+	public GridPathPlanner(Grid grid) {
+		this.grid = grid;
+		this.numRows = grid.getNumRows();
+		this.numCols = grid.getNumCols();
+		int numCells = cellCount(grid);
+		this.g = new double[numCells];
+		this.parent = new int[numCells];
+		this.mark = new int[numCells];
+		this.openList = new IndexedMinHeap(numCells);
+		this.openStamp = 0;
+	}
+
+	public Grid getGrid() {
+		return grid;
+	}
+
+	public int getExpandedCount() {
+		return expandedCount;
+	}
+
+	public int getPushedCount() {
+		return pushedCount;
+	}
+
+	public int getReopenedCount() {
+		return reopenedCount;
+	}
+
+	public int getHeapHighWater() {
+		return heapHighWater;
+	}
+
+	public ConnectivityIndex getConnectivity() {
+		return connectivity;
+	}
+
+	// Method to attach a connectivity index of the same grid (null to detach). Queries whose start and goal lie
+	// in different components then return null immediately.
+	public void setConnectivity(ConnectivityIndex connectivity) {
+		this.connectivity = connectivity;
+	}
+
+	public GridHeuristic getHeuristic() {
+		return heuristic;
+	}
+
+	// Method to guide the search with another admissible, consistent heuristic (null for Manhattan distance)
+	public void setHeuristic(GridHeuristic heuristic) {
+		this.heuristic = heuristic;
+	}
+
+	public ClearanceMap getClearance() {
+		return clearance;
+	}
+
+	public int getFootprintRadius() {
+		return footprintRadius;
+	}
+
+	// Method to plan for a robot covering the (2 * radius + 1) x (2 * radius + 1) square of cells around its
+	// position, using a clearance map of the same grid (null and 0 for a single-cell robot). Cells where the robot
+	// does not fit are then treated as obstacles.
+	public void setFootprint(ClearanceMap clearance, int radius) {
+		if (radius < 0 || radius >= ClearanceMap.MAX_CLEARANCE || (radius > 0 && clearance == null)) {
+			throw new IllegalArgumentException("Invalid footprint radius: " + radius);
+		}
+		if (clearance != null && clearance.getGrid() != grid) {
+			throw new IllegalArgumentException("Clearance map belongs to another grid");
+		}
+		this.clearance = radius == 0 ? null : clearance;
+		this.footprintRadius = radius;
+	}
+
+	public SearchMetrics getMetrics() {
+		return metrics;
+	}
+
+	// Method to attach metrics that every following query is recorded into (null to disable).
+	// The same SearchMetrics may be shared by planners running on different threads.
+	public void setMetrics(SearchMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	// Method to convert a (row, col) position into a cell index
+	public int cellIndex(int row, int col) {
+		return row * numCols + col;
+	}
+
+	public int rowOf(int cell) {
+		return cell / numCols;
+	}
+
+	public int colOf(int cell) {
+		return cell % numCols;
+	}
+
+	// Method to find a path between two robot states, returning the cell indices from start to goal
+	public int[] findPath(RobotState startState, RobotState goalState) {
+		if (!grid.isValidPosition(startState.getRow(), startState.getColumn())
+				|| !grid.isValidPosition(goalState.getRow(), goalState.getColumn())) {
+			return null;
+		}
+		return findPath(cellIndex(startState.getRow(), startState.getColumn()),
+				cellIndex(goalState.getRow(), goalState.getColumn()));
+	}
+
+	// Method to find a path between two cells, returning the cell indices from start to goal or null if none exists
+	public int[] findPath(int start, int goal) {
+		long startTime = metrics == null ? 0 : System.nanoTime();
+		int[] path;
+		if (start != goal && connectivity != null && !connectivity.isConnected(start, goal)) {
+			resetCounters();
+			path = null; // Rejected without searching
+		} else {
+			path = search(start, goal);
+		}
+		if (metrics == null) {
+			return path;
+		}
+		metrics.record(System.nanoTime() - startTime, expandedCount, pushedCount, heapHighWater, reopenedCount,
+				path != null);
+		return path;
+	}
+
+	// Implements the A* algorithm over cell indices, returning the path from start to goal or null if none exists
+	protected int[] search(int start, int goal) {
+		resetCounters();
+		if (start == goal) {
+			return new int[] { start };
+		}
+		if (isBlocked(start) || isBlocked(goal)) {
+			return null; // No path found
+		}
+
+		beginSearch();
+		open(start, 0, -1, goal);
+
+		while (!openList.isEmpty()) {
+			// Exploring cells in order of increasing total cost
+			int current = openList.pop();
+			expandedCount++;
+
+			if (current == goal) {
+				return reconstructPath(goal);
+			}
+
+			mark[current] = openStamp + 1;
+			expand(current, goal);
+		}
+
+		return null; // No path found
+	}
+
+	// Method to relax the four neighbors (up, down, left, right) of the current cell
+	protected void expand(int current, int goal) {
+		int row = rowOf(current);
+		int col = colOf(current);
+		if (cellCosts != null) {
+			expandWeighted(current, row, col, goal);
+			return;
+		}
+		double nextG = g[current] + 1; // Uniform cost for moving between adjacent cells
+
+		if (row > 0)
+			relax(current, current - numCols, nextG, goal);
+		if (row < numRows - 1)
+			relax(current, current + numCols, nextG, goal);
+		if (col > 0)
+			relax(current, current - 1, nextG, goal);
+		if (col < numCols - 1)
+			relax(current, current + 1, nextG, goal);
+	}
+
+	// Method to relax the four neighbors with the cost of entering each of them
+	private void expandWeighted(int current, int row, int col, int goal) {
+		byte[] costs = cellCosts;
+		double currentG = g[current];
+
+		if (row > 0)
+			relax(current, current - numCols, currentG + (costs[current - numCols] & 0xFF), goal);
+		if (row < numRows - 1)
+			relax(current, current + numCols, currentG + (costs[current + numCols] & 0xFF), goal);
+		if (col > 0)
+			relax(current, current - 1, currentG + (costs[current - 1] & 0xFF), goal);
+		if (col < numCols - 1)
+			relax(current, current + 1, currentG + (costs[current + 1] & 0xFF), goal);
+	}
+
+	// Method to update a neighbor if reaching it through the current cell is cheaper
+	protected void relax(int current, int neighbor, double tentativeG, int goal) {
+		int state = mark[neighbor];
+		if (state == openStamp + 1 || isBlocked(neighbor)) {
+			return; // Closed or obstacle
+		}
+		if (state != openStamp || tentativeG < g[neighbor]) {
+			open(neighbor, tentativeG, current, goal);
+		}
+	}
+
+	// Method to record a cell's cost and parent and push it onto the open list
+	protected void open(int cell, double cost, int from, int goal) {
+		double h = calculateHeuristic(cell, goal);
+		boolean reopening = mark[cell] == openStamp + 1;
+		g[cell] = cost;
+		parent[cell] = from;
+		mark[cell] = openStamp;
+		openList.push(cell, cost + h, h); // Ties on f are broken towards the goal
+		countPush(reopening);
+	}
+
+	// Method to reset the per-query statistics
+	protected void resetCounters() {
+		expandedCount = 0;
+		pushedCount = 0;
+		reopenedCount = 0;
+		heapHighWater = 0;
+	}
+
+	// Method to update the push statistics after a cell was pushed onto the open list
+	protected void countPush(boolean reopening) {
+		pushedCount++;
+		if (reopening) {
+			reopenedCount++;
+		}
+		if (openList.size() > heapHighWater) {
+			heapHighWater = openList.size();
+		}
+	}
+
+	// Method to check whether a cell cannot be entered: it is an obstacle, or the robot's footprint does not fit
+	protected boolean isBlocked(int cell) {
+		if (clearance != null) {
+			return !clearance.fits(cell, footprintRadius);
+		}
+		return grid.isObstacle(rowOf(cell), colOf(cell));
+	}
+
+	// Method to compute the heuristic (Manhattan distance unless another heuristic is set) between two cells,
+	// times the smallest cell cost
+	protected double calculateHeuristic(int cell, int goal) {
+		if (heuristic != null) {
+			return minCellCost * heuristic.estimate(cell, goal);
+		}
+		return minCellCost * (Math.abs(rowOf(cell) - rowOf(goal)) + Math.abs(colOf(cell) - colOf(goal)));
+	}
+
+	// Method to return the cost of a path of cell indices: the number of moves, or on a grid with a cost layer
+	// the sum of the costs of the cells entered
+	public long getPathCost(int[] path) {
+		if (!grid.hasCellCosts()) {
+			return path.length - 1;
+		}
+		long cost = 0;
+		for (int i = 1; i < path.length; i++) {
+			cost += grid.getCellCost(rowOf(path[i]), colOf(path[i]));
+		}
+		return cost;
+	}
+
+	// Method to start a new search by advancing the stamp instead of clearing the buffers, and to pick up the
+	// grid's current cost layer
+	protected void beginSearch() {
+		cellCosts = grid.getCostLayer();
+		minCellCost = grid.getMinCellCost();
+		openList.clear();
+		if (openStamp >= Integer.MAX_VALUE - 2) {
+			Arrays.fill(mark, 0);
+			openStamp = 0;
+		}
+		openStamp += 2;
+	}
+
+	// Method to reconstruct the path from the goal cell back to the start cell
+	protected int[] reconstructPath(int goal) {
+		int length = 0;
+		for (int cell = goal; cell != -1; cell = parent[cell]) {
+			length++;
+		}
+
+		int[] path = new int[length];
+		int cell = goal;
+		for (int i = length - 1; i >= 0; i--) {
+			path[i] = cell;
+			cell = parent[cell];
+		}
+		return path;
+	}
+
+	// Helper method to check the grid fits in int cell indices and return its cell count
+	static int cellCount(Grid grid) {
+		long cells = (long) grid.getNumRows() * grid.getNumCols();
+		if (cells > Integer.MAX_VALUE - 8) {
+			throw new IllegalArgumentException("Grid too large for cell indexing: " + cells + " cells");
+		}
+		return (int) cells;
+	}
+}
@@ -0,0 +1,225 @@
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+// This GridRenderer class draws a grid with its obstacles, path and start and goal cells as text:
+// "#" for obstacles, "S" and "G" for the start and goal, "*" for path cells and "." for empty cells,
+// each followed by a space, one grid row per line.
+// Path cells are marked in a bitset laid out like the grid's obstacle words, so drawing a cell never searches the
+// path. Characters are assembled in a byte buffer of whole rows that is written to the stream in one call per
+// buffer, instead of one print call per cell.
+// Grids too large to print can be drawn downsampled (one character per block of cells) or through a viewport.
+public class GridRenderer {
+	private static final int BUFFER_BYTES = 1 << 16; // Rows are flushed once this much output is assembled
+	private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+
+	private final Grid grid;
+	private final int numRows;
+	private final int numCols;
+	private final int wordsPerRow;
+	private final long[] pathBits; // Bit col & 63 of word row * wordsPerRow + (col >>> 6) marks a path cell
+	private int startCell = -1;
+	private int goalCell = -1;
+
+	// Constructor to create a renderer for the given grid with no path, start or goal marked
+	public GridRenderer(Grid grid) {
+		this.grid = grid;
+		this.numRows = grid.getNumRows();
+		this.numCols = grid.getNumCols();
+		this.wordsPerRow = (numCols + 63) >>> 6;
+		this.pathBits = new long[Math.multiplyExact(numRows, wordsPerRow)];
+	}
+
+	// Method to mark the cells of a path of cell indices (row * numCols + col)
+	public void markPath(int[] path) {
+		if (path != null) {
+			for (int cell : path) {
+				markCell(cell / numCols, cell % numCols);
+			}
+		}
+	}
+
+	// Method to mark the cells of a path of graph nodes
+	public void markPath(List<PathPlanner.Node> path) {
+		if (path != null) {
+			for (PathPlanner.Node node : path) {
+				markCell(node.row, node.col);
+			}
+		}
+	}
+
+	// Method to mark a single cell as part of the path
+	public void markCell(int row, int col) {
+		pathBits[row * wordsPerRow + (col >>> 6)] |= 1L << col;
+	}
+
+	// Method to remove all path marks so the renderer can be reused
+	public void clearPath() {
+		Arrays.fill(pathBits, 0);
+	}
+
+	// Method to set the start cell drawn as "S", or a negative row for none
+	public void setStart(int row, int col) {
+		startCell = row < 0 ? -1 : row * numCols + col;
+	}
+
+	// Method to set the goal cell drawn as "G", or a negative row for none
+	public void setGoal(int row, int col) {
+		goalCell = row < 0 ? -1 : row * numCols + col;
+	}
+
+	// Method to draw the whole grid
+	public void render(PrintStream out) {
+		renderViewport(out, 0, 0, numRows, numCols);
+	}
+
+	// Method to draw the whole grid if it fits within the given number of rows and columns, and a downsampled
+	// version of it otherwise
+	public void renderFitted(PrintStream out, int maxRows, int maxCols) {
+		if (numRows <= maxRows && numCols <= maxCols) {
+			render(out);
+		} else {
+			renderDownsampled(out, maxRows, maxCols);
+		}
+	}
+
+	// Method to draw the part of the grid starting at the given cell, clipped to the grid boundaries
+	public void renderViewport(PrintStream out, int firstRow, int firstCol, int rows, int cols) {
+		int rowFrom = Math.max(0, firstRow);
+		int colFrom = Math.max(0, firstCol);
+		int rowTo = (int) Math.min(numRows, (long) firstRow + rows);
+		int colTo = (int) Math.min(numCols, (long) firstCol + cols);
+		if (rowFrom >= rowTo || colFrom >= colTo) {
+			return;
+		}
+		int lineBytes = 2 * (colTo - colFrom) + LINE_SEPARATOR.length;
+		byte[] buffer = new byte[(int) Math.min((long) lineBytes * (rowTo - rowFrom),
+				Math.max(lineBytes, BUFFER_BYTES / lineBytes * lineBytes))];
+		int length = 0;
+		for (int row = rowFrom; row < rowTo; row++) {
+			if (length + lineBytes > buffer.length) {
+				out.write(buffer, 0, length);
+				length = 0;
+			}
+			int lineStart = length;
+			long obstacleWord = 0;
+			long pathWord = 0;
+			for (int col = colFrom; col < colTo; col++) {
+				if (col == colFrom || (col & 63) == 0) {
+					obstacleWord = grid.getObstacleWord(row, col >>> 6);
+					pathWord = pathBits[row * wordsPerRow + (col >>> 6)];
+				}
+				long bit = 1L << col;
+				buffer[length++] = (obstacleWord & bit) != 0 ? (byte) '#'
+						: (pathWord & bit) != 0 ? (byte) '*' : (byte) '.';
+				buffer[length++] = ' ';
+			}
+			System.arraycopy(LINE_SEPARATOR, 0, buffer, length, LINE_SEPARATOR.length);
+			length += LINE_SEPARATOR.length;
+			// The goal is drawn first so the start wins when both are the same cell; obstacles win over both
+			drawMarker(buffer, lineStart, goalCell, 'G', row, colFrom, colTo);
+			drawMarker(buffer, lineStart, startCell, 'S', row, colFrom, colTo);
+		}
+		out.write(buffer, 0, length);
+		out.flush();
+	}
+
+	// Helper method to put a marker over a free cell of the row being assembled, if the cell is on it
+	private void drawMarker(byte[] buffer, int lineStart, int cell, char marker, int row, int colFrom, int colTo) {
+		if (cell < 0 || cell / numCols != row) {
+			return;
+		}
+		int col = cell % numCols;
+		if (col >= colFrom && col < colTo && !grid.isObstacle(row, col)) {
+			buffer[lineStart + 2 * (col - colFrom)] = (byte) marker;
+		}
+	}
+
+	// Method to draw the grid in at most the given number of rows and columns, one character per block of cells:
+	// "S" or "G" if the block holds the free start or goal cell, "*" if it holds a path cell, "#" if more than half
+	// of it is obstacles and "." otherwise
+	public void renderDownsampled(PrintStream out, int maxRows, int maxCols) {
+		int blockRows = (numRows + Math.max(1, maxRows) - 1) / Math.max(1, maxRows);
+		int blockCols = (numCols + Math.max(1, maxCols) - 1) / Math.max(1, maxCols);
+		int outRows = (numRows + blockRows - 1) / blockRows;
+		int outCols = (numCols + blockCols - 1) / blockCols;
+		int lineBytes = 2 * outCols + LINE_SEPARATOR.length;
+		byte[] line = new byte[lineBytes];
+		System.arraycopy(LINE_SEPARATOR, 0, line, 2 * outCols, LINE_SEPARATOR.length);
+		int[] obstacles = new int[outCols];
+		boolean[] onPath = new boolean[outCols];
+
+		out.println("(Downsampled: each character is a block of " + blockRows + " x " + blockCols + " cells)");
+		for (int outRow = 0; outRow < outRows; outRow++) {
+			Arrays.fill(obstacles, 0);
+			Arrays.fill(onPath, false);
+			int rowFrom = outRow * blockRows;
+			int rowTo = Math.min(numRows, rowFrom + blockRows);
+			for (int row = rowFrom; row < rowTo; row++) {
+				for (int block = 0; block < outCols; block++) {
+					int colFrom = block * blockCols;
+					int colTo = Math.min(numCols, colFrom + blockCols);
+					obstacles[block] += countObstacles(row, colFrom, colTo);
+					onPath[block] |= hasPathCell(row, colFrom, colTo);
+				}
+			}
+			for (int block = 0; block < outCols; block++) {
+				int colFrom = block * blockCols;
+				int colTo = Math.min(numCols, colFrom + blockCols);
+				byte symbol;
+				if (containsFree(startCell, rowFrom, rowTo, colFrom, colTo)) {
+					symbol = 'S';
+				} else if (containsFree(goalCell, rowFrom, rowTo, colFrom, colTo)) {
+					symbol = 'G';
+				} else if (onPath[block]) {
+					symbol = '*';
+				} else if (2 * obstacles[block] > (rowTo - rowFrom) * (colTo - colFrom)) {
+					symbol = '#';
+				} else {
+					symbol = '.';
+				}
+				line[2 * block] = symbol;
+				line[2 * block + 1] = ' ';
+			}
+			out.write(line, 0, lineBytes);
+		}
+		out.flush();
+	}
+
+	// Helper method to count the obstacles of a row within [colFrom, colTo), a word at a time
+	private int countObstacles(int row, int colFrom, int colTo) {
+		int count = 0;
+		for (int word = colFrom >>> 6; word <= (colTo - 1) >>> 6; word++) {
+			count += Long.bitCount(grid.getObstacleWord(row, word) & rangeMask(word, colFrom, colTo));
+		}
+		return count;
+	}
+
+	// Helper method to check for a path cell in a row within [colFrom, colTo)
+	private boolean hasPathCell(int row, int colFrom, int colTo) {
+		for (int word = colFrom >>> 6; word <= (colTo - 1) >>> 6; word++) {
+			if ((pathBits[row * wordsPerRow + word] & rangeMask(word, colFrom, colTo)) != 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// Helper method to return the bits of a word that fall within [colFrom, colTo)
+	private static long rangeMask(int word, int colFrom, int colTo) {
+		int low = Math.max(0, colFrom - (word << 6));
+		int high = Math.min(64, colTo - (word << 6));
+		return high == 64 ? -1L << low : (-1L << low) & ((1L << high) - 1);
+	}
+
+	// Helper method to check whether a cell lies within a block and is free
+	private boolean containsFree(int cell, int rowFrom, int rowTo, int colFrom, int colTo) {
+		if (cell < 0) {
+			return false;
+		}
+		int row = cell / numCols;
+		int col = cell % numCols;
+		return row >= rowFrom && row < rowTo && col >= colFrom && col < colTo && !grid.isObstacle(row, col);
+	}
+}
@@ -0,0 +1,26 @@
+// This GridStorage interface describes how a Grid keeps its occupancy data.
+// Implementations store one obstacle flag per cell and also expose each row as 64-cell words,
+// where bit i of word w is the cell at column w * 64 + i (1 for obstacle, 0 for empty).
+// Bits past the last column of a row are always 0, so whole words can be scanned for free space.
+public interface GridStorage {
+	int getNumRows();
+
+	int getNumCols();
+
+	// Method to check if the cell at the given position holds an obstacle
+	boolean get(int row, int col);
+
+	// Method to mark or clear an obstacle at the given position
+	void set(int row, int col, boolean obstacle);
+
+	// Method to return the number of 64-cell words that cover one row
+	default int getWordsPerRow() {
+		return (getNumCols() + 63) >>> 6;
+	}
+
+	// Method to read 64 consecutive cells of a row as a bit mask
+	long getWord(int row, int wordIndex);
+
+	// Method to overwrite 64 consecutive cells of a row from a bit mask
+	void setWord(int row, int wordIndex, long bits);
+}
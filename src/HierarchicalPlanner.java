@@ -0,0 +1,456 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+// This HierarchicalPlanner class implements hierarchical path planning (HPA*) on top of the grid.
+// The grid is split into square clusters. Wherever two neighboring clusters share a run of free border cells,
+// one transition (two for long runs) is placed across the border, and the distances between the transition
+// cells (entrances) inside each cluster are precomputed by breadth-first search, in parallel across clusters.
+// Long queries run A* over this small abstract graph of entrances, reusing the cell-indexed buffers of
+// GridPathPlanner, and then refine each abstract step inside its cluster; short queries fall back to plain A*.
+// Paths are near-optimal rather than optimal.
+// The planner listens to the grid and rebuilds only the affected cluster when a single cell changes.
+public class HierarchicalPlanner extends GridPathPlanner implements GridListener {
+	private static final int LONG_ENTRANCE = 6; // Border runs at least this long get a transition at each end
+	private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+	private final int clusterSize;
+	private final int clusterRows;
+	private final int clusterCols;
+
+	private final int[][] rightTransitions; // Per cluster, (left cell, right cell) pairs across its right border
+	private final int[][] downTransitions; // Per cluster, (upper cell, lower cell) pairs across its lower border
+	private final int[][] entrances; // Per cluster, the distinct cells used by transitions on any of its borders
+	private final int[][] partners; // Per cluster, two cells across the border per entrance (-1 when unused)
+	private final int[][] distances; // Per cluster, entrance-to-entrance distances inside the cluster (row-major)
+
+	private final ThreadLocal<ClusterSearch> buildSearch; // Per-thread buffers for the parallel build
+	private final ClusterSearch querySearch;
+
+	// State of the current query
+	private boolean abstractSearch;
+	private int searchStart;
+	private int[] startLinks; // Distances from the start to the entrances of its cluster
+	private int[] goalLinks; // Distances from the entrances of the goal's cluster to the goal
+
+	private long buildTimeNanos;
+	private long lastUpdateNanos;
+	private long lastQueryNanos;
+
+	// Constructor to build the cluster abstraction for the given grid and cluster size
+	public HierarchicalPlanner(Grid grid, int clusterSize) {
+		super(grid);
+		if (clusterSize < 2) {
+			throw new IllegalArgumentException("Cluster size must be at least 2");
+		}
+		this.clusterSize = clusterSize;
+		this.clusterRows = (numRows + clusterSize - 1) / clusterSize;
+		this.clusterCols = (numCols + clusterSize - 1) / clusterSize;
+
+		int numClusters = clusterRows * clusterCols;
+		this.rightTransitions = new int[numClusters][];
+		this.downTransitions = new int[numClusters][];
+		this.entrances = new int[numClusters][];
+		this.partners = new int[numClusters][];
+		this.distances = new int[numClusters][];
+		this.buildSearch = ThreadLocal.withInitial(ClusterSearch::new);
+		this.querySearch = new ClusterSearch();
+
+		rebuild();
+		grid.addListener(this);
+	}
+
+	// Method to rebuild the whole abstraction from the current grid, in parallel across clusters
+	public void rebuild() {
+		long startTime = System.nanoTime();
+		IntStream.range(0, entrances.length).parallel().forEach(cluster -> {
+			rightTransitions[cluster] = findTransitions(cluster, true);
+			downTransitions[cluster] = findTransitions(cluster, false);
+		});
+		IntStream.range(0, entrances.length).parallel().forEach(cluster -> connectEntrances(cluster, buildSearch.get()));
+		buildTimeNanos = System.nanoTime() - startTime;
+	}
+
+	// Helper method to check whether a cell is an obstacle. The abstraction is built from the obstacles alone,
+	// whatever footprint is set when a cluster is rebuilt, since abstract searches only run without one.
+	private boolean isObstacle(int cell) {
+		return grid.isObstacle(rowOf(cell), colOf(cell));
+	}
+
+	// Method to update the abstraction after one cell changed: only the borders of the cluster holding the cell
+	// have to be rescanned, together with the entrances of its four neighbors, which share those borders
+	@Override
+	public void cellChanged(int row, int col, boolean obstacle) {
+		long startTime = System.nanoTime();
+		int clusterRow = row / clusterSize;
+		int clusterCol = col / clusterSize;
+		int cluster = clusterRow * clusterCols + clusterCol;
+		int left = clusterCol > 0 ? cluster - 1 : -1;
+		int up = clusterRow > 0 ? cluster - clusterCols : -1;
+		int right = clusterCol < clusterCols - 1 ? cluster + 1 : -1;
+		int down = clusterRow < clusterRows - 1 ? cluster + clusterCols : -1;
+
+		rightTransitions[cluster] = findTransitions(cluster, true);
+		downTransitions[cluster] = findTransitions(cluster, false);
+		if (left >= 0)
+			rightTransitions[left] = findTransitions(left, true);
+		if (up >= 0)
+			downTransitions[up] = findTransitions(up, false);
+
+		connectEntrances(cluster, querySearch);
+		for (int neighbor : new int[] { left, up, right, down }) {
+			if (neighbor >= 0) {
+				connectEntrances(neighbor, querySearch);
+			}
+		}
+		lastUpdateNanos = System.nanoTime() - startTime;
+	}
+
+	@Override
+	public void gridReset() {
+		rebuild();
+	}
+
+	// Method to stop following changes of the grid
+	public void detach() {
+		grid.removeListener(this);
+	}
+
+	// Method to find a path by searching the abstract graph and refining it cluster by cluster.
+	// Queries spanning at most two clusters are answered by plain A* on the grid.
+	@Override
+	protected int[] search(int start, int goal) {
+		long startTime = System.nanoTime();
+		// The abstract graph stores move counts between single-cell positions, so grids with cell costs and larger
+		// footprints are searched with plain A*
+		abstractSearch = !grid.hasCellCosts() && getFootprintRadius() == 0
+				&& Math.abs(rowOf(start) - rowOf(goal)) + Math.abs(colOf(start) - colOf(goal)) > 2 * clusterSize;
+		if (abstractSearch && !isBlocked(start) && !isBlocked(goal)) {
+			startLinks = linkToEntrances(clusterOf(start), start);
+			goalLinks = linkToEntrances(clusterOf(goal), goal);
+			searchStart = start;
+		}
+		int[] path = super.search(start, goal);
+		abstractSearch = false;
+		lastQueryNanos = System.nanoTime() - startTime;
+		return path;
+	}
+
+	// Method to expand a grid cell, or in an abstract search an entrance: its intra-cluster edges to the other
+	// entrances of its cluster, its transitions across the borders, and the links of the start and goal
+	@Override
+	protected void expand(int current, int goal) {
+		if (!abstractSearch) {
+			super.expand(current, goal);
+			return;
+		}
+		double currentG = g[current];
+		int cluster = clusterOf(current);
+		int[] clusterEntrances = entrances[cluster];
+
+		if (current == searchStart) {
+			for (int i = 0; i < clusterEntrances.length; i++) {
+				if (startLinks[i] != UNREACHABLE) {
+					relax(current, clusterEntrances[i], currentG + startLinks[i], goal);
+				}
+			}
+		}
+
+		int index = indexOf(clusterEntrances, clusterEntrances.length, current);
+		if (index < 0) {
+			return;
+		}
+		int count = clusterEntrances.length;
+		for (int other = 0; other < count; other++) {
+			int distance = distances[cluster][index * count + other];
+			if (other != index && distance != UNREACHABLE) {
+				relax(current, clusterEntrances[other], currentG + distance, goal);
+			}
+		}
+		int[] clusterPartners = partners[cluster];
+		for (int i = 2 * index; i < 2 * index + 2; i++) {
+			if (clusterPartners[i] >= 0) {
+				relax(current, clusterPartners[i], currentG + 1, goal);
+			}
+		}
+		if (cluster == clusterOf(goal) && goalLinks[index] != UNREACHABLE) {
+			relax(current, goal, currentG + goalLinks[index], goal);
+		}
+	}
+
+	// Method to turn the abstract path into a cell path: steps across a border are single moves and
+	// steps inside a cluster are expanded with a breadth-first search restricted to that cluster
+	@Override
+	protected int[] reconstructPath(int goal) {
+		int[] abstractPath = super.reconstructPath(goal);
+		if (!abstractSearch) {
+			return abstractPath;
+		}
+
+		List<int[]> pieces = new ArrayList<>();
+		int length = 1;
+		for (int i = 1; i < abstractPath.length; i++) {
+			int from = abstractPath[i - 1];
+			int to = abstractPath[i];
+			int[] piece;
+			if (clusterOf(from) == clusterOf(to)) {
+				querySearch.run(clusterOf(from), from);
+				piece = querySearch.pathTo(to);
+			} else {
+				piece = new int[] { from, to };
+			}
+			pieces.add(piece);
+			length += piece.length - 1;
+		}
+
+		int[] path = new int[length];
+		path[0] = abstractPath[0];
+		int index = 1;
+		for (int[] piece : pieces) {
+			System.arraycopy(piece, 1, path, index, piece.length - 1);
+			index += piece.length - 1;
+		}
+		return path;
+	}
+
+	// Method to list the transitions on the right (or lower) border of a cluster: for every run of cells that
+	// are free on both sides, one transition in the middle, or one at each end for long runs
+	private int[] findTransitions(int cluster, boolean rightBorder) {
+		int clusterRow = cluster / clusterCols;
+		int clusterCol = cluster % clusterCols;
+		if ((rightBorder && clusterCol == clusterCols - 1) || (!rightBorder && clusterRow == clusterRows - 1)) {
+			return new int[0];
+		}
+
+		int first; // First cell along the border, on this cluster's side
+		int length; // Number of cells along the border
+		int along; // Step between consecutive border cells
+		int across; // Step from this cluster's side to the neighbor's side
+		if (rightBorder) {
+			int col = (clusterCol + 1) * clusterSize - 1;
+			int row = clusterRow * clusterSize;
+			first = cellIndex(row, col);
+			length = Math.min(numRows, row + clusterSize) - row;
+			along = numCols;
+			across = 1;
+		} else {
+			int row = (clusterRow + 1) * clusterSize - 1;
+			int col = clusterCol * clusterSize;
+			first = cellIndex(row, col);
+			length = Math.min(numCols, col + clusterSize) - col;
+			along = 1;
+			across = numCols;
+		}
+
+		int[] found = new int[4 * length];
+		int count = 0;
+		int runStart = -1;
+		for (int i = 0; i <= length; i++) {
+			boolean open = i < length && !isObstacle(first + i * along) && !isObstacle(first + i * along + across);
+			if (open && runStart < 0) {
+				runStart = i;
+			} else if (!open && runStart >= 0) {
+				int runLength = i - runStart;
+				if (runLength >= LONG_ENTRANCE) {
+					int a = first + runStart * along;
+					int b = first + (i - 1) * along;
+					found[count++] = a;
+					found[count++] = a + across;
+					found[count++] = b;
+					found[count++] = b + across;
+				} else {
+					int middle = first + (runStart + runLength / 2) * along;
+					found[count++] = middle;
+					found[count++] = middle + across;
+				}
+				runStart = -1;
+			}
+		}
+		return Arrays.copyOf(found, count);
+	}
+
+	// Method to collect the entrances of a cluster from its four borders, pair each one with the cells it
+	// connects to across the borders, and compute the distances between them inside the cluster
+	private void connectEntrances(int cluster, ClusterSearch search) {
+		int clusterRow = cluster / clusterCols;
+		int clusterCol = cluster % clusterCols;
+		int[][] sides = new int[][] { rightTransitions[cluster], downTransitions[cluster],
+				clusterCol > 0 ? rightTransitions[cluster - 1] : new int[0],
+				clusterRow > 0 ? downTransitions[cluster - clusterCols] : new int[0] };
+
+		int total = 0;
+		for (int[] side : sides) {
+			total += side.length / 2;
+		}
+		int[] collected = new int[total];
+		int[] collectedPartners = new int[2 * total];
+		Arrays.fill(collectedPartners, -1);
+		int count = 0;
+		for (int s = 0; s < sides.length; s++) {
+			int own = s < 2 ? 0 : 1; // Which cell of each pair lies in this cluster
+			int[] side = sides[s];
+			for (int i = 0; i < side.length; i += 2) {
+				int cell = side[i + own];
+				int index = indexOf(collected, count, cell);
+				if (index < 0) {
+					index = count++;
+					collected[index] = cell;
+				}
+				// A cell in a corner of the cluster can sit on two borders
+				collectedPartners[2 * index + (collectedPartners[2 * index] < 0 ? 0 : 1)] = side[i + 1 - own];
+			}
+		}
+
+		int[] clusterDistances = new int[count * count];
+		for (int i = 0; i < count; i++) {
+			search.run(cluster, collected[i]);
+			for (int j = 0; j < count; j++) {
+				clusterDistances[i * count + j] = search.distanceTo(collected[j]);
+			}
+		}
+		entrances[cluster] = Arrays.copyOf(collected, count);
+		partners[cluster] = Arrays.copyOf(collectedPartners, 2 * count);
+		distances[cluster] = clusterDistances;
+	}
+
+	// Method to compute the distance from a cell to every entrance of its cluster
+	private int[] linkToEntrances(int cluster, int cell) {
+		querySearch.run(cluster, cell);
+		int[] clusterEntrances = entrances[cluster];
+		int[] links = new int[clusterEntrances.length];
+		for (int i = 0; i < links.length; i++) {
+			links[i] = querySearch.distanceTo(clusterEntrances[i]);
+		}
+		return links;
+	}
+
+	private int clusterOf(int cell) {
+		return (rowOf(cell) / clusterSize) * clusterCols + colOf(cell) / clusterSize;
+	}
+
+	private static int indexOf(int[] values, int length, int value) {
+		for (int i = 0; i < length; i++) {
+			if (values[i] == value) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	// Getters for the reported statistics
+	public int getClusterSize() {
+		return clusterSize;
+	}
+
+	public long getBuildTimeNanos() {
+		return buildTimeNanos;
+	}
+
+	public long getLastUpdateNanos() {
+		return lastUpdateNanos;
+	}
+
+	public long getLastQueryNanos() {
+		return lastQueryNanos;
+	}
+
+	// Method to count the entrances (abstract nodes) over all clusters
+	public int getAbstractNodeCount() {
+		int count = 0;
+		for (int[] clusterEntrances : entrances) {
+			count += clusterEntrances.length;
+		}
+		return count;
+	}
+
+	// Method to estimate the memory held by the abstraction in bytes, excluding the cell-indexed search buffers
+	public long getAbstractionBytes() {
+		long bytes = 0;
+		for (int cluster = 0; cluster < entrances.length; cluster++) {
+			bytes += 4L * (rightTransitions[cluster].length + downTransitions[cluster].length
+					+ entrances[cluster].length + partners[cluster].length + distances[cluster].length)
+					+ 5 * 16; // Plus the array headers
+		}
+		return bytes;
+	}
+
+	// Breadth-first search restricted to the cells of one cluster, with buffers sized to a single cluster
+	private class ClusterSearch {
+		private final int[] distance = new int[clusterSize * clusterSize];
+		private final int[] parent = new int[clusterSize * clusterSize];
+		private final int[] stamp = new int[clusterSize * clusterSize];
+		private final int[] queue = new int[clusterSize * clusterSize];
+		private int currentStamp;
+		private int rowStart;
+		private int colStart;
+
+		// Method to search from a source cell, visiting every cell reachable from it inside its cluster
+		void run(int cluster, int source) {
+			currentStamp++;
+			rowStart = (cluster / clusterCols) * clusterSize;
+			colStart = (cluster % clusterCols) * clusterSize;
+			int height = Math.min(numRows, rowStart + clusterSize) - rowStart;
+			int width = Math.min(numCols, colStart + clusterSize) - colStart;
+
+			int head = 0;
+			int tail = 0;
+			int sourceLocal = toLocal(source);
+			stamp[sourceLocal] = currentStamp;
+			distance[sourceLocal] = 0;
+			parent[sourceLocal] = -1;
+			queue[tail++] = sourceLocal;
+
+			while (head < tail) {
+				int current = queue[head++];
+				int row = current / clusterSize;
+				int col = current % clusterSize;
+				int nextDistance = distance[current] + 1;
+				if (row > 0)
+					tail = visit(current, current - clusterSize, nextDistance, tail);
+				if (row < height - 1)
+					tail = visit(current, current + clusterSize, nextDistance, tail);
+				if (col > 0)
+					tail = visit(current, current - 1, nextDistance, tail);
+				if (col < width - 1)
+					tail = visit(current, current + 1, nextDistance, tail);
+			}
+		}
+
+		private int visit(int current, int neighbor, int nextDistance, int tail) {
+			if (stamp[neighbor] == currentStamp || isObstacle(toCell(neighbor))) {
+				return tail;
+			}
+			stamp[neighbor] = currentStamp;
+			distance[neighbor] = nextDistance;
+			parent[neighbor] = current;
+			queue[tail] = neighbor;
+			return tail + 1;
+		}
+
+		// Method to return the distance to a cell of the searched cluster, or UNREACHABLE
+		int distanceTo(int cell) {
+			int local = toLocal(cell);
+			return stamp[local] == currentStamp ? distance[local] : UNREACHABLE;
+		}
+
+		// Method to return the cells from the source to a reached cell of the searched cluster
+		int[] pathTo(int cell) {
+			int local = toLocal(cell);
+			int[] path = new int[distance[local] + 1];
+			for (int i = path.length - 1; i >= 0; i--) {
+				path[i] = toCell(local);
+				local = parent[local];
+			}
+			return path;
+		}
+
+		private int toLocal(int cell) {
+			return (rowOf(cell) - rowStart) * clusterSize + colOf(cell) - colStart;
+		}
+
+		private int toCell(int local) {
+			return cellIndex(rowStart + local / clusterSize, colStart + local % clusterSize);
+		}
+	}
+}
@@ -0,0 +1,178 @@
+import java.util.Arrays;
+
+// This IndexedMinHeap class is a binary min-heap over integer ids in the range [0, capacity).
+// Each id carries a primary key and a secondary tie-break key, and an id can be re-keyed while
+// it is in the heap (decrease-key), which replaces the remove/re-add pattern of a PriorityQueue.
+// The heap arrays grow on demand and are kept between uses, so a cleared heap allocates nothing.
+public class IndexedMinHeap {
+	private final int[] position; // Heap slot of each id, -1 when the id is not in the heap
+	private int[] heap; // Ids stored in heap order
+	private double[] primary; // Primary key of the id stored in each heap slot
+	private double[] secondary; // Secondary (tie-break) key of the id stored in each heap slot
+	private int size;
+
+	// Constructor to create an empty heap able to hold ids from 0 to capacity - 1
+	public IndexedMinHeap(int capacity) {
+		this.position = new int[capacity];
+		Arrays.fill(position, -1);
+		int initial = Math.max(16, Math.min(capacity, 1024));
+		this.heap = new int[initial];
+		this.primary = new double[initial];
+		this.secondary = new double[initial];
+		this.size = 0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public int capacity() {
+		return position.length;
+	}
+
+	// Method to check if the given id is currently in the heap
+	public boolean contains(int id) {
+		return position[id] >= 0;
+	}
+
+	// Method to return the id with the smallest key without removing it
+	public int peek() {
+		return heap[0];
+	}
+
+	public double peekKey() {
+		return primary[0];
+	}
+
+	public double peekSecondaryKey() {
+		return secondary[0];
+	}
+
+	// Method to return the id stored in the given heap slot (0 to size - 1), for visiting every id in the heap
+	public int idAt(int slot) {
+		return heap[slot];
+	}
+
+	// Method to insert an id, or to change its keys if it is already in the heap
+	public void push(int id, double key, double tieBreak) {
+		int slot = position[id];
+		if (slot < 0) {
+			if (size == heap.length) {
+				grow();
+			}
+			slot = size++;
+			heap[slot] = id;
+			position[id] = slot;
+			primary[slot] = key;
+			secondary[slot] = tieBreak;
+			siftUp(slot);
+		} else {
+			boolean decreased = less(key, tieBreak, primary[slot], secondary[slot]);
+			primary[slot] = key;
+			secondary[slot] = tieBreak;
+			if (decreased) {
+				siftUp(slot);
+			} else {
+				siftDown(slot);
+			}
+		}
+	}
+
+	// Method to remove and return the id with the smallest key
+	public int pop() {
+		int top = heap[0];
+		removeAt(0);
+		return top;
+	}
+
+	// Method to remove the given id from the heap if present
+	public void remove(int id) {
+		int slot = position[id];
+		if (slot >= 0) {
+			removeAt(slot);
+		}
+	}
+
+	// Method to empty the heap, touching only the ids that are still in it
+	public void clear() {
+		for (int i = 0; i < size; i++) {
+			position[heap[i]] = -1;
+		}
+		size = 0;
+	}
+
+	private void removeAt(int slot) {
+		position[heap[slot]] = -1;
+		size--;
+		if (slot == size) {
+			return;
+		}
+		move(size, slot);
+		siftDown(slot);
+		siftUp(position[heap[slot]]);
+	}
+
+	private void siftUp(int slot) {
+		int id = heap[slot];
+		double key = primary[slot];
+		double tieBreak = secondary[slot];
+		while (slot > 0) {
+			int parent = (slot - 1) >>> 1;
+			if (!less(key, tieBreak, primary[parent], secondary[parent])) {
+				break;
+			}
+			move(parent, slot);
+			slot = parent;
+		}
+		place(id, key, tieBreak, slot);
+	}
+
+	private void siftDown(int slot) {
+		int id = heap[slot];
+		double key = primary[slot];
+		double tieBreak = secondary[slot];
+		int half = size >>> 1;
+		while (slot < half) {
+			int child = 2 * slot + 1;
+			int right = child + 1;
+			if (right < size && less(primary[right], secondary[right], primary[child], secondary[child])) {
+				child = right;
+			}
+			if (!less(primary[child], secondary[child], key, tieBreak)) {
+				break;
+			}
+			move(child, slot);
+			slot = child;
+		}
+		place(id, key, tieBreak, slot);
+	}
+
+	private void move(int from, int to) {
+		heap[to] = heap[from];
+		primary[to] = primary[from];
+		secondary[to] = secondary[from];
+		position[heap[to]] = to;
+	}
+
+	private void place(int id, double key, double tieBreak, int slot) {
+		heap[slot] = id;
+		primary[slot] = key;
+		secondary[slot] = tieBreak;
+		position[id] = slot;
+	}
+
+	private void grow() {
+		int newLength = (int) Math.min((long) heap.length * 2, position.length);
+		heap = Arrays.copyOf(heap, newLength);
+		primary = Arrays.copyOf(primary, newLength);
+		secondary = Arrays.copyOf(secondary, newLength);
+	}
+
+	private static boolean less(double key1, double tie1, double key2, double tie2) {
+		return key1 < key2 || (key1 == key2 && tie1 < tie2);
+	}
+}
@@ -0,0 +1,229 @@
+// This JumpPointPlanner class implements Jump Point Search for the 4-connected, uniform-cost moves used by the planners.
+// Instead of pushing every neighbor, each expansion "jumps" in a straight line until it reaches a cell where the
+// path may have to turn, so long runs across open floor cost one open-list entry instead of one per cell.
+// Paths are kept canonical by preferring vertical moves before horizontal ones:
+// - moving horizontally, the search only turns where a vertical neighbor opens up behind a wall (a forced neighbor),
+// - moving vertically, the search may turn either way, so every vertical step scans both horizontal directions.
+// Returned paths are filled back in cell by cell and have the same length as those of GridPathPlanner.
+// Jumping relies on every move costing the same and on the grid's own obstacles, so on grids with a terrain cost
+// layer or for robots larger than one cell the planner runs plain A*.
+public class JumpPointPlanner extends GridPathPlanner {
+	private static final int UP = 1;
+	private static final int DOWN = 2;
+	private static final int LEFT = 4;
+	private static final int RIGHT = 8;
+	private static final int ALL = UP | DOWN | LEFT | RIGHT;
+
+	private final byte[] arrival; // Directions in which a jump point was reached at its best cost
+	private boolean weighted; // Whether the current query runs as plain A*, for cell costs or a larger footprint
+
+	// Constructor to allocate the working buffers for the given grid
+	public JumpPointPlanner(Grid grid) {
+		super(grid);
+		this.arrival = new byte[g.length];
+	}
+
+	// Method to run Jump Point Search, or plain A* when the grid has cell costs or the footprint is larger
+	@Override
+	protected int[] search(int start, int goal) {
+		weighted = grid.hasCellCosts() || getFootprintRadius() > 0;
+		return super.search(start, goal);
+	}
+
+	// Method to jump from the current cell in every direction its arrival allows
+	@Override
+	protected void expand(int current, int goal) {
+		if (weighted) {
+			super.expand(current, goal);
+			return;
+		}
+		int row = rowOf(current);
+		int col = colOf(current);
+		int arrived = parent[current] == -1 ? ALL : arrival[current];
+
+		int directions = 0;
+		if ((arrived & (UP | DOWN)) != 0) {
+			directions |= (arrived & (UP | DOWN)) | LEFT | RIGHT; // Turning off a vertical run is always allowed
+		}
+		if ((arrived & RIGHT) != 0) {
+			directions |= RIGHT | forcedVertical(row, col, col - 1);
+		}
+		if ((arrived & LEFT) != 0) {
+			directions |= LEFT | forcedVertical(row, col, col + 1);
+		}
+
+		if ((directions & UP) != 0)
+			addJumpPoint(current, jumpVertical(row, col, -1, goal), UP, goal);
+		if ((directions & DOWN) != 0)
+			addJumpPoint(current, jumpVertical(row, col, 1, goal), DOWN, goal);
+		if ((directions & LEFT) != 0)
+			addJumpPoint(current, jumpHorizontal(row, col, -1, goal), LEFT, goal);
+		if ((directions & RIGHT) != 0)
+			addJumpPoint(current, jumpHorizontal(row, col, 1, goal), RIGHT, goal);
+	}
+
+	// Method to push a jump point, remembering the direction it was reached in.
+	// A jump point reached again at the same cost from a new direction is reopened so that
+	// the successors of that direction are expanded as well.
+	private void addJumpPoint(int current, int jumpPoint, int direction, int goal) {
+		if (jumpPoint == -1) {
+			return;
+		}
+		double tentativeG = g[current] + Math.abs(rowOf(jumpPoint) - rowOf(current))
+				+ Math.abs(colOf(jumpPoint) - colOf(current));
+		int state = mark[jumpPoint];
+
+		if (state == openStamp || state == openStamp + 1) {
+			if (tentativeG > g[jumpPoint] || (tentativeG == g[jumpPoint] && (arrival[jumpPoint] & direction) != 0)) {
+				return;
+			}
+			if (tentativeG == g[jumpPoint]) {
+				arrival[jumpPoint] |= direction;
+				if (state == openStamp + 1) {
+					mark[jumpPoint] = openStamp;
+					openList.push(jumpPoint, tentativeG + calculateHeuristic(jumpPoint, goal),
+							calculateHeuristic(jumpPoint, goal));
+					countPush(true);
+				}
+				return;
+			}
+		}
+
+		open(jumpPoint, tentativeG, current, goal);
+		arrival[jumpPoint] = (byte) direction;
+	}
+
+	// Method to return the vertical directions forced open at (row, col) when arriving horizontally from prevCol
+	private int forcedVertical(int row, int col, int prevCol) {
+		int forced = 0;
+		if (isFree(row - 1, col) && !isFree(row - 1, prevCol)) {
+			forced |= UP;
+		}
+		if (isFree(row + 1, col) && !isFree(row + 1, prevCol)) {
+			forced |= DOWN;
+		}
+		return forced;
+	}
+
+	// Method to move horizontally until reaching the goal, a cell with a forced neighbor, or a wall (-1).
+	// The row and the rows above and below are scanned 64 cells at a time.
+	private int jumpHorizontal(int row, int col, int dx, int goal) {
+		int stop = dx > 0 ? nextStopRight(row, col + 1) : nextStopLeft(row, col - 1);
+		if (rowOf(goal) == row) {
+			int goalCol = colOf(goal);
+			if (dx > 0 ? goalCol > col && goalCol <= stop : goalCol < col && goalCol >= stop) {
+				return goal; // The goal comes before any wall on the way
+			}
+		}
+		if (stop < 0 || stop >= numCols || grid.isObstacle(row, stop)) {
+			return -1;
+		}
+		return cellIndex(row, stop);
+	}
+
+	// Method to find the first column at or after fromCol that is blocked or has a forced neighbor
+	// when moving right, or numCols if there is none
+	private int nextStopRight(int row, int fromCol) {
+		if (fromCol >= numCols) {
+			return numCols;
+		}
+		int wordsPerRow = grid.getWordsPerRow();
+		for (int w = fromCol >>> 6; w < wordsPerRow; w++) {
+			long above = rowWord(row - 1, w);
+			long below = rowWord(row + 1, w);
+			// Bit c of the shifted word holds the cell at column c - 1
+			long aboveBehind = (above << 1) | (w > 0 ? rowWord(row - 1, w - 1) >>> 63 : 1);
+			long belowBehind = (below << 1) | (w > 0 ? rowWord(row + 1, w - 1) >>> 63 : 1);
+			long stops = rowWord(row, w) | (~above & aboveBehind) | (~below & belowBehind) | pastEndMask(w);
+			if (w == fromCol >>> 6) {
+				stops &= -1L << fromCol;
+			}
+			if (stops != 0) {
+				return Math.min(numCols, (w << 6) + Long.numberOfTrailingZeros(stops));
+			}
+		}
+		return numCols;
+	}
+
+	// Method to find the last column at or before fromCol that is blocked or has a forced neighbor
+	// when moving left, or -1 if there is none
+	private int nextStopLeft(int row, int fromCol) {
+		if (fromCol < 0) {
+			return -1;
+		}
+		int wordsPerRow = grid.getWordsPerRow();
+		for (int w = fromCol >>> 6; w >= 0; w--) {
+			long above = rowWord(row - 1, w);
+			long below = rowWord(row + 1, w);
+			// Bit c of the shifted word holds the cell at column c + 1
+			long aboveBehind = (above >>> 1) | (w + 1 < wordsPerRow ? rowWord(row - 1, w + 1) << 63 : 0);
+			long belowBehind = (below >>> 1) | (w + 1 < wordsPerRow ? rowWord(row + 1, w + 1) << 63 : 0);
+			long stops = (rowWord(row, w) | (~above & aboveBehind) | (~below & belowBehind)) & ~pastEndMask(w);
+			if (w == fromCol >>> 6) {
+				int keep = (fromCol & 63) + 1;
+				stops &= keep == 64 ? -1L : (1L << keep) - 1;
+			}
+			if (stops != 0) {
+				return (w << 6) + 63 - Long.numberOfLeadingZeros(stops);
+			}
+		}
+		return -1;
+	}
+
+	// Helper method to read a row word, treating rows outside the grid as fully blocked
+	private long rowWord(int row, int wordIndex) {
+		return row < 0 || row >= numRows ? -1L : grid.getObstacleWord(row, wordIndex);
+	}
+
+	// Helper method to return the bits of a row word that lie past the last column
+	private long pastEndMask(int wordIndex) {
+		int remaining = numCols - (wordIndex << 6);
+		return remaining >= 64 ? 0 : -1L << remaining;
+	}
+
+	// Method to move vertically until reaching the goal, a cell from which a horizontal jump finds
+	// a jump point, or a wall (-1)
+	private int jumpVertical(int row, int col, int dy, int goal) {
+		while (true) {
+			row += dy;
+			if (!isFree(row, col)) {
+				return -1;
+			}
+			int cell = cellIndex(row, col);
+			if (cell == goal) {
+				return cell;
+			}
+			if (jumpHorizontal(row, col, -1, goal) != -1 || jumpHorizontal(row, col, 1, goal) != -1) {
+				return cell;
+			}
+		}
+	}
+
+	// Helper method to check a position is inside the grid and not an obstacle
+	private boolean isFree(int row, int col) {
+		return row >= 0 && row < numRows && col >= 0 && col < numCols && !grid.isObstacle(row, col);
+	}
+
+	// Method to reconstruct the full cell path by filling in the straight runs between jump points
+	@Override
+	protected int[] reconstructPath(int goal) {
+		if (weighted) {
+			return super.reconstructPath(goal);
+		}
+		int length = (int) g[goal] + 1;
+		int[] path = new int[length];
+		int index = length - 1;
+		path[index] = goal;
+
+		for (int cell = goal; parent[cell] != -1; cell = parent[cell]) {
+			int from = parent[cell];
+			int step = rowOf(from) == rowOf(cell) ? (colOf(from) < colOf(cell) ? -1 : 1)
+					: (rowOf(from) < rowOf(cell) ? -numCols : numCols);
+			for (int walk = cell + step; walk != from; walk += step) {
+				path[--index] = walk;
+			}
+			path[--index] = from;
+		}
+		return path;
+	}
+}
@@ -0,0 +1,87 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// This LatencyHistogram class records durations in nanoseconds into log-linear buckets:
+// every power of two is split into 8 equal buckets, so a percentile is reported within 12.5% of the true value
+// from a fixed array of 488 counters, whatever the number or range of the recorded values.
+// Recording is lock-free and may be done from several threads at once.
+public class LatencyHistogram {
+	private static final int SUB_BUCKET_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder total = new LongAdder();
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+	// Method to record one duration
+	public void record(long nanos) {
+		long value = Math.max(0, nanos);
+		counts.incrementAndGet(bucketOf(value));
+		count.increment();
+		total.add(value);
+		max.accumulate(value);
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	public long getMax() {
+		return max.get();
+	}
+
+	public double getMean() {
+		long n = count.sum();
+		return n == 0 ? 0 : (double) total.sum() / n;
+	}
+
+	// Method to return the value below which the given fraction (0.0 - 1.0) of the recorded values fall.
+	// The upper end of the matching bucket is returned, capped at the largest recorded value.
+	public long getPercentile(double fraction) {
+		long n = count.sum();
+		if (n == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(fraction * n));
+		long seen = 0;
+		for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+			seen += counts.get(bucket);
+			if (seen >= rank) {
+				return Math.min(getMax(), upperBoundOf(bucket));
+			}
+		}
+		return getMax();
+	}
+
+	// Method to forget all recorded values
+	public void reset() {
+		for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+			counts.set(bucket, 0);
+		}
+		count.reset();
+		total.reset();
+		max.reset();
+	}
+
+	// Helper method to map a value to its bucket: values below 2 * SUB_BUCKETS get a bucket each, larger values
+	// share a bucket with the values that agree in their top SUB_BUCKET_BITS + 1 bits
+	private static int bucketOf(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		return shift * SUB_BUCKETS + (int) (value >>> shift);
+	}
+
+	private static long upperBoundOf(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int shift = bucket / SUB_BUCKETS - 1;
+		long lowerBound = (long) ((bucket % SUB_BUCKETS) | SUB_BUCKETS) << shift;
+		return lowerBound + (1L << shift) - 1;
+	}
+}
@@ -0,0 +1,111 @@
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+// This MappedGridStorage class keeps the packed occupancy bitset in a memory-mapped file instead of the Java heap.
+// The layout matches BitGridStorage (row-aligned little-endian 64-bit words), so maps larger than the heap can be
+// planned over and the operating system pages them in on demand. A single mapping is limited to 2 GB, so rows are
+// split over several mappings, each holding a whole number of rows.
+// A copy-on-write mapping of a file the user cannot write is mapped read-only instead, and a mapping is copied onto
+// the heap the first time one of its rows is written.
+public class MappedGridStorage implements GridStorage {
+	private static final long MAX_CHUNK_BYTES = 1L << 30;
+
+	private final int numRows;
+	private final int numCols;
+	private final int wordsPerRow;
+	private final int rowsPerChunk;
+	private final ByteBuffer[] chunks; // Mapped, or heap copies of read-only mappings that were written
+	private final boolean copyOnWrite;
+
+	// Constructor to map the bitset stored in the given file starting at the given byte offset.
+	// READ_WRITE creates or extends the file as needed and writes changes back to it; PRIVATE maps an
+	// existing file copy-on-write, so obstacles can still be set without modifying the file, and only needs
+	// read access to it.
+	public MappedGridStorage(String filePath, long offset, int numRows, int numCols, FileChannel.MapMode mode)
+			throws IOException {
+		this.numRows = numRows;
+		this.numCols = numCols;
+		this.wordsPerRow = (numCols + 63) >>> 6;
+		long bytesPerRow = (long) wordsPerRow * Long.BYTES;
+		this.rowsPerChunk = (int) Math.max(1, Math.min(numRows, MAX_CHUNK_BYTES / bytesPerRow));
+		int numChunks = (numRows + rowsPerChunk - 1) / rowsPerChunk;
+		this.chunks = new ByteBuffer[numChunks];
+
+		// PRIVATE mappings need a writable channel, so a read-only file is mapped READ_ONLY and copied on write
+		this.copyOnWrite = mode == FileChannel.MapMode.PRIVATE && !Files.isWritable(Paths.get(filePath));
+		FileChannel.MapMode mapMode = copyOnWrite ? FileChannel.MapMode.READ_ONLY : mode;
+		String access = mapMode == FileChannel.MapMode.READ_ONLY ? "r" : "rw";
+		try (RandomAccessFile file = new RandomAccessFile(filePath, access);
+				FileChannel channel = file.getChannel()) {
+			for (int i = 0; i < numChunks; i++) {
+				int chunkRows = Math.min(rowsPerChunk, numRows - i * rowsPerChunk);
+				long position = offset + (long) i * rowsPerChunk * bytesPerRow;
+				chunks[i] = channel.map(mapMode, position, chunkRows * bytesPerRow);
+				chunks[i].order(ByteOrder.LITTLE_ENDIAN);
+			}
+		}
+	}
+
+	@Override
+	public int getNumRows() {
+		return numRows;
+	}
+
+	@Override
+	public int getNumCols() {
+		return numCols;
+	}
+
+	@Override
+	public int getWordsPerRow() {
+		return wordsPerRow;
+	}
+
+	@Override
+	public boolean get(int row, int col) {
+		return (getWord(row, col >>> 6) & (1L << col)) != 0;
+	}
+
+	@Override
+	public void set(int row, int col, boolean obstacle) {
+		long bits = getWord(row, col >>> 6);
+		setWord(row, col >>> 6, obstacle ? bits | (1L << col) : bits & ~(1L << col));
+	}
+
+	@Override
+	public long getWord(int row, int wordIndex) {
+		return chunks[row / rowsPerChunk].getLong(byteOffset(row, wordIndex));
+	}
+
+	@Override
+	public void setWord(int row, int wordIndex, long bits) {
+		int remaining = numCols - (wordIndex << 6);
+		long mask = remaining >= 64 ? -1L : (1L << remaining) - 1;
+		int chunk = row / rowsPerChunk;
+		if (copyOnWrite && chunks[chunk].isReadOnly()) {
+			ByteBuffer copy = ByteBuffer.allocate(chunks[chunk].capacity()).order(ByteOrder.LITTLE_ENDIAN);
+			copy.put(chunks[chunk].duplicate().clear());
+			chunks[chunk] = copy;
+		}
+		chunks[chunk].putLong(byteOffset(row, wordIndex), bits & mask);
+	}
+
+	// Method to write any modified pages back to the file
+	public void flush() {
+		for (ByteBuffer chunk : chunks) {
+			if (chunk instanceof MappedByteBuffer) {
+				((MappedByteBuffer) chunk).force();
+			}
+		}
+	}
+
+	private int byteOffset(int row, int wordIndex) {
+		return ((row % rowsPerChunk) * wordsPerRow + wordIndex) << 3;
+	}
+}
@@ -0,0 +1,245 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// This OrientedPathPlanner class plans over the full robot pose (row, column, orientation) rather than cells alone,
+// for robots that must turn in place before driving in a new direction. Each step either drives one cell forward
+// (moveCost) or turns 90 degrees left or right (turnCost), so the cheapest plan is the one that takes the least time
+// to execute, trading extra cells for fewer turns where that pays off.
+// A pose is encoded as the int (cell << 2) | orientation, and each pose costs about 13 bytes of working memory:
+// a float cost, an int search stamp, an int heap slot and a single byte recording the action that reached it,
+// from which the previous pose is recomputed instead of storing a parent index.
+// The heuristic adds the Manhattan distance times moveCost to the fewest turns any path still needs, which is
+// admissible, so plans are optimal. A planner instance reuses its buffers and must not be shared between threads.
+public class OrientedPathPlanner {
+	private static final int UP = Direction.UP.ordinal();
+	private static final int DOWN = Direction.DOWN.ordinal();
+	private static final int LEFT = Direction.LEFT.ordinal();
+	private static final int RIGHT = Direction.RIGHT.ordinal();
+	private static final int[] TURN_RIGHT = new int[4]; // Orientation after a clockwise turn
+	private static final int[] TURN_LEFT = new int[4]; // Orientation after a counterclockwise turn
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	// Action that reached a pose
+	private static final byte START = 0;
+	private static final byte MOVED = 1;
+	private static final byte TURNED_RIGHT = 2;
+	private static final byte TURNED_LEFT = 3;
+
+	static {
+		TURN_RIGHT[UP] = RIGHT;
+		TURN_RIGHT[RIGHT] = DOWN;
+		TURN_RIGHT[DOWN] = LEFT;
+		TURN_RIGHT[LEFT] = UP;
+		for (int d = 0; d < 4; d++) {
+			TURN_LEFT[TURN_RIGHT[d]] = d;
+		}
+	}
+
+	private final Grid grid;
+	private final int numRows;
+	private final int numCols;
+	private final float moveCost;
+	private final float turnCost;
+
+	private final float[] g; // Cost from the start pose, valid only for poses stamped by the current search
+	private final int[] mark; // openStamp when reached, openStamp + 1 when closed
+	private final byte[] action; // How each pose was reached on its best known path
+	private final IndexedMinHeap openList;
+	private int openStamp;
+
+	private int expandedCount;
+	private float lastCost;
+	private SearchMetrics metrics;
+
+	// Constructor to plan with unit move and turn costs
+	public OrientedPathPlanner(Grid grid) {
+		this(grid, 1, 1);
+	}
+
+	// Constructor to plan with the given time to drive one cell and to turn 90 degrees in place
+	public OrientedPathPlanner(Grid grid, float moveCost, float turnCost) {
+		if (!(moveCost > 0) || !(turnCost >= 0)) {
+			throw new IllegalArgumentException("Move cost must be positive and turn cost non-negative");
+		}
+		long poses = 4L * GridPathPlanner.cellCount(grid);
+		if (poses > Integer.MAX_VALUE - 8) {
+			throw new IllegalArgumentException("Grid too large for pose indexing: " + poses + " poses");
+		}
+		this.grid = grid;
+		this.numRows = grid.getNumRows();
+		this.numCols = grid.getNumCols();
+		this.moveCost = moveCost;
+		this.turnCost = turnCost;
+		this.g = new float[(int) poses];
+		this.mark = new int[(int) poses];
+		this.action = new byte[(int) poses];
+		this.openList = new IndexedMinHeap((int) poses);
+	}
+
+	// Method to attach metrics that every following query is recorded into (null to disable)
+	public void setMetrics(SearchMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	// Method to find the fastest sequence of poses from the start pose to the goal.
+	// The goal's orientation must be reached as well unless it is null. Returns null if no plan exists.
+	public List<RobotState> findPath(RobotState startState, RobotState goalState) {
+		if (!grid.isValidPosition(startState.getRow(), startState.getColumn())
+				|| !grid.isValidPosition(goalState.getRow(), goalState.getColumn())) {
+			return null;
+		}
+		long startTime = metrics == null ? 0 : System.nanoTime();
+		int start = (startState.getRow() * numCols + startState.getColumn()) << 2
+				| startState.getOrientation().ordinal();
+		int goalCell = goalState.getRow() * numCols + goalState.getColumn();
+		int goalDir = goalState.getOrientation() == null ? -1 : goalState.getOrientation().ordinal();
+
+		int goal = search(start, goalCell, goalDir);
+		List<RobotState> path = goal == -1 ? null : reconstructPath(goal);
+		if (metrics != null) {
+			metrics.record(System.nanoTime() - startTime, expandedCount, 0, 0, 0, path != null);
+		}
+		return path;
+	}
+
+	// Implements A* over poses, returning the goal pose reached or -1 if none is reachable
+	private int search(int start, int goalCell, int goalDir) {
+		expandedCount = 0;
+		lastCost = Float.POSITIVE_INFINITY;
+		if (grid.isObstacle((start >>> 2) / numCols, (start >>> 2) % numCols)
+				|| grid.isObstacle(goalCell / numCols, goalCell % numCols)) {
+			return -1; // No path found
+		}
+
+		beginSearch();
+		open(start, 0, START, goalCell, goalDir);
+
+		while (!openList.isEmpty()) {
+			int current = openList.pop();
+			expandedCount++;
+			int cell = current >>> 2;
+			int dir = current & 3;
+			if (cell == goalCell && (goalDir < 0 || dir == goalDir)) {
+				lastCost = g[current];
+				return current;
+			}
+			mark[current] = openStamp + 1;
+
+			// Drive one cell forward
+			int row = cell / numCols;
+			int col = cell % numCols;
+			int nextRow = row + (dir == UP ? -1 : dir == DOWN ? 1 : 0);
+			int nextCol = col + (dir == LEFT ? -1 : dir == RIGHT ? 1 : 0);
+			if (nextRow >= 0 && nextRow < numRows && nextCol >= 0 && nextCol < numCols
+					&& !grid.isObstacle(nextRow, nextCol)) {
+				relax((nextRow * numCols + nextCol) << 2 | dir, g[current] + moveCost, MOVED, goalCell, goalDir);
+			}
+
+			// Turn in place
+			relax(cell << 2 | TURN_RIGHT[dir], g[current] + turnCost, TURNED_RIGHT, goalCell, goalDir);
+			relax(cell << 2 | TURN_LEFT[dir], g[current] + turnCost, TURNED_LEFT, goalCell, goalDir);
+		}
+		return -1; // No path found
+	}
+
+	// Method to update a pose if reaching it with the given action is cheaper
+	private void relax(int pose, float tentativeG, byte reachedBy, int goalCell, int goalDir) {
+		int state = mark[pose];
+		if ((state == openStamp || state == openStamp + 1) && tentativeG >= g[pose]) {
+			return;
+		}
+		open(pose, tentativeG, reachedBy, goalCell, goalDir);
+	}
+
+	private void open(int pose, float cost, byte reachedBy, int goalCell, int goalDir) {
+		float h = calculateHeuristic(pose, goalCell, goalDir);
+		g[pose] = cost;
+		action[pose] = reachedBy;
+		mark[pose] = openStamp;
+		openList.push(pose, cost + h, h);
+	}
+
+	// Method to compute a lower bound on the remaining time: every remaining cell must be driven, and the robot
+	// must turn at least as often as needed to face each direction it still has to travel in, and finally
+	// the goal orientation
+	private float calculateHeuristic(int pose, int goalCell, int goalDir) {
+		int cell = pose >>> 2;
+		int dir = pose & 3;
+		int rowDelta = goalCell / numCols - cell / numCols;
+		int colDelta = goalCell % numCols - cell % numCols;
+		int vertical = rowDelta < 0 ? UP : rowDelta > 0 ? DOWN : -1;
+		int horizontal = colDelta < 0 ? LEFT : colDelta > 0 ? RIGHT : -1;
+
+		int turns;
+		if (vertical < 0 && horizontal < 0) {
+			turns = goalDir < 0 ? 0 : turnsBetween(dir, goalDir);
+		} else if (vertical < 0 || horizontal < 0) {
+			turns = turnsBetween(dir, vertical < 0 ? horizontal : vertical);
+		} else {
+			turns = dir == vertical || dir == horizontal ? 1 : 2;
+		}
+		return (Math.abs(rowDelta) + Math.abs(colDelta)) * moveCost + turns * turnCost;
+	}
+
+	// Helper method to return the number of 90 degree turns between two orientations
+	private static int turnsBetween(int from, int to) {
+		if (from == to) {
+			return 0;
+		}
+		return TURN_RIGHT[from] == to || TURN_LEFT[from] == to ? 1 : 2;
+	}
+
+	// Method to start a new search by advancing the stamp instead of clearing the buffers
+	private void beginSearch() {
+		openList.clear();
+		if (openStamp >= Integer.MAX_VALUE - 2) {
+			Arrays.fill(mark, 0);
+			openStamp = 0;
+		}
+		openStamp += 2;
+	}
+
+	// Method to walk back from the goal pose by undoing the recorded actions
+	private List<RobotState> reconstructPath(int goal) {
+		List<RobotState> path = new ArrayList<>();
+		int pose = goal;
+		while (true) {
+			int cell = pose >>> 2;
+			int dir = pose & 3;
+			path.add(new RobotState(cell / numCols, cell % numCols, DIRECTIONS[dir]));
+			byte reachedBy = action[pose];
+			if (reachedBy == START) {
+				break;
+			} else if (reachedBy == MOVED) {
+				int previousCell = cell - (dir == UP ? -numCols : dir == DOWN ? numCols : dir == LEFT ? -1 : 1);
+				pose = previousCell << 2 | dir;
+			} else if (reachedBy == TURNED_RIGHT) {
+				pose = cell << 2 | TURN_LEFT[dir];
+			} else {
+				pose = cell << 2 | TURN_RIGHT[dir];
+			}
+		}
+		Collections.reverse(path);
+		return path;
+	}
+
+	// Getters for the statistics of the last query
+	public int getExpandedCount() {
+		return expandedCount;
+	}
+
+	// Method to return the execution time of the last plan (moves times moveCost plus turns times turnCost)
+	public float getLastCost() {
+		return lastCost;
+	}
+
+	public float getMoveCost() {
+		return moveCost;
+	}
+
+	public float getTurnCost() {
+		return turnCost;
+	}
+}
@@ -0,0 +1,222 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// This PathCache class sits in front of a GridPathPlanner and remembers the results of recent queries,
+// keyed by (start, goal) and tagged with the grid version they were computed for.
+// Memory is bounded by the total number of path cells held (plus one per entry, so cached misses count too); the least recently used entries are evicted first.
+// When a cell becomes an obstacle or costs more to enter, only the cached paths that cross it are dropped, since
+// every other path stays valid and optimal; any other change (a cell freed, a cost lowered, or a bulk change)
+// invalidates the whole cache. In front of a planner with a footprint, a new obstacle also drops the paths passing
+// within the footprint radius of it, and paths planned for another radius are not reused.
+// Returned paths are shared with the cache and must not be modified. The cache is not thread-safe.
+public class PathCache implements GridListener {
+	private static final int[] NO_PATH = new int[0]; // Cached marker for queries without a path
+
+	private final GridPathPlanner planner;
+	private final Grid grid;
+	private final long maxCachedCells;
+	private final LinkedHashMap<Long, Entry> entries; // Access-ordered, eldest entry is least recently used
+	private long cachedCells;
+
+	// Counters
+	private long hits;
+	private long misses;
+	private long evictions;
+	private long invalidations;
+
+	// Cached result of one query
+	private static class Entry {
+		final int[] path;
+		long version;
+		final int radius; // Footprint radius of the planner that found the path
+		final int minRow, maxRow, minCol, maxCol; // Bounding box of the path, to skip most containment checks
+
+		Entry(int[] path, long version, int radius, int numCols) {
+			this.path = path;
+			this.version = version;
+			this.radius = radius;
+			int rowLow = Integer.MAX_VALUE, rowHigh = -1, colLow = Integer.MAX_VALUE, colHigh = -1;
+			for (int cell : path) {
+				int row = cell / numCols;
+				int col = cell % numCols;
+				rowLow = Math.min(rowLow, row);
+				rowHigh = Math.max(rowHigh, row);
+				colLow = Math.min(colLow, col);
+				colHigh = Math.max(colHigh, col);
+			}
+			this.minRow = rowLow;
+			this.maxRow = rowHigh;
+			this.minCol = colLow;
+			this.maxCol = colHigh;
+		}
+
+		long weight() {
+			return path.length + 1;
+		}
+
+		// Method to check whether the path enters a cell within the given Chebyshev distance of (row, col), that is
+		// whether a robot of that footprint radius following it would cover the cell
+		boolean passesWithin(int row, int col, int distance, int numCols) {
+			if (row < minRow - distance || row > maxRow + distance || col < minCol - distance
+					|| col > maxCol + distance) {
+				return false;
+			}
+			for (int pathCell : path) {
+				if (Math.abs(pathCell / numCols - row) <= distance && Math.abs(pathCell % numCols - col) <= distance) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	// Constructor to cache the results of the given planner, holding at most maxCachedCells path cells
+	public PathCache(GridPathPlanner planner, long maxCachedCells) {
+		this.planner = planner;
+		this.grid = planner.getGrid();
+		this.maxCachedCells = maxCachedCells;
+		this.entries = new LinkedHashMap<>(16, 0.75f, true);
+		grid.addListener(this);
+	}
+
+	// Method to find a path between two robot states through the cache
+	public int[] findPath(RobotState startState, RobotState goalState) {
+		if (!grid.isValidPosition(startState.getRow(), startState.getColumn())
+				|| !grid.isValidPosition(goalState.getRow(), goalState.getColumn())) {
+			return null;
+		}
+		return findPath(planner.cellIndex(startState.getRow(), startState.getColumn()),
+				planner.cellIndex(goalState.getRow(), goalState.getColumn()));
+	}
+
+	// Method to return the cached path for a query, planning and caching it on a miss
+	public int[] findPath(int start, int goal) {
+		long key = ((long) start << 32) | goal;
+		Entry entry = entries.get(key);
+		if (entry != null) {
+			if (entry.version == grid.getVersion() && entry.radius == planner.getFootprintRadius()) {
+				hits++;
+				return entry.path == NO_PATH ? null : entry.path;
+			}
+			remove(key, entry); // Computed for an older grid or another footprint
+			invalidations++;
+		}
+
+		misses++;
+		int[] path = planner.findPath(start, goal);
+		int[] stored = path == null ? NO_PATH : path;
+		if (stored.length < maxCachedCells) {
+			Entry added = new Entry(stored, grid.getVersion(), planner.getFootprintRadius(), grid.getNumCols());
+			entries.put(key, added);
+			cachedCells += added.weight();
+			evict();
+		}
+		return path;
+	}
+
+	// Method to drop only the paths that a robot following them would no longer fit along after a new obstacle,
+	// or everything when a cell was freed
+	@Override
+	public void cellChanged(int row, int col, boolean obstacle) {
+		if (obstacle) {
+			dropPassing(row, col, true);
+		} else {
+			gridReset();
+		}
+	}
+
+	// Method to drop only the paths that cross a cell that became more expensive, or everything when a cost was
+	// lowered, since a cheaper cell can shorten paths that do not cross it
+	@Override
+	public void cellCostChanged(int row, int col, boolean raised) {
+		if (raised) {
+			dropPassing(row, col, false);
+		} else {
+			gridReset();
+		}
+	}
+
+	@Override
+	public void cellCostsCleared() {
+		gridReset();
+	}
+
+	@Override
+	public void gridReset() {
+		invalidations += entries.size();
+		clear();
+	}
+
+	// Helper method to drop the paths affected by a changed cell and carry the others over to the new grid version.
+	// A path is affected when it enters the cell or, for a new obstacle, when the cell lies within the footprint
+	// of a robot following it (costs are only paid for the cells entered). Only entries that were current just
+	// before this change are carried over, so an entry missed by an earlier change never becomes valid again.
+	private void dropPassing(int row, int col, boolean obstacle) {
+		int numCols = grid.getNumCols();
+		long version = grid.getVersion();
+		Iterator<Entry> iterator = entries.values().iterator();
+		while (iterator.hasNext()) {
+			Entry entry = iterator.next();
+			if (entry.version != version - 1 || entry.passesWithin(row, col, obstacle ? entry.radius : 0, numCols)) {
+				iterator.remove();
+				cachedCells -= entry.weight();
+				invalidations++;
+			} else {
+				entry.version = version;
+			}
+		}
+	}
+
+	// Method to remove every cached path
+	public void clear() {
+		entries.clear();
+		cachedCells = 0;
+	}
+
+	// Method to stop following changes of the grid
+	public void detach() {
+		grid.removeListener(this);
+	}
+
+	private void remove(long key, Entry entry) {
+		entries.remove(key);
+		cachedCells -= entry.weight();
+	}
+
+	// Method to evict least recently used entries until the cache fits its budget again
+	private void evict() {
+		Iterator<Map.Entry<Long, Entry>> iterator = entries.entrySet().iterator();
+		while (cachedCells > maxCachedCells && iterator.hasNext()) {
+			Entry eldest = iterator.next().getValue();
+			iterator.remove();
+			cachedCells -= eldest.weight();
+			evictions++;
+		}
+	}
+
+	// Getters for the counters
+	public long getHits() {
+		return hits;
+	}
+
+	public long getMisses() {
+		return misses;
+	}
+
+	public long getEvictions() {
+		return evictions;
+	}
+
+	public long getInvalidations() {
+		return invalidations;
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	public long getCachedCells() {
+		return cachedCells;
+	}
+}
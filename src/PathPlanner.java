@@ -29,20 +29,35 @@ public class PathPlanner {
 
 	// Implements the A* algorithm for pathfinding, taking into account obstacles
 	public static List<Node> findPath(Grid grid, Node start, Node goal) {
+		return findPath(grid, start, goal, null);
+	}
+
+	// Implements the A* algorithm as above, recording the query's statistics into metrics unless it is null
+	public static List<Node> findPath(Grid grid, Node start, Node goal, SearchMetrics metrics) {
+		long startTime = metrics == null ? 0 : System.nanoTime();
+		int expanded = 0;
+		int pushed = 1;
+		int heapHighWater = 1;
 		PriorityQueue<Node> openList = new PriorityQueue<>((a, b) -> Double.compare(a.g + a.h, b.g + b.h));
 		Set<Node> closedList = new HashSet<>();
 
 		start.g = 0;
-		start.h = calculateHeuristic(start, goal);
+		int minCost = grid.getMinCellCost(); // Scales the heuristic so it stays admissible with cell costs
+		start.h = calculateHeuristic(start, goal, minCost);
 		// Initializing the priority queue
 		openList.add(start);
 
 		while (!openList.isEmpty()) {
 			// Exploring nodes in order of increasing total cost
 			Node current = openList.poll();
+			expanded++;
 
 			if (current == goal) {
-				return reconstructPath(current);
+				List<Node> path = reconstructPath(current);
+				if (metrics != null) {
+					metrics.record(System.nanoTime() - startTime, expanded, pushed, heapHighWater, 0, true);
+				}
+				return path;
 			}
 
 			closedList.add(current);
@@ -50,27 +65,35 @@ public class PathPlanner {
 			for (Node neighbor : current.neighbors) {
 				if (!closedList.contains(neighbor) && !neighbor.obstacle) { // Check if neighbor is not in closed list
 																			// and not an obstacle
-					double tentativeG = current.g + 1; // Assuming uniform cost for moving between adjacent cells
+					double tentativeG = current.g + grid.getCellCost(neighbor.row, neighbor.col); // Cost of entering
 
 					if (tentativeG < neighbor.g) {
+						// A queued node is taken out before its cost drops and put back after, so the queue
+						// orders it by the new cost
+						boolean queued = openList.remove(neighbor);
 						neighbor.parent = current;
 						neighbor.g = tentativeG;
-						neighbor.h = calculateHeuristic(neighbor, goal);
+						neighbor.h = calculateHeuristic(neighbor, goal, minCost);
 
-						if (!openList.contains(neighbor)) {
-							openList.add(neighbor);
+						openList.add(neighbor);
+						if (!queued) {
+							pushed++;
+							heapHighWater = Math.max(heapHighWater, openList.size());
 						}
 					}
 				}
 			}
 		}
 
+		if (metrics != null) {
+			metrics.record(System.nanoTime() - startTime, expanded, pushed, heapHighWater, 0, false);
+		}
 		return null; // No path found
 	}
 
-	// Method to compute the heuristic (Manhattan distance) between two nodes
-	private static double calculateHeuristic(Node node, Node goal) {
-		return Math.abs(node.row - goal.row) + Math.abs(node.col - goal.col);
+	// Method to compute the heuristic (Manhattan distance times the smallest cell cost) between two nodes
+	private static double calculateHeuristic(Node node, Node goal, int minCost) {
+		return minCost * (Math.abs(node.row - goal.row) + Math.abs(node.col - goal.col));
 	}
 
 	// Method to reconstruct the path from the goal node back to the start node.
@@ -0,0 +1,317 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// This PathPlanningBenchmark class measures the planner, graph construction, grid I/O and visualization separately,
+// following the JMH approach: warmup iterations are discarded, each measurement iteration runs the operation
+// repeatedly for a fixed time, per-operation setup (such as building a fresh node graph) is kept out of the timing,
+// and every result is consumed so the JIT cannot remove the work. Besides time per operation it reports the bytes
+// allocated per operation, read from the JVM's per-thread allocation counter.
+// Benchmarks are parameterized by grid size, obstacle density and start/goal distance (as a fraction of the grid
+// diagonal). The node-graph benchmarks need about 100 bytes per cell, so they are skipped above --max-node-cells.
+// Grids are generated from a fixed seed (--seed), so every run measures the same maps.
+// Results can be written as CSV and compared with a baseline CSV, failing with exit code 1 on a regression, so the
+// suite can run as a CI step:
+//   java PathPlanningBenchmark --sizes 64,1024,10000 --densities 0.1,0.3 --distances 0.25,1 --csv results.csv
+//   java PathPlanningBenchmark --baseline results.csv --tolerance 0.25
+public class PathPlanningBenchmark {
+	private static volatile long sink; // Consumes benchmark results
+
+	private int warmupIterations = 3;
+	private int measurementIterations = 5;
+	private long iterationNanos = 200_000_000L;
+	private long maxNodeCells = 1L << 22;
+	private int[] sizes = { 64, 256, 1024 };
+	private double[] densities = { 0.1, 0.3 };
+	private double[] distances = { 0.25, 1.0 };
+	private long seed = 42; // Maps are generated from this seed, so runs and baselines measure the same grids
+
+	private final com.sun.management.ThreadMXBean threads;
+	private final List<String[]> results = new ArrayList<>();
+
+	// Operation measured by a benchmark, with optional untimed setup before every invocation
+	private interface Operation {
+		default void setup() throws Exception {
+		}
+
+		long run() throws Exception;
+	}
+
+	public PathPlanningBenchmark() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		this.threads = bean instanceof com.sun.management.ThreadMXBean
+				&& ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()
+						? (com.sun.management.ThreadMXBean) bean
+						: null;
+	}
+
+	// Method to run every benchmark over every parameter combination
+	public void runAll() throws Exception {
+		for (int size : sizes) {
+			for (double density : densities) {
+				Grid grid = Grid.generateRandomGrid(size, size, density, seed);
+				long cells = (long) size * size;
+				String gridParams = "size=" + size + ",density=" + density;
+				GridGenerator generator = new GridGenerator(seed);
+				measure("GridGenerator.random", gridParams, () -> generator.random(size, size, density).getNumRows());
+
+				// Grid I/O: the same map read through Scanner and through the memory-mapped loader
+				File file = writeTextGrid(grid);
+				measure("Grid.readGridFromFile", gridParams, () -> Grid.readGridFromFile(file.getPath()).getNumRows());
+				measure("GridLoader.load", gridParams, () -> GridLoader.load(file.getPath()).getNumRows());
+				Files.delete(file.toPath());
+
+				if (cells <= maxNodeCells) {
+					measure("PathPlanningSimulation.buildNodeGraph", gridParams,
+							() -> PathPlanningSimulation.buildNodeGraph(grid).length);
+				}
+
+				for (double distance : distances) {
+					int start = freeCellNear(grid, 0, 0);
+					int reach = (int) Math.round((size - 1) * distance);
+					int goal = freeCellNear(grid, reach, reach);
+					String params = gridParams + ",distance=" + distance;
+					if (start < 0 || goal < 0) {
+						continue;
+					}
+
+					if (cells <= maxNodeCells) {
+						measure("PathPlanner.findPath", params, new Operation() {
+							private PathPlanner.Node[][] nodes;
+
+							@Override
+							public void setup() {
+								nodes = PathPlanningSimulation.buildNodeGraph(grid); // Nodes are mutated by a search
+							}
+
+							@Override
+							public long run() {
+								List<PathPlanner.Node> path = PathPlanner.findPath(grid, nodes[start / size][start % size],
+										nodes[goal / size][goal % size]);
+								return path == null ? -1 : path.size();
+							}
+						});
+					}
+
+					GridPathPlanner planner = new GridPathPlanner(grid);
+					measure("GridPathPlanner.findPath", params, () -> {
+						int[] path = planner.findPath(start, goal);
+						return path == null ? -1 : path.length;
+					});
+				}
+
+				// Visualization, printed to a discarded stream
+				if (cells <= maxNodeCells) {
+					PathPlanner.Node[][] nodes = PathPlanningSimulation.buildNodeGraph(grid);
+					List<PathPlanner.Node> path = PathPlanner.findPath(grid, nodes[0][0], nodes[size - 1][size - 1]);
+					PrintStream console = System.out;
+					System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+					try {
+						measure("PathPlanningCLI.visualizeGrid", gridParams, () -> {
+							PathPlanningCLI.visualizeGrid(grid, path);
+							return 0;
+						});
+					} finally {
+						System.setOut(console);
+					}
+				}
+			}
+		}
+	}
+
+	// Method to run warmup and measurement iterations of one benchmark and record the result
+	private void measure(String benchmark, String params, Operation operation) throws Exception {
+		for (int i = 0; i < warmupIterations; i++) {
+			runIteration(operation);
+		}
+		long operations = 0;
+		long nanos = 0;
+		long bytes = 0;
+		for (int i = 0; i < measurementIterations; i++) {
+			long[] iteration = runIteration(operation);
+			operations += iteration[0];
+			nanos += iteration[1];
+			bytes += iteration[2];
+		}
+
+		double nanosPerOp = (double) nanos / operations;
+		double bytesPerOp = threads == null ? Double.NaN : (double) bytes / operations;
+		double opsPerSecond = 1e9 / nanosPerOp;
+		double megabytesPerSecond = bytesPerOp * opsPerSecond / (1 << 20);
+		results.add(new String[] { benchmark, params, format(opsPerSecond), format(nanosPerOp), format(bytesPerOp),
+				format(megabytesPerSecond) });
+		PrintStream out = System.err; // System.out may be redirected while visualizing
+		out.printf(Locale.ROOT, "%-40s %-40s %14.1f ops/s %16.1f ns/op %14.1f B/op %10.1f MB/s%n", benchmark, params,
+				opsPerSecond, nanosPerOp, bytesPerOp, megabytesPerSecond);
+	}
+
+	// Method to run an operation repeatedly for one iteration, returning {operations, timed nanos, allocated bytes}
+	private long[] runIteration(Operation operation) throws Exception {
+		long operations = 0;
+		long timed = 0;
+		long allocated = 0;
+		long threadId = Thread.currentThread().getId();
+		long deadline = System.nanoTime() + iterationNanos;
+		do {
+			operation.setup();
+			long bytesBefore = threads == null ? 0 : threads.getThreadAllocatedBytes(threadId);
+			long startTime = System.nanoTime();
+			sink += operation.run();
+			timed += System.nanoTime() - startTime;
+			allocated += threads == null ? 0 : threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+			operations++;
+		} while (System.nanoTime() < deadline);
+		return new long[] { operations, timed, allocated };
+	}
+
+	// Method to find the free cell closest to a position, scanning outwards in square rings
+	private static int freeCellNear(Grid grid, int row, int col) {
+		int numRows = grid.getNumRows();
+		int numCols = grid.getNumCols();
+		for (int radius = 0; radius < Math.max(numRows, numCols); radius++) {
+			for (int r = row - radius; r <= row + radius; r++) {
+				for (int c = col - radius; c <= col + radius; c++) {
+					if (grid.isValidPosition(r, c) && !grid.isObstacle(r, c)) {
+						return r * numCols + c;
+					}
+				}
+			}
+		}
+		return -1;
+	}
+
+	private static File writeTextGrid(Grid grid) throws IOException {
+		File file = File.createTempFile("benchmark", ".txt");
+		file.deleteOnExit();
+		try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file.toPath()))) {
+			writer.println(grid.getNumRows() + " " + grid.getNumCols());
+			for (int row = 0; row < grid.getNumRows(); row++) {
+				for (int col = 0; col < grid.getNumCols(); col++) {
+					if (grid.isObstacle(row, col)) {
+						writer.println(row + " " + col);
+					}
+				}
+			}
+		}
+		return file;
+	}
+
+	// Method to write the results as CSV
+	private void writeCsv(String filePath) throws IOException {
+		try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(new File(filePath).toPath()))) {
+			writer.println("benchmark;params;ops_per_s;ns_per_op;bytes_per_op;alloc_mb_per_s");
+			for (String[] result : results) {
+				writer.println(String.join(";", result));
+			}
+		}
+	}
+
+	// Method to compare time per operation with a baseline CSV, returning the number of regressions
+	private int compareWithBaseline(String filePath, double tolerance) throws IOException {
+		Map<String, Double> baseline = new HashMap<>();
+		List<String> lines = Files.readAllLines(new File(filePath).toPath());
+		for (String line : lines.subList(1, lines.size())) {
+			String[] fields = line.split(";");
+			baseline.put(fields[0] + " " + fields[1], Double.parseDouble(fields[3]));
+		}
+
+		int regressions = 0;
+		for (String[] result : results) {
+			Double before = baseline.get(result[0] + " " + result[1]);
+			double now = Double.parseDouble(result[3]);
+			if (before != null && now > before * (1 + tolerance)) {
+				System.err.println("Regression: " + result[0] + " " + result[1] + " " + format(before) + " -> "
+						+ format(now) + " ns/op");
+				regressions++;
+			}
+		}
+		return regressions;
+	}
+
+	private static String format(double value) {
+		return String.format(Locale.ROOT, "%.1f", value);
+	}
+
+	private static int[] parseInts(String list) {
+		String[] parts = list.split(",");
+		int[] values = new int[parts.length];
+		for (int i = 0; i < parts.length; i++) {
+			values[i] = Integer.parseInt(parts[i].trim());
+		}
+		return values;
+	}
+
+	private static double[] parseDoubles(String list) {
+		String[] parts = list.split(",");
+		double[] values = new double[parts.length];
+		for (int i = 0; i < parts.length; i++) {
+			values[i] = Double.parseDouble(parts[i].trim());
+		}
+		return values;
+	}
+
+	public static void main(String[] args) throws Exception {
+		PathPlanningBenchmark benchmark = new PathPlanningBenchmark();
+		String csvPath = null;
+		String baselinePath = null;
+		double tolerance = 0.2;
+		for (int i = 0; i + 1 < args.length; i += 2) {
+			String value = args[i + 1];
+			switch (args[i]) {
+			case "--sizes":
+				benchmark.sizes = parseInts(value);
+				break;
+			case "--densities":
+				benchmark.densities = parseDoubles(value);
+				break;
+			case "--distances":
+				benchmark.distances = parseDoubles(value);
+				break;
+			case "--warmup":
+				benchmark.warmupIterations = Integer.parseInt(value);
+				break;
+			case "--iterations":
+				benchmark.measurementIterations = Integer.parseInt(value);
+				break;
+			case "--iteration-ms":
+				benchmark.iterationNanos = Long.parseLong(value) * 1_000_000L;
+				break;
+			case "--seed":
+				benchmark.seed = Long.parseLong(value);
+				break;
+			case "--max-node-cells":
+				benchmark.maxNodeCells = Long.parseLong(value);
+				break;
+			case "--csv":
+				csvPath = value;
+				break;
+			case "--baseline":
+				baselinePath = value;
+				break;
+			case "--tolerance":
+				tolerance = Double.parseDouble(value);
+				break;
+			default:
+				System.err.println("Unknown option: " + args[i]);
+				System.exit(2);
+			}
+		}
+
+		benchmark.runAll();
+		if (csvPath != null) {
+			benchmark.writeCsv(csvPath);
+		}
+		if (baselinePath != null && benchmark.compareWithBaseline(baselinePath, tolerance) > 0) {
+			System.exit(1);
+		}
+	}
+}
@@ -1,38 +1,18 @@
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Scanner;
 
 public class PathPlanningCLI {
 	// Method to visualize the grid, obstacles, and path in CLI
 	public static void visualizeGrid(Grid grid, List<PathPlanner.Node> path) {
-		int numRows = grid.getNumRows();
-		int numCols = grid.getNumCols();
-
-		for (int row = 0; row < numRows; row++) {
-			for (int col = 0; col < numCols; col++) {
-				if (grid.isObstacle(row, col)) {
-					System.out.print("# "); // Obstacle
-				} else if (path != null && containsNode(path, row, col)) {
-					System.out.print("* "); // Path node
-				} else {
-					System.out.print(". "); // Empty cell
-				}
-			}
-			System.out.println();
-		}
+		GridRenderer renderer = new GridRenderer(grid);
+		renderer.markPath(path);
+		renderer.render(System.out);
 		System.out.println();
 	}
 
-	// Method to check if a given node is present in the path
-	private static boolean containsNode(List<PathPlanner.Node> path, int row, int col) {
-		for (PathPlanner.Node node : path) {
-			if (node.row == row && node.col == col) {
-				return true;
-			}
-		}
-		return false;
-	}
-
 	// Method to interactively test path planning algorithm
 	public static void runCLI() {
 		Scanner scanner = new Scanner(System.in);
@@ -73,10 +53,15 @@ public class PathPlanningCLI {
 			String filePath = scanner.next();
 
 			try {
-				grid = Grid.readGridFromFile(filePath);
+				long loadStart = System.nanoTime();
+				grid = GridLoader.load(filePath); // Text or binary grid file
+				System.out.println("Grid loaded in " + (System.nanoTime() - loadStart) / 1_000_000.0 + " ms");
 			} catch (FileNotFoundException e) {
 				System.out.println("File not found. Exiting...");
 				return;
+			} catch (IOException e) {
+				System.out.println("Could not read grid file: " + e.getMessage() + ". Exiting...");
+				return;
 			}
 
 			System.out.println("Please enter the start position (row column):");
@@ -93,13 +78,110 @@ public class PathPlanningCLI {
 			return;
 		}
 
-		// Test path planning algorithm on the read grid
-		PathPlanningSimulation.testAlgorithm(grid, startState, goalState);
+		System.out.println("Please select the planner:");
+		PlannerMode[] modes = PlannerMode.values();
+		for (int i = 0; i < modes.length; i++) {
+			System.out.println((i + 1) + ". " + modes[i].getDisplayName());
+		}
+		System.out.println((modes.length + 1) + ". Compare all planners");
+		System.out.println((modes.length + 2) + ". Orientation-aware A* (turn costs)");
+		System.out.println((modes.length + 3) + ". Anytime A* (time budget per planning cycle)");
+		int plannerChoice = scanner.nextInt();
+		if (plannerChoice == modes.length + 1) {
+			PathPlanningSimulation.comparePlanners(grid, startState, goalState);
+			scanner.close();
+			return;
+		}
+		if (plannerChoice == modes.length + 3) {
+			System.out.println("Please enter the time budget per planning cycle in milliseconds:");
+			double budgetMillis = scanner.nextDouble();
+			PathPlanningSimulation.testAnytimeAlgorithm(grid, startState, goalState,
+					(long) (budgetMillis * 1_000_000));
+			scanner.close();
+			return;
+		}
+		if (plannerChoice == modes.length + 2) {
+			System.out.println("Please enter the start orientation (UP, DOWN, LEFT, RIGHT):");
+			Direction startOrientation = Direction.valueOf(scanner.next().toUpperCase());
+			System.out.println("Please enter the goal orientation (UP, DOWN, LEFT, RIGHT or ANY):");
+			String goalOrientation = scanner.next().toUpperCase();
+			System.out.println("Please enter the move cost per cell and the turn cost per 90 degrees:");
+			float moveCost = scanner.nextFloat();
+			float turnCost = scanner.nextFloat();
+			PathPlanningSimulation.testOrientedAlgorithm(grid,
+					new RobotState(startState.getRow(), startState.getColumn(), startOrientation),
+					new RobotState(goalState.getRow(), goalState.getColumn(),
+							goalOrientation.equals("ANY") ? null : Direction.valueOf(goalOrientation)),
+					moveCost, turnCost);
+			scanner.close();
+			return;
+		}
+		if (plannerChoice < 1 || plannerChoice > modes.length) {
+			System.out.println("Invalid planner selected. Exiting...");
+			return;
+		}
+
+		// Test path planning algorithm on the read grid, then keep planning until the user stops
+		SearchMetrics metrics = new SearchMetrics();
+		PathPlanningSimulation.testAlgorithm(grid, startState, goalState, modes[plannerChoice - 1], metrics);
+		while (true) {
+			System.out.println("Please enter another start and goal (row column row column), or -1 to finish:");
+			int startRow = scanner.nextInt();
+			if (startRow < 0) {
+				break;
+			}
+			startState = new RobotState(startRow, scanner.nextInt(), Direction.UP);
+			goalState = new RobotState(scanner.nextInt(), scanner.nextInt(), Direction.UP);
+			PathPlanningSimulation.testAlgorithm(grid, startState, goalState, modes[plannerChoice - 1], metrics);
+		}
+
+		System.out.println("Search metrics:");
+		metrics.printSummary();
 
 		scanner.close();
 	}
 
+	// Method to run the interactive CLI, to replay a scenario file when called with
+	// "--batch <grid file> <scenario file> [options]", or to start a planning server when called with
+	// "--serve <grid file> [options]", or to print the distance field of goal cells when called with
+	// "--flood <grid file> <row> <column> [<row> <column> ...]"
 	public static void main(String[] args) {
+		if (args.length > 0 && (args[0].equals("--batch") || args[0].equals("--serve") || args[0].equals("--flood"))) {
+			String[] options = Arrays.copyOfRange(args, 1, args.length);
+			int exitCode = args[0].equals("--batch") ? BatchScenarioRunner.runFromArgs(options)
+					: args[0].equals("--serve") ? PlanningServer.runFromArgs(options) : runFloodFill(options);
+			if (exitCode != 0) {
+				System.exit(exitCode);
+			}
+			return;
+		}
 		runCLI();
 	}
+
+	// Method to load a grid and flood it from the goal cells given as row and column pairs; returns the exit code
+	private static int runFloodFill(String[] args) {
+		if (args.length < 3 || args.length % 2 == 0) {
+			System.err.println("Usage: --flood <grid file> <row> <column> [<row> <column> ...]");
+			return 2;
+		}
+		RobotState[] goals = new RobotState[(args.length - 1) / 2];
+		try {
+			for (int i = 0; i < goals.length; i++) {
+				goals[i] = new RobotState(Integer.parseInt(args[1 + 2 * i]), Integer.parseInt(args[2 + 2 * i]),
+						Direction.UP);
+			}
+		} catch (NumberFormatException e) {
+			System.err.println("Invalid cell: " + e.getMessage());
+			return 2;
+		}
+		Grid grid;
+		try {
+			grid = GridLoader.load(args[0]);
+		} catch (IOException e) {
+			System.err.println("Could not read grid file: " + e.getMessage());
+			return 1;
+		}
+		PathPlanningSimulation.testFloodFill(grid, null, goals);
+		return 0;
+	}
 }
\ No newline at end of file
@@ -1,44 +1,20 @@
 import java.util.List;
-import java.util.Random;
 
 public class PathPlanningSimulation {
+	private static final int MAX_RENDER_SIZE = 200; // Grids with more rows or columns are drawn downsampled
+
 	// This method generates a random grid with obstacles based on the specified
 	// number of rows, columns, and obstacle density.
 	public static Grid generateRandomGrid(int numRows, int numCols, double obstacleDensity) {
-		Random random = new Random();
-		Grid grid = new Grid(numRows, numCols);
-
-		for (int row = 0; row < numRows; row++) {
-			for (int col = 0; col < numCols; col++) {
-				if (random.nextDouble() < obstacleDensity) {
-					grid.setObstacle(row, col); // Place obstacle
-				}
-			}
-		}
-
-		return grid;
+		return Grid.generateRandomGrid(numRows, numCols, obstacleDensity);
 	}
 
-	// This method tests the path planning algorithm on a given grid with specified
-	// start and goal positions.
-	// It converts the grid into nodes, adds neighbors for each node, and then finds
-	// a path using the A* algorithm.
-	// Finally, it visualizes the grid, obstacles, and the found path.
-	public static void testAlgorithm(Grid grid, RobotState startState, RobotState goalState) {
+	// This method converts the grid into nodes and links each free node to its free
+	// neighbors (up, down, left, right), producing the graph used by PathPlanner.findPath.
+	public static PathPlanner.Node[][] buildNodeGraph(Grid grid) {
 		int numRows = grid.getNumRows();
 		int numCols = grid.getNumCols();
 
-		// Ensure startState and goalState are within the bounds of the grid
-		if (!grid.isValidPosition(startState.getRow(), startState.getColumn())) {
-			System.out.println("Error: Start state is out of bounds.");
-			return;
-		}
-
-		if (!grid.isValidPosition(goalState.getRow(), goalState.getColumn())) {
-			System.out.println("Error: Goal state is out of bounds.");
-			return;
-		}
-
 		// Convert grid to nodes
 		PathPlanner.Node[][] nodes = new PathPlanner.Node[numRows][numCols];
 		for (int row = 0; row < numRows; row++) {
@@ -64,6 +40,29 @@ public class PathPlanningSimulation {
 			}
 		}
 
+		return nodes;
+	}
+
+	// This method tests the path planning algorithm on a given grid with specified
+	// start and goal positions.
+	// It converts the grid into nodes, adds neighbors for each node, and then finds
+	// a path using the A* algorithm.
+	// Finally, it visualizes the grid, obstacles, and the found path.
+	public static void testAlgorithm(Grid grid, RobotState startState, RobotState goalState) {
+		// Ensure startState and goalState are within the bounds of the grid
+		if (!grid.isValidPosition(startState.getRow(), startState.getColumn())) {
+			System.out.println("Error: Start state is out of bounds.");
+			return;
+		}
+
+		if (!grid.isValidPosition(goalState.getRow(), goalState.getColumn())) {
+			System.out.println("Error: Goal state is out of bounds.");
+			return;
+		}
+
+		// Convert grid to nodes and add neighbors for each node
+		PathPlanner.Node[][] nodes = buildNodeGraph(grid);
+
 		// Define start and goal nodes
 		PathPlanner.Node startNode = nodes[startState.getRow()][startState.getColumn()];
 		PathPlanner.Node goalNode = nodes[goalState.getRow()][goalState.getColumn()];
@@ -77,66 +76,227 @@ public class PathPlanningSimulation {
 
 		// Print or visualize the grid, obstacles, and path
 		System.out.println("Grid:");
-		for (int row = 0; row < numRows; row++) {
-			for (int col = 0; col < numCols; col++) {
-				if (grid.isObstacle(row, col)) {
-					System.out.print("# ");
-				} else if (startState.getRow() == row && startState.getColumn() == col) {
-					System.out.print("S ");
-				} else if (goalState.getRow() == row && goalState.getColumn() == col) {
-					System.out.print("G ");
-				} else if (path != null && path.contains(nodes[row][col])) {
-					System.out.print("* ");
-				} else {
-					System.out.print(". ");
-				}
-			}
-			System.out.println();
+		GridRenderer renderer = new GridRenderer(grid);
+		renderer.setStart(startState.getRow(), startState.getColumn());
+		renderer.setGoal(goalState.getRow(), goalState.getColumn());
+		renderer.markPath(path);
+		renderer.renderFitted(System.out, MAX_RENDER_SIZE, MAX_RENDER_SIZE);
+
+		// Print path
+		if (path != null) {
+			printWaypoints(grid, new PathPostProcessor(grid).toCells(path));
+		} else {
+			System.out.println("No path found.");
+		}
+	}
+
+	// This method tests one of the index-based planners on a given grid with specified
+	// start and goal positions. It plans directly on cell indices without building
+	// the node graph, then visualizes the grid and path like testAlgorithm above.
+	public static void testAlgorithm(Grid grid, RobotState startState, RobotState goalState, PlannerMode mode) {
+		testAlgorithm(grid, startState, goalState, mode, null);
+	}
+
+	// This method tests a planner like testAlgorithm above and additionally records
+	// the query into the given search metrics, unless they are null.
+	public static void testAlgorithm(Grid grid, RobotState startState, RobotState goalState, PlannerMode mode,
+			SearchMetrics metrics) {
+		// Ensure startState and goalState are within the bounds of the grid
+		if (!grid.isValidPosition(startState.getRow(), startState.getColumn())) {
+			System.out.println("Error: Start state is out of bounds.");
+			return;
+		}
+
+		if (!grid.isValidPosition(goalState.getRow(), goalState.getColumn())) {
+			System.out.println("Error: Goal state is out of bounds.");
+			return;
+		}
+
+		// Find path using the selected planner
+		GridPathPlanner planner = mode.create(grid);
+		planner.setMetrics(metrics);
+		long startTime = System.nanoTime();
+		int[] path = planner.findPath(startState, goalState);
+		long elapsed = System.nanoTime() - startTime;
+
+		// Print scenario details
+		System.out.println("Scenario: Start (" + startState.getRow() + ", " + startState.getColumn() + ") | Goal ("
+				+ goalState.getRow() + ", " + goalState.getColumn() + ")");
+		System.out.println("Planner: " + mode.getDisplayName() + " | Expanded nodes: " + planner.getExpandedCount()
+				+ " | Time: " + elapsed / 1_000_000.0 + " ms");
+		if (metrics != null) {
+			System.out.println("Pushed nodes: " + planner.getPushedCount() + " | Reopenings: "
+					+ planner.getReopenedCount() + " | Heap high-water mark: " + planner.getHeapHighWater());
 		}
 
+		// Print or visualize the grid, obstacles, and path
+		System.out.println("Grid:");
+		GridRenderer renderer = new GridRenderer(grid);
+		renderer.setStart(startState.getRow(), startState.getColumn());
+		renderer.setGoal(goalState.getRow(), goalState.getColumn());
+		renderer.markPath(path);
+		renderer.renderFitted(System.out, MAX_RENDER_SIZE, MAX_RENDER_SIZE);
+
 		// Print path
 		if (path != null) {
-			System.out.println("Path found:");
-			for (PathPlanner.Node node : path) {
-				System.out.println("(" + node.row + ", " + node.col + ")");
-			}
+			printWaypoints(grid, path);
 		} else {
 			System.out.println("No path found.");
 		}
 	}
 
-	// This method visualizes the grid, obstacles, and path by printing them to the
-	// console. It prints "#" for obstacles, "*" for path nodes, and "." for empty
-	// cells.
-	public static void visualizeGrid(Grid grid, List<PathPlanner.Node> path) {
-		int numRows = grid.getNumRows();
-		int numCols = grid.getNumCols();
+	// This method prints a path as its start, goal and turning cells instead of every cell,
+	// followed by the size and length of the any-angle path shortcutting it.
+	private static void printWaypoints(Grid grid, int[] path) {
+		PathPostProcessor postProcessor = new PathPostProcessor(grid);
+		int[] waypoints = postProcessor.compress(path);
+		System.out.println("Path found: " + path.length + " cells | Waypoints: " + waypoints.length);
+		for (int cell : waypoints) {
+			System.out.println("(" + cell / grid.getNumCols() + ", " + cell % grid.getNumCols() + ")");
+		}
+		int[] smoothed = postProcessor.shortcut(path);
+		System.out.println("Any-angle waypoints: " + smoothed.length + " | Length: " + postProcessor.getLength(smoothed)
+				+ " cells");
+	}
 
-		for (int row = 0; row < numRows; row++) {
-			for (int col = 0; col < numCols; col++) {
-				if (grid.isObstacle(row, col)) {
-					System.out.print("# "); // Obstacle
-				} else {
-					if (path != null && containsNode(path, row, col)) {
-						System.out.print("* "); // Path node
-					} else {
-						System.out.print(". "); // Empty cell
-					}
+	// This method runs every planner mode on the same query and prints the path length,
+	// expanded nodes and latency of each next to the unidirectional A* search.
+	public static void comparePlanners(Grid grid, RobotState startState, RobotState goalState) {
+		System.out.println("Scenario: Start (" + startState.getRow() + ", " + startState.getColumn() + ") | Goal ("
+				+ goalState.getRow() + ", " + goalState.getColumn() + ")");
+		long baselineExpanded = 0;
+		long baselineTime = 0;
+		for (PlannerMode mode : PlannerMode.values()) {
+			GridPathPlanner planner = mode.create(grid);
+			long startTime = System.nanoTime();
+			int[] path = planner.findPath(startState, goalState);
+			long elapsed = System.nanoTime() - startTime;
+			if (mode == PlannerMode.ASTAR) {
+				baselineExpanded = Math.max(1, planner.getExpandedCount());
+				baselineTime = Math.max(1, elapsed);
+			}
+			System.out.println("Planner: " + mode.getDisplayName() + " | Path length: "
+					+ (path == null ? "no path" : String.valueOf(path.length)) + " | Expanded nodes: "
+					+ planner.getExpandedCount() + " (" + 100 * planner.getExpandedCount() / baselineExpanded
+					+ "% of A*) | Time: " + elapsed / 1_000_000.0 + " ms (" + 100 * elapsed / baselineTime
+					+ "% of A*)");
+		}
+
+		// A* guided by landmark distance fields instead of the Manhattan distance
+		LandmarkHeuristic landmarks = new LandmarkHeuristic(grid, 8);
+		GridPathPlanner planner = new GridPathPlanner(grid);
+		planner.setHeuristic(landmarks);
+		long startTime = System.nanoTime();
+		int[] path = planner.findPath(startState, goalState);
+		long elapsed = System.nanoTime() - startTime;
+		landmarks.detach();
+		System.out.println("Planner: A* with 8 landmarks | Path length: "
+				+ (path == null ? "no path" : String.valueOf(path.length)) + " | Expanded nodes: "
+				+ planner.getExpandedCount() + " (" + 100 * planner.getExpandedCount() / baselineExpanded
+				+ "% of A*) | Time: " + elapsed / 1_000_000.0 + " ms (" + 100 * elapsed / baselineTime
+				+ "% of A*) | Precomputation: " + landmarks.getBuildTimeNanos() / 1_000_000.0 + " ms");
+	}
+
+	// This method tests the orientation-aware planner on a given grid with specified
+	// start and goal poses and prints the sequence of poses, counting moves and turns.
+	public static void testOrientedAlgorithm(Grid grid, RobotState startState, RobotState goalState, float moveCost,
+			float turnCost) {
+		OrientedPathPlanner planner = new OrientedPathPlanner(grid, moveCost, turnCost);
+		long startTime = System.nanoTime();
+		List<RobotState> path = planner.findPath(startState, goalState);
+		long elapsed = System.nanoTime() - startTime;
+
+		System.out.println("Scenario: Start (" + startState.getRow() + ", " + startState.getColumn() + ") facing "
+				+ startState.getOrientation() + " | Goal (" + goalState.getRow() + ", " + goalState.getColumn()
+				+ ") facing " + (goalState.getOrientation() == null ? "any direction" : goalState.getOrientation()));
+		System.out.println("Planner: Orientation-aware A* | Expanded poses: " + planner.getExpandedCount()
+				+ " | Time: " + elapsed / 1_000_000.0 + " ms");
+
+		System.out.println("Grid:");
+		GridRenderer renderer = new GridRenderer(grid);
+		renderer.setStart(startState.getRow(), startState.getColumn());
+		renderer.setGoal(goalState.getRow(), goalState.getColumn());
+		if (path != null) {
+			for (RobotState pose : path) {
+				renderer.markCell(pose.getRow(), pose.getColumn());
+			}
+		}
+		renderer.renderFitted(System.out, MAX_RENDER_SIZE, MAX_RENDER_SIZE);
+
+		if (path != null) {
+			int moves = 0;
+			int turns = 0;
+			System.out.println("Path found:");
+			for (int i = 0; i < path.size(); i++) {
+				RobotState pose = path.get(i);
+				if (i > 0 && path.get(i - 1).getOrientation() != pose.getOrientation()) {
+					turns++;
+				} else if (i > 0) {
+					moves++;
 				}
+				System.out.println("(" + pose.getRow() + ", " + pose.getColumn() + ") facing " + pose.getOrientation());
 			}
-			System.out.println();
+			System.out.println("Moves: " + moves + " | Turns: " + turns + " | Execution time: "
+					+ planner.getLastCost());
+		} else {
+			System.out.println("No path found.");
 		}
-		System.out.println();
 	}
 
-	// Method to check if a given node is present in the path
-	private static boolean containsNode(List<PathPlanner.Node> path, int row, int col) {
-		for (PathPlanner.Node node : path) {
-			if (node.row == row && node.col == col) {
-				return true;
+	// This method runs the anytime planner in planning cycles of the given budget until
+	// the path is proven optimal, printing the path length and bound after every cycle.
+	public static void testAnytimeAlgorithm(Grid grid, RobotState startState, RobotState goalState,
+			long budgetNanos) {
+		System.out.println("Scenario: Start (" + startState.getRow() + ", " + startState.getColumn() + ") | Goal ("
+				+ goalState.getRow() + ", " + goalState.getColumn() + ")");
+		AnytimePlanner planner = new AnytimePlanner(grid);
+		AnytimePlanner.Result result;
+		int cycle = 0;
+		do {
+			long startTime = System.nanoTime();
+			result = planner.plan(startState, goalState, budgetNanos);
+			long elapsed = System.nanoTime() - startTime;
+			cycle++;
+			System.out.println("Cycle " + cycle + ": Path length: "
+					+ (result.getPath() == null ? "none yet" : String.valueOf(result.getPath().length))
+					+ " | Suboptimality bound: " + result.getBound() + " | Expanded nodes: " + result.getExpanded()
+					+ " | Time: " + elapsed / 1_000_000.0 + " ms");
+		} while (!result.isComplete());
+		System.out.println(result.getPath() == null ? "No path found." : "Optimal path found.");
+	}
+
+	// This method floods the grid from the given goal cells with the frontier-parallel
+	// breadth-first search and prints how much of the map can reach them and how far
+	// the farthest cell is, followed by the distance of the given start cell.
+	public static void testFloodFill(Grid grid, RobotState startState, RobotState... goalStates) {
+		int[] goals = new int[goalStates.length];
+		for (int i = 0; i < goals.length; i++) {
+			if (!grid.isValidPosition(goalStates[i].getRow(), goalStates[i].getColumn())) {
+				System.out.println("Error: Goal state is out of bounds.");
+				return;
 			}
+			goals[i] = goalStates[i].getRow() * grid.getNumCols() + goalStates[i].getColumn();
+		}
+		FrontierBFS bfs = new FrontierBFS(grid);
+		int[] field = bfs.distanceField(goals);
+		System.out.println("Flood fill from " + goals.length + " goal cell(s) | Reached cells: " + bfs.getLastReached()
+				+ " | Farthest distance: " + bfs.getLastDepth() + " | Time: " + bfs.getLastTimeNanos() / 1_000_000.0
+				+ " ms");
+		if (startState != null && grid.isValidPosition(startState.getRow(), startState.getColumn())) {
+			int distance = field[startState.getRow() * grid.getNumCols() + startState.getColumn()];
+			System.out.println("Start (" + startState.getRow() + ", " + startState.getColumn() + ") "
+					+ (distance == FrontierBFS.UNREACHABLE ? "cannot reach a goal" : "is " + distance + " moves away"));
 		}
-		return false;
+	}
+
+	// This method visualizes the grid, obstacles, and path by printing them to the
+	// console. It prints "#" for obstacles, "*" for path nodes, and "." for empty
+	// cells.
+	public static void visualizeGrid(Grid grid, List<PathPlanner.Node> path) {
+		GridRenderer renderer = new GridRenderer(grid);
+		renderer.markPath(path);
+		renderer.render(System.out);
+		System.out.println();
 	}
 
 	// This method serves as the entry point of the program.
@@ -157,5 +317,11 @@ public class PathPlanningSimulation {
 
 		// Test path planning algorithm on the generated grid
 		testAlgorithm(grid, startState, goalState);
+
+		// Compare the index-based planners on the same query
+		comparePlanners(grid, startState, goalState);
+
+		// Distance field to the goal for every robot on the grid
+		testFloodFill(grid, startState, goalState);
 	}
 }
\ No newline at end of file
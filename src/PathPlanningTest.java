@@ -1,3 +1,33 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.ref.WeakReference;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
 public class PathPlanningTest {
 	public static void main(String[] args) {
 		testBasicScenario();
@@ -8,6 +38,31 @@ public class PathPlanningTest {
 		testOptimalPath();
 		testUnreachableGoal();
 		testPerformance();
+		testIndexedPlanner();
+		testPackedStorage();
+		testGridLoader();
+		testBatchPlanner();
+		testJumpPointSearch();
+		testHierarchicalPlanner();
+		testIncrementalReplanning();
+		testPathCache();
+		testSearchMetrics();
+		testBidirectionalSearch();
+		testConnectivityIndex();
+		testOrientedPlanner();
+		testCooperativePlanner();
+		testAnytimePlanner();
+		testLandmarkHeuristic();
+		testGridRenderer();
+		testBatchScenarioRunner();
+		testTerrainCosts();
+		testGridGenerator();
+		testClearanceMap();
+		testPathPostProcessor();
+		testPlanningServer();
+		testStationRoutingTable();
+		testFrontierBFS();
+		testClearedObstacles();
 	}
 
 	// Test the algorithm on a simple grid with no obstacles
@@ -121,6 +176,2135 @@ public class PathPlanningTest {
 		}
 	}
 
+	// Verify that the index-based planner finds a path whenever the node-based A*
+	// does, and one of the same cost, while reusing one planner instance across queries.
+	// Every other grid has a cost layer, where the node-based queue must re-order
+	// nodes whose cost drops
+	private static void testIndexedPlanner() {
+		System.out.println("Testing Indexed Planner:");
+		int mismatches = 0;
+		int queries = 0;
+		Random random = new Random(3);
+		for (int i = 0; i < 6; i++) {
+			int size = 10 + i * 10;
+			Grid grid = Grid.generateRandomGrid(size, size, 0.25, i);
+			if (i % 2 == 1) {
+				for (int row = 0; row < size; row++) {
+					for (int col = 0; col < size; col++) {
+						grid.setCellCost(row, col, 1 + random.nextInt(9));
+					}
+				}
+			}
+			GridPathPlanner planner = new GridPathPlanner(grid);
+			for (int q = 0; q < 20; q++) {
+				RobotState startState = new RobotState(q % size, (q * 7) % size, Direction.RIGHT);
+				RobotState goalState = new RobotState(size - 1 - (q * 3) % size, size - 1 - q % size, Direction.RIGHT);
+				PathPlanner.Node[][] nodes = PathPlanningSimulation.buildNodeGraph(grid);
+				List<PathPlanner.Node> expected = PathPlanner.findPath(grid,
+						nodes[startState.getRow()][startState.getColumn()],
+						nodes[goalState.getRow()][goalState.getColumn()]);
+				int[] actual = planner.findPath(startState, goalState);
+				if (!sameCostPath(planner, expected, actual)) {
+					mismatches++;
+				}
+				queries++;
+			}
+		}
+		System.out.println("Queries: " + queries + " | Costlier, cheaper or missing paths: " + mismatches);
+		System.out.println("-------------------------------------");
+		System.out.println();
+	}
+
+	// Helper method to check a cell path is found exactly when the node path is, and
+	// costs the same
+	private static boolean sameCostPath(GridPathPlanner planner, List<PathPlanner.Node> expected, int[] actual) {
+		if (expected == null || actual == null) {
+			return expected == null && actual == null;
+		}
+		return planner.getPathCost(actual) == expected.get(expected.size() - 1).g;
+	}
+
+	// Verify that the packed and memory-mapped grid backings hold the same cells as the
+	// boolean array backing and that word-level row scans agree with cell-by-cell checks
+	private static void testPackedStorage() {
+		System.out.println("Testing Packed Storage:");
+		int numRows = 37;
+		int numCols = 150;
+		Grid reference = Grid.generateRandomGrid(numRows, numCols, 0.2);
+		Grid packed = Grid.createPacked(numRows, numCols);
+		Grid mapped;
+		try {
+			File file = File.createTempFile("grid", ".bits");
+			file.deleteOnExit();
+			mapped = Grid.createMapped(file.getPath(), numRows, numCols);
+		} catch (IOException e) {
+			System.out.println("Could not create mapped grid: " + e.getMessage());
+			return;
+		}
+
+		for (int row = 0; row < numRows; row++) {
+			for (int col = 0; col < numCols; col++) {
+				if (reference.isObstacle(row, col)) {
+					packed.setObstacle(row, col);
+					mapped.setObstacle(row, col);
+				}
+			}
+		}
+
+		int cellMismatches = 0;
+		int scanMismatches = 0;
+		for (int row = 0; row < numRows; row++) {
+			for (int col = 0; col < numCols; col++) {
+				boolean expected = reference.isObstacle(row, col);
+				if (packed.isObstacle(row, col) != expected || mapped.isObstacle(row, col) != expected) {
+					cellMismatches++;
+				}
+				int next = col;
+				while (next < numCols && !reference.isObstacle(row, next)) {
+					next++;
+				}
+				if (packed.nextObstacleInRow(row, col) != next || mapped.nextObstacleInRow(row, col) != next) {
+					scanMismatches++;
+				}
+			}
+		}
+
+		RobotState startState = new RobotState(0, 0, Direction.RIGHT);
+		RobotState goalState = new RobotState(numRows - 1, numCols - 1, Direction.RIGHT);
+		int[] expectedPath = new GridPathPlanner(reference).findPath(startState, goalState);
+		int[] packedPath = new GridPathPlanner(packed).findPath(startState, goalState);
+		boolean samePath = expectedPath == null ? packedPath == null
+				: packedPath != null && expectedPath.length == packedPath.length;
+
+		System.out.println("Cell mismatches: " + cellMismatches + " | Row scan mismatches: " + scanMismatches
+				+ " | Same path length: " + samePath);
+		System.out.println("-------------------------------------");
+		System.out.println();
+	}
+
+	// Verify that the fast text loader and both binary encodings read back the same
+	// cells as Grid.readGridFromFile
+	private static void testGridLoader() {
+		System.out.println("Testing Grid Loader:");
+		int numRows = 40;
+		int numCols = 90;
+		Grid reference = Grid.generateRandomGrid(numRows, numCols, 0.3);
+		try {
+			File textFile = File.createTempFile("grid", ".txt");
+			File rawFile = File.createTempFile("grid", ".grid");
+			File rleFile = File.createTempFile("grid", ".grid");
+			textFile.deleteOnExit();
+			rawFile.deleteOnExit();
+			rleFile.deleteOnExit();
+
+			try (PrintWriter writer = new PrintWriter(textFile)) {
+				writer.println(numRows + " " + numCols);
+				for (int row = 0; row < numRows; row++) {
+					for (int col = 0; col < numCols; col++) {
+						if (reference.isObstacle(row, col)) {
+							writer.println(row + " " + col);
+						}
+					}
+				}
+			}
+
+			Grid scanned = Grid.readGridFromFile(textFile.getPath());
+			Grid text = GridLoader.load(textFile.getPath());
+			GridLoader.writeBinary(text, rawFile.getPath(), GridLoader.ENCODING_RAW);
+			GridLoader.writeBinary(text, rleFile.getPath(), GridLoader.ENCODING_RLE);
+			Grid raw = GridLoader.load(rawFile.getPath());
+			Grid rle = GridLoader.load(rleFile.getPath());
+
+			int mismatches = 0;
+			for (int row = 0; row < numRows; row++) {
+				for (int col = 0; col < numCols; col++) {
+					boolean expected = scanned.isObstacle(row, col);
+					if (text.isObstacle(row, col) != expected || raw.isObstacle(row, col) != expected
+							|| rle.isObstacle(row, col) != expected) {
+						mismatches++;
+					}
+				}
+			}
+			System.out.println("Cell mismatches: " + mismatches + " | RLE size: " + rleFile.length()
+					+ " bytes | Raw size: " + rawFile.length() + " bytes");
+
+			// A raw file only needs read access, and obstacles set on the loaded grid never reach the file
+			rawFile.setWritable(false);
+			Grid readOnly = GridLoader.load(rawFile.getPath());
+			int freeCell = reference.isObstacle(0, 0) ? 1 : 0;
+			readOnly.setObstacle(0, freeCell);
+			System.out.println("Read-only raw file loads: true | Obstacle set: " + readOnly.isObstacle(0, freeCell)
+					+ " | File unchanged: " + !GridLoader.load(rawFile.getPath()).isObstacle(0, freeCell));
+
+			// Headers whose dimensions are not positive, too large or do not match the file are rejected
+			int rejected = 0;
+			int[][] dimensions = { { -1, numCols }, { numRows, -5 }, { numRows, 0 }, { 0, numCols },
+					{ 1 << 20, 1 << 20 }, { numRows + 1, numCols } };
+			for (int[] dimension : dimensions) {
+				File corrupt = File.createTempFile("grid", ".grid");
+				corrupt.deleteOnExit();
+				byte[] bytes = Files.readAllBytes(rawFile.toPath());
+				ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt(8, dimension[0]).putInt(12, dimension[1]);
+				// With no cells, the header alone has the length of a raw file
+				boolean empty = dimension[0] == 0 || dimension[1] == 0;
+				Files.write(corrupt.toPath(), empty ? Arrays.copyOf(bytes, 32) : bytes);
+				try {
+					GridLoader.load(corrupt.getPath());
+				} catch (IOException e) {
+					rejected++;
+				} catch (RuntimeException e) {
+					System.out.println("Header " + dimension[0] + "x" + dimension[1] + " failed with " + e);
+				}
+			}
+			System.out.println("Corrupt headers rejected: " + rejected + " of " + dimensions.length);
+
+			// A raw file of more cells than int indices reach is still mapped; the file is sparse, so it takes
+			// almost no disk space
+			File huge = File.createTempFile("grid", ".grid");
+			huge.deleteOnExit();
+			int hugeSize = 50_000;
+			byte[] header = Arrays.copyOf(Files.readAllBytes(rawFile.toPath()), 32);
+			ByteBuffer.wrap(header).order(ByteOrder.LITTLE_ENDIAN).putInt(8, hugeSize).putInt(12, hugeSize);
+			try (RandomAccessFile file = new RandomAccessFile(huge, "rw")) {
+				file.write(header);
+				file.setLength(32 + (long) hugeSize * ((hugeSize + 63) / 64) * Long.BYTES);
+			}
+			Grid hugeGrid = GridLoader.load(huge.getPath());
+			hugeGrid.setObstacle(hugeSize - 1, hugeSize - 1);
+			System.out.println(hugeSize + "x" + hugeSize + " raw file loads: " + hugeGrid.getNumRows()
+					+ " rows | Corner set: " + hugeGrid.isObstacle(hugeSize - 1, hugeSize - 1) + " | File unchanged: "
+					+ !GridLoader.load(huge.getPath()).isObstacle(hugeSize - 1, hugeSize - 1));
+		} catch (IOException e) {
+			System.out.println("Grid loader test failed: " + e.getMessage());
+		}
+		System.out.println("-------------------------------------");
+		System.out.println();
+	}
+
+	// Verify that planning a batch of queries concurrently gives the same path lengths
+	// as planning them one after another, and measure the batch throughput
+	private static void testBatchPlanner() {
+		System.out.println("Testing Batch Planner:");
+		int size = 200;
+		Grid grid = Grid.generateRandomGrid(size, size, 0.2);
+		Random random = new Random(42);
+		List<PathQuery> queries = new ArrayList<>();
+		for (int i = 0; i < 2000; i++) {
+			queries.add(new PathQuery(new RobotState(random.nextInt(size), random.nextInt(size), Direction.UP),
+					new RobotState(random.nextInt(size), random.nextInt(size), Direction.UP)));
+		}
+
+		GridPathPlanner planner = new GridPathPlanner(grid);
+		long startTime = System.nanoTime();
+		int[][] expected = new int[queries.size()][];
+		for (int i = 0; i < queries.size(); i++) {
+			expected[i] = planner.findPath(queries.get(i).getStart(), queries.get(i).getGoal());
+		}
+		long sequentialTime = System.nanoTime() - startTime;
+
+		try (BatchPathPlanner batch = new BatchPathPlanner(grid)) {
+			startTime = System.nanoTime();
+			int[][] actual = batch.planAll(queries);
+			long batchTime = System.nanoTime() - startTime;
+
+			int mismatches = 0;
+			for (int i = 0; i < queries.size(); i++) {
+				int expectedLength = expected[i] == null ? -1 : expected[i].length;
+				int actualLength = actual[i] == null ? -1 : actual[i].length;
+				if (expectedLength != actualLength) {
+					mismatches++;
+				}
+			}
+			System.out.println("Queries: " + queries.size() + " | Threads: " + batch.getParallelism()
+					+ " | Mismatches: " + mismatches);
+			System.out.println("Sequential: " + sequentialTime / 1_000_000 + " ms | Batch: " + batchTime / 1_000_000
+					+ " ms");
+		}
+		System.out.println("-------------------------------------");
+		System.out.println();
+	}
+
+	// Verify that Jump Point Search returns valid paths of the same length as A* and
+	// compare the number of expanded nodes on grids of rising density and on an open map
+	private static void testJumpPointSearch() {
+		System.out.println("Testing Jump Point Search:");
+		int mismatches = 0;
+		int invalid = 0;
+		long astarExpanded = 0;
+		long jumpPointExpanded = 0;
+		Random random = new Random(7);
+		for (int i = 0; i < 20; i++) {
+			int size = 50 + i * 10;
+			Grid grid = Grid.generateRandomGrid(size, size, 0.02 + i * 0.01, 7 + i);
+			GridPathPlanner astar = PlannerMode.ASTAR.create(grid);
+			GridPathPlanner jumpPoint = PlannerMode.JUMP_POINT.create(grid);
+			for (int q = 0; q < 10; q++) {
+				int start = random.nextInt(size * size);
+				int goal = random.nextInt(size * size);
+				int[] expected = astar.findPath(start, goal);
+				int[] actual = jumpPoint.findPath(start, goal);
+				if ((expected == null ? -1 : expected.length) != (actual == null ? -1 : actual.length)) {
+					mismatches++;
+				}
+				if (!isValidPath(grid, actual, start, goal)) {
+					invalid++;
+				}
+				astarExpanded += astar.getExpandedCount();
+				jumpPointExpanded += jumpPoint.getExpandedCount();
+			}
+		}
+		System.out.println("Rising density: A* expanded " + astarExpanded + " | JPS expanded " + jumpPointExpanded
+				+ " (" + String.format("%.1f", (double) astarExpanded / Math.max(1, jumpPointExpanded)) + "x fewer)");
+
+		// On a nearly empty map A* with its tie-breaking already heads almost straight for the goal, so the gain is
+		// of the same order there
+		int size = 300;
+		Grid open = Grid.generateRandomGrid(size, size, 0.01, 7);
+		GridPathPlanner astar = PlannerMode.ASTAR.create(open);
+		GridPathPlanner jumpPoint = PlannerMode.JUMP_POINT.create(open);
+		long openAstarExpanded = 0;
+		long openJumpPointExpanded = 0;
+		for (int q = 0; q < 20; q++) {
+			int start = random.nextInt(size * size);
+			int goal = random.nextInt(size * size);
+			int[] expected = astar.findPath(start, goal);
+			int[] actual = jumpPoint.findPath(start, goal);
+			if ((expected == null ? -1 : expected.length) != (actual == null ? -1 : actual.length)) {
+				mismatches++;
+			}
+			if (!isValidPath(open, actual, start, goal)) {
+				invalid++;
+			}
+			openAstarExpanded += astar.getExpandedCount();
+			openJumpPointExpanded += jumpPoint.getExpandedCount();
+		}
+		System.out.println("Open map: A* expanded " + openAstarExpanded + " | JPS expanded " + openJumpPointExpanded
+				+ " (" + String.format("%.1f", (double) openAstarExpanded / Math.max(1, openJumpPointExpanded))
+				+ "x fewer)");
+		System.out.println("Length mismatches: " + mismatches + " | Invalid paths: " + invalid);
+		System.out.println("-------------------------------------");
+		System.out.println();
+	}
+
+	// Helper method to check that a path (null counts as valid) runs from start to goal through free cells, each
+	// one move from the previous one
+	private static boolean isValidPath(Grid grid, int[] path, int start, int goal) {
+		if (path == null) {
+			return true;
+		}
+		int numCols = grid.getNumCols();
+		if (path[0] != start || path[path.length - 1] != goal) {
+			return false;
+		}
+		for (int i = 0; i < path.length; i++) {
+			int cell = path[i];
+			if (grid.isObstacle(cell / numCols, cell % numCols)) {
+				return false;
+			}
+			if (i > 0 && Math.abs(cell / numCols - path[i - 1] / numCols)
+					+ Math.abs(cell % numCols - path[i - 1] % numCols) != 1) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// Compare hierarchical planning with A* on a larger grid: path lengths, query latency,
+	// abstraction build time and memory, and the cost of updating one cluster
+	private static void testHierarchicalPlanner() {
+		System.out.println("Testing Hierarchical Planner:");
+		int size = 400;
+		Grid grid = Grid.generateRandomGrid(size, size, 0.2);
+		HierarchicalPlanner hierarchical = new HierarchicalPlanner(grid, 20);
+		GridPathPlanner astar = new GridPathPlanner(grid);
+		System.out.println("Build time: " + hierarchical.getBuildTimeNanos() / 1_000_000.0 + " ms | Abstract nodes: "
+				+ hierarchical.getAbstractNodeCount() + " | Memory: " + hierarchical.getAbstractionBytes() / 1024
+				+ " KB");
+
+		Random random = new Random(11);
+		int missing = 0;
+		long astarLength = 0;
+		long hierarchicalLength = 0;
+		long astarTime = 0;
+		long hierarchicalTime = 0;
+		for (int q = 0; q < 50; q++) {
+			if (q == 25) {
+				grid.setObstacle(size / 2, size / 2);
+				System.out.println("Cluster update time: " + hierarchical.getLastUpdateNanos() / 1000.0 + " us");
+			}
+			int start = random.nextInt(size / 4) * size + random.nextInt(size / 4);
+			int goal = (size - 1 - random.nextInt(size / 4)) * size + size - 1 - random.nextInt(size / 4);
+			long startTime = System.nanoTime();
+			int[] expected = astar.findPath(start, goal);
+			astarTime += System.nanoTime() - startTime;
+			int[] actual = hierarchical.findPath(start, goal);
+			hierarchicalTime += hierarchical.getLastQueryNanos();
+			if ((expected == null) != (actual == null)) {
+				missing++;
+			} else if (expected != null) {
+				astarLength += expected.length;
+				hierarchicalLength += actual.length;
+			}
+		}
+		hierarchical.detach();
+		System.out.println("Reachability mismatches: " + missing + " | Path length ratio: "
+				+ (astarLength == 0 ? 1.0 : (double) hierarchicalLength / astarLength));
+		System.out.println("A* time: " + astarTime / 1_000_000 + " ms | Hierarchical time: "
+				+ hierarchicalTime / 1_000_000 + " ms");
+
+		// Clusters rebuilt while a footprint is set must still describe single-cell moves once it is removed
+		Grid shared = Grid.generateRandomGrid(200, 200, 0.2, 11);
+		ClearanceMap clearance = new ClearanceMap(shared);
+		HierarchicalPlanner footprintHierarchical = new HierarchicalPlanner(shared, 20);
+		GridPathPlanner sharedAstar = new GridPathPlanner(shared);
+		footprintHierarchical.setFootprint(clearance, 1);
+		for (int i = 0; i < 100; i++) {
+			shared.setObstacle(random.nextInt(200), random.nextInt(200)); // Rebuilds the clusters around each cell
+		}
+		footprintHierarchical.setFootprint(null, 0);
+		int footprintMissing = 0;
+		for (int q = 0; q < 50; q++) {
+			int start = random.nextInt(200 * 200);
+			int goal = random.nextInt(200 * 200);
+			if ((sharedAstar.findPath(start, goal) == null) != (footprintHierarchical.findPath(start, goal) == null)) {
+				footprintMissing++;
+			}
+		}
+		footprintHierarchical.detach();
+		clearance.detach();
+		System.out.println("Reachability mismatches after a footprint was removed: " + footprintMissing);
+		System.out.println("-------------------------------------");
+		System.out.println();
+	}
+
+	// Drive a robot along its path while obstacles appear ahead of it, replanning with
+	// D* Lite after each change, and compare against a fresh A* search from the robot
+	private static void testIncrementalReplanning() {
+		System.out.println("Testing Incremental Replanning:");
+		int size = 150;
+		Grid grid = Grid.generateRandomGrid(size, size, 0.1, 13);
+		grid.clearObstacle(0, 0);
+		grid.clearObstacle(size - 1, size - 1);
+		Random random = new Random(13);
+		RobotState goalState = new RobotState(size - 1, size - 1, Direction.UP);
+		RobotState robot = new RobotState(0, 0, Direction.UP);
+		DStarLitePlanner dstar = new DStarLitePlanner(grid, robot, goalState);
+		GridPathPlanner astar = new GridPathPlanner(grid);
+
+		int[] path = dstar.plan();
+		int replans = 0;
+		int mismatches = 0;
+		long dstarExpanded = 0;
+		long astarExpanded = 0;
+		long dstarTime = 0;
+		long astarTime = 0;
+		while (path != null && path.length > 1) {
+			robot = new RobotState(path[1] / size, path[1] % size, Direction.UP);
+			if (replans % 5 == 0 && path.length > 10) {
+				// An obstacle is discovered a few cells ahead of the robot
+				int blocked = path[2 + random.nextInt(8)];
+				grid.setObstacle(blocked / size, blocked % size);
+			}
+
+			path = dstar.replan(robot);
+			long startTime = System.nanoTime();
+			int[] expected = astar.findPath(robot.getRow() * size + robot.getColumn(), size * size - 1);
+			astarTime += System.nanoTime() - startTime;
+			dstarTime += dstar.getLastPlanNanos();
+			dstarExpanded += dstar.getLastExpanded();
+			astarExpanded += astar.getExpandedCount();
+			if ((path == null ? -1 : path.length) != (expected == null ? -1 : expected.length)) {
+				mismatches++;
+			}
+			replans++;
+		}
+		dstar.detach();
+		// A run that never replans or stops short of the goal has checked nothing, so it counts as a mismatch
+		boolean reachedGoal = path != null && robot.getRow() == size - 1 && robot.getColumn() == size - 1;
+		if (replans == 0 || !reachedGoal) {
+			mismatches++;
+		}
+		System.out.println("Replans: " + replans + " | Length mismatches: " + mismatches + " | Reached goal: "
+				+ reachedGoal);
+		System.out.println("D* Lite expanded: " + dstarExpanded + " (" + dstarTime / 1_000_000 + " ms) | A* expanded: "
+				+ astarExpanded + " (" + astarTime / 1_000_000 + " ms)");
+		System.out.println("-------------------------------------");
+		System.out.println();
+	}
+
+	// Replay repeated dock-to-shelf style queries through the path cache, block a cell
+	// on one cached route, and check that stale paths are never returned
+	private static void testPathCache() {
+		System.out.println("Testing Path Cache:");
+		int size = 60;
+		Grid grid = Grid.generateRandomGrid(size, size, 0.1);
+		GridPathPlanner planner = new GridPathPlanner(grid);
+		PathCache cache = new PathCache(new GridPathPlanner(grid), 2000);
+		Random random = new Random(17);
+		int[] stations = new int[12];
+		for (int i = 0; i < stations.length; i++) {
+			stations[i] = random.nextInt(size * size);
+		}
+
+		int stale = 0;
+		for (int q = 0; q < 600; q++) {
+			int start = stations[random.nextInt(stations.length)];
+			int goal = stations[random.nextInt(stations.length)];
+			int[] cached = cache.findPath(start, goal);
+			if (q % 100 == 99 && cached != null && cached.length > 2) {
+				int blocked = cached[cached.length / 2];
+				grid.setObstacle(blocked / size, blocked % size); // Only paths through this cell are dropped
+			}
+			int[] expected = planner.findPath(start, goal);
+			int[] actual = cache.findPath(start, goal);
+			if ((expected == null ? -1 : expected.length) != (actual == null ? -1 : actual.length)) {
+				stale++;
+			}
+		}
+		cache.detach();
+		System.out.println("Hits: " + cache.getHits() + " | Misses: " + cache.getMisses() + " | Evictions: "
+				+ cache.getEvictions() + " | Invalidations: " + cache.getInvalidations() + " | Stale results: " + stale);
+
+		// In front of a planner for a 3x3 robot, an obstacle next to a cached path blocks it without lying on it
+		Grid open = new Grid(40, 40);
+		ClearanceMap clearance = new ClearanceMap(open);
+		GridPathPlanner footprintPlanner = new GridPathPlanner(open);
+		footprintPlanner.setFootprint(clearance, 1);
+		PathCache footprintCache = new PathCache(footprintPlanner, 2000);
+		int start = 5 * 40 + 5;
+		int goal = 34 * 40 + 34;
+		int unfit = 0;
+		for (int i = 0; i < 20; i++) {
+			int[] cached = footprintCache.findPath(start, goal);
+			if (cached == null || cached.length < 3) {
+				break;
+			}
+			// Block a free cell diagonally next to the middle of the path, off the path itself
+			int middle = cached[cached.length / 2];
+			for (int corner = 0; corner < 4; corner++) {
+				int blocked = middle + (corner < 2 ? 40 : -40) + (corner % 2 == 0 ? 1 : -1);
+				boolean onPath = false;
+				for (int cell : cached) {
+					onPath |= cell == blocked;
+				}
+				if (!onPath && !open.isObstacle(blocked / 40, blocked % 40)) {
+					open.setObstacle(blocked / 40, blocked % 40);
+					break;
+				}
+			}
+			int[] path = footprintCache.findPath(start, goal);
+			for (int cell = 0; path != null && cell < path.length; cell++) {
+				if (!clearance.fits(path[cell], 1)) {
+					unfit++;
+					break;
+				}
+			}
+		}
+		footprintCache.detach();
+		clearance.detach();
+		System.out.println("Radius 1 cached paths the robot no longer fits along: " + unfit + " | Invalidations: "
+				+ footprintCache.getInvalidations());
+		System.out.println("-------------------------------------");
+		System.out.println();
+	}
+
+	private static void testSearchMetrics() {
+		System.out.println("Testing Search Metrics:");
+		int size = 100;
+		Grid grid = Grid.generateRandomGrid(size, size, 0.2);
+		GridPathPlanner planner = new GridPathPlanner(grid);
+		SearchMetrics metrics = new SearchMetrics();
+		planner.setMetrics(metrics);
+		Random random = new Random(23);
+		long expanded = 0;
+		int maxHeap = 0;
+		for (int q = 0; q < 200; q++) {
+			planner.findPath(random.nextInt(size * size), random.nextInt(size * size));
+			expanded += planner.getExpandedCount();
+			maxHeap = Math.max(maxHeap, planner.getHeapHighWater());
+		}
+		planner.setMetrics(null);
+		planner.findPath(0, size * size - 1); // Not recorded
+
+		LatencyHistogram latency = metrics.getLatency();
+		boolean ordered = latency.getPercentile(0.5) <= latency.getPercentile(0.99)
+				&& latency.getPercentile(0.99) <= latency.getMax();
+		System.out.println("Queries recorded: " + metrics.getQueries() + " (expected 200) | Expansion totals match: "
+				+ (metrics.getExpanded() == expanded) + " | Heap high-water matches: "
+				+ (metrics.getMaxHeapSize() == maxHeap) + " | Percentiles ordered: " + ordered);
+		metrics.printSummary();
+		System.out.println("-------------------------------------");
+		System.out.println();
+	}
+
+	private static void testBidirectionalSearch() {
+		System.out.println("Testing Bidirectional Search:");
+		int size = 300;
+		Grid grid = Grid.generateRandomGrid(size, size, 0.25, 29);
+		grid.clearObstacle(0, 0); // The corners are compared across all planner modes below
+		grid.clearObstacle(size - 1, size - 1);
+		GridPathPlanner astar = PlannerMode.ASTAR.create(grid);
+		GridPathPlanner bidirectional = PlannerMode.BIDIRECTIONAL.create(grid);
+		Random random = new Random(29);
+		int mismatches = 0;
+		int invalid = 0;
+		long astarExpanded = 0;
+		long bidirectionalExpanded = 0;
+		for (int q = 0; q < 300; q++) {
+			int start = random.nextInt(size * size);
+			int goal = random.nextInt(size * size);
+			int[] expected = astar.findPath(start, goal);
+			int[] actual = bidirectional.findPath(start, goal);
+			astarExpanded += astar.getExpandedCount();
+			bidirectionalExpanded += bidirectional.getExpandedCount();
+			if ((expected == null ? -1 : expected.length) != (actual == null ? -1 : actual.length)) {
+				mismatches++;
+			}
+			if (actual != null && (actual[0] != start || actual[actual.length - 1] != goal)) {
+				invalid++;
+			}
+			for (int i = 1; actual != null && i < actual.length; i++) {
+				int a = actual[i - 1];
+				int b = actual[i];
+				if (grid.isObstacle(b / size, b % size) || Math.abs(a / size - b / size) + Math.abs(a % size - b % size) != 1) {
+					invalid++;
+					break;
+				}
+			}
+		}
+		System.out.println("Length mismatches: " + mismatches + " | Invalid paths: " + invalid);
+		System.out.println("A* expanded: " + astarExpanded + " | Bidirectional expanded: " + bidirectionalExpanded);
+		PathPlanningSimulation.comparePlanners(grid, new RobotState(0, 0, Direction.UP),
+				new RobotState(size - 1, size - 1, Direction.UP));
+		System.out.println("-------------------------------------");
+		System.out.println();
+	}
+
+	private static void testConnectivityIndex() {
+		System.out.println("Testing Connectivity Index:");
+		int size = 300;
+		Grid grid = Grid.generateRandomGrid(size, size, 0.35);
+		ConnectivityIndex index = new ConnectivityIndex(grid);
+		GridPathPlanner planner = new GridPathPlanner(grid);
+		Random random = new Random(31);
+		int mismatches = 0;
+		for (int q = 0; q < 400; q++) {
+			if (q % 2 == 1) {
+				grid.setObstacle(random.nextInt(size), random.nextInt(size)); // Updated incrementally or lazily
+			}
+			int start = random.nextInt(size * size);
+			int goal = random.nextInt(size * size);
+			if (start != goal && index.isConnected(start, goal) != (planner.findPath(start, goal) != null)) {
+				mismatches++;
+			}
+		}
+		System.out.println("Components: " + index.getComponentCount() + " | Rebuilds: " + index.getRebuildCount()
+				+ " of 200 obstacle changes | Mismatches: " + mismatches);
+
+		// Planner threads sharing an index while obstacles keep splitting components: the two free rows at the top
+		// stay connected, so no query along them may be rejected
+		Grid shared = new Grid(400, 400);
+		for (int cell = 800; cell < 400 * 400; cell++) {
+			if (random.nextInt(100) < 40) {
+				shared.setObstacle(cell / 400, cell % 400);
+			}
+		}
+		ConnectivityIndex sharedIndex = new ConnectivityIndex(shared);
+		int[] concurrent = queryWhileEditing(
+				readerRandom -> sharedIndex.isConnected(readerRandom.nextInt(400), 400 + readerRandom.nextInt(400)),
+				() -> {
+					for (int i = 0; i < 3000; i++) {
+						shared.setObstacle(2 + random.nextInt(398), random.nextInt(400));
+						if (i % 100 == 99) {
+							Thread.yield();
+						}
+					}
+				});
+		sharedIndex.detach();
+		System.out.println("Concurrent queries: " + concurrent[0] + " | Wrongly rejected: " + concurrent[1]
+				+ " | Rebuilds: " + sharedIndex.getRebuildCount());
+
+		// A wall across the middle of a large grid: plain A* floods the start's half before giving up
+		int wallSize = 1000;
+		Grid walled = new Grid(wallSize, wallSize);
+		for (int col = 0; col < wallSize; col++) {
+			walled.setObstacle(wallSize / 2, col);
+		}
+		GridPathPlanner unchecked = new GridPathPlanner(walled);
+		GridPathPlanner checked = new GridPathPlanner(walled);
+		ConnectivityIndex wallIndex = new ConnectivityIndex(walled);
+		checked.setConnectivity(wallIndex);
+		long startTime = System.nanoTime();
+		int[] floodResult = unchecked.findPath(0, wallSize * wallSize - 1);
+		long floodTime = System.nanoTime() - startTime;
+		startTime = System.nanoTime();
+		int[] rejectResult = checked.findPath(0, wallSize * wallSize - 1);
+		long rejectTime = System.nanoTime() - startTime;
+		System.out.println("Both rejected: " + (floodResult == null && rejectResult == null) + " | Index build: "
+				+ wallIndex.getBuildTimeNanos() / 1_000_000.0 + " ms");
+		System.out.println("A* flood: " + floodTime / 1_000_000.0 + " ms (" + unchecked.getExpandedCount()
+				+ " expanded) | With index: " + rejectTime / 1_000.0 + " us (" + checked.getExpandedCount()
+				+ " expanded)");
+		index.detach();
+		wallIndex.detach();
+		System.out.println("-------------------------------------");
+		System.out.println();
+	}
+
+	private static void testOrientedPlanner() {
+		System.out.println("Testing Orientation-Aware Planner:");
+		int size = 80;
+		Grid grid = Grid.generateRandomGrid(size, size, 0.2);
+		GridPathPlanner astar = new GridPathPlanner(grid);
+		OrientedPathPlanner noTurnCost = new OrientedPathPlanner(grid, 1, 0);
+		OrientedPathPlanner cheapTurns = new OrientedPathPlanner(grid, 1, 0.5f);
+		OrientedPathPlanner costlyTurns = new OrientedPathPlanner(grid, 1, 5);
+		Random random = new Random(37);
+		int lengthMismatches = 0;
+		int invalid = 0;
+		long cheapTurnCount = 0;
+		long costlyTurnCount = 0;
+		for (int q = 0; q < 200; q++) {
+			int start = random.nextInt(size * size);
+			int goal = random.nextInt(size * size);
+			RobotState startState = new RobotState(start / size, start % size, Direction.values()[random.nextInt(4)]);
+			RobotState goalState = new RobotState(goal / size, goal % size, null);
+			int[] cells = astar.findPath(start, goal);
+
+			// Without turn costs the number of moves matches the cell path
+			List<RobotState> free = noTurnCost.findPath(startState, goalState);
+			if ((cells == null ? -1 : cells.length - 1) != (free == null ? -1 : (int) noTurnCost.getLastCost())) {
+				lengthMismatches++;
+			}
+
+			List<RobotState> cheap = cheapTurns.findPath(startState, goalState);
+			List<RobotState> costly = costlyTurns.findPath(startState, goalState);
+			if (cheap == null || costly == null) {
+				continue;
+			}
+			for (List<RobotState> path : List.of(cheap, costly)) {
+				for (int i = 1; i < path.size(); i++) {
+					RobotState a = path.get(i - 1);
+					RobotState b = path.get(i);
+					int moved = Math.abs(a.getRow() - b.getRow()) + Math.abs(a.getColumn() - b.getColumn());
+					boolean turned = a.getOrientation() != b.getOrientation();
+					if (moved + (turned ? 1 : 0) != 1 || grid.isObstacle(b.getRow(), b.getColumn())) {
+						invalid++;
+					}
+				}
+			}
+			cheapTurnCount += countTurns(cheap);
+			costlyTurnCount += countTurns(costly);
+		}
+		System.out.println("Move count mismatches: " + lengthMismatches + " | Invalid steps: " + invalid);
+		System.out.println("Turns with turn cost 0.5: " + cheapTurnCount + " | Turns with turn cost 5: "
+				+ costlyTurnCount);
+		System.out.println("-------------------------------------");
+		System.out.println();
+	}
+
+	private static int countTurns(List<RobotState> path) {
+		int turns = 0;
+		for (int i = 1; i < path.size(); i++) {
+			if (path.get(i - 1).getOrientation() != path.get(i).getOrientation()) {
+				turns++;
+			}
+		}
+		return turns;
+	}
+
+	private static void testCooperativePlanner() {
+		System.out.println("Testing Cooperative Planner:");
+		int size = 100;
+		int robots = 200;
+		Grid grid = Grid.generateRandomGrid(size, size, 0.1);
+		Random random = new Random(41);
+		List<PathQuery> queries = new ArrayList<>();
+		boolean[] usedStart = new boolean[size * size];
+		boolean[] usedGoal = new boolean[size * size];
+		while (queries.size() < robots) {
+			int start = random.nextInt(size * size);
+			int goal = random.nextInt(size * size);
+			if (usedStart[start] || usedGoal[goal] || grid.isObstacle(start / size, start % size)
+					|| grid.isObstacle(goal / size, goal % size)) {
+				continue;
+			}
+			usedStart[start] = true;
+			usedGoal[goal] = true;
+			queries.add(new PathQuery(new RobotState(start / size, start % size, Direction.UP),
+					new RobotState(goal / size, goal % size, Direction.UP)));
+		}
+
+		CooperativePlanner.Result result = new CooperativePlanner(grid).planAll(queries);
+		int[][] paths = result.getPaths();
+
+		// Every robot (unplanned ones stay at their start) must be alone in its cell at every time step and
+		// no two robots may swap cells
+		int horizon = result.getMakespan() + 1;
+		int conflicts = 0;
+		int[] occupant = new int[size * size];
+		int[] previous = new int[robots];
+		for (int t = 0; t <= horizon; t++) {
+			Arrays.fill(occupant, -1);
+			for (int r = 0; r < robots; r++) {
+				int cell = cellAt(paths[r], queries.get(r), size, t);
+				if (occupant[cell] != -1) {
+					conflicts++;
+				}
+				occupant[cell] = r;
+			}
+			for (int r = 0; t > 0 && r < robots; r++) {
+				int cell = cellAt(paths[r], queries.get(r), size, t);
+				int other = occupant[previous[r]];
+				if (other != -1 && other != r && previous[other] == cell && cell != previous[r]) {
+					conflicts++; // r and other swapped cells
+				}
+			}
+			for (int r = 0; r < robots; r++) {
+				previous[r] = cellAt(paths[r], queries.get(r), size, t);
+			}
+		}
+		System.out.println("Robots: " + robots + " | Unplanned: " + result.getUnplanned() + " | Conflicts: "
+				+ conflicts);
+		System.out.println("Makespan: " + result.getMakespan() + " | Sum of costs: " + result.getSumOfCosts()
+				+ " | Planning time: " + result.getPlanningNanos() / 1_000_000.0 + " ms");
+		System.out.println("-------------------------------------");
+		System.out.println();
+	}
+
+	private static int cellAt(int[] path, PathQuery query, int size, int t) {
+		if (path == null) {
+			return query.getStart().getRow() * size + query.getStart().getColumn();
+		}
+		return path[Math.min(t, path.length - 1)];
+	}
+
+	private static void testAnytimePlanner() {
+		System.out.println("Testing Anytime Planner:");
+		int size = 400;
+		Grid grid = Grid.generateRandomGrid(size, size, 0.3);
+		GridPathPlanner astar = new GridPathPlanner(grid);
+		AnytimePlanner anytime = new AnytimePlanner(grid);
+		Random random = new Random(43);
+		int mismatches = 0;
+		int boundViolations = 0;
+		int cycles = 0;
+		int firstCycleAnswers = 0;
+		for (int q = 0; q < 50; q++) {
+			int start = random.nextInt(size * size);
+			int goal = random.nextInt(size * size);
+			int[] optimal = astar.findPath(start, goal);
+			AnytimePlanner.Result result;
+			int cycle = 0;
+			do {
+				result = anytime.plan(start, goal, 200_000); // 0.2 ms planning cycles
+				cycle++;
+				if (cycle == 1 && (result.getPath() != null || result.isComplete())) {
+					firstCycleAnswers++;
+				}
+				if (result.getPath() != null && optimal != null
+						&& result.getPath().length - 1 > result.getBound() * (optimal.length - 1) + 1e-3) {
+					boundViolations++;
+				}
+			} while (!result.isComplete());
+			cycles += cycle;
+			if ((optimal == null ? -1 : optimal.length) != (result.getPath() == null ? -1 : result.getPath().length)) {
+				mismatches++;
+			}
+		}
+		System.out.println("Final length mismatches: " + mismatches + " | Bound violations: " + boundViolations);
+		System.out.println("Answered in first cycle: " + firstCycleAnswers + " of 50 | Cycles: " + cycles);
+		System.out.println("-------------------------------------");
+		System.out.println();
+	}
+
+	private static void testLandmarkHeuristic() {
+		System.out.println("Testing Landmark Heuristic:");
+		// Serpentine walls with a gap at alternating ends, so Manhattan distance badly underestimates
+		int size = 300;
+		Grid grid = new Grid(size, size);
+		for (int row = 3; row < size; row += 4) {
+			int gap = (row / 4) % 2 == 0 ? size - 1 : 0;
+			for (int col = 0; col < size; col++) {
+				if (col != gap) {
+					grid.setObstacle(row, col);
+				}
+			}
+		}
+		LandmarkHeuristic landmarks = new LandmarkHeuristic(grid, 8);
+		GridPathPlanner manhattan = new GridPathPlanner(grid);
+		GridPathPlanner guided = new GridPathPlanner(grid);
+		guided.setHeuristic(landmarks);
+		Random random = new Random(47);
+		int mismatches = 0;
+		long manhattanExpanded = 0;
+		long guidedExpanded = 0;
+		for (int q = 0; q < 50; q++) {
+			int start = random.nextInt(size * size);
+			int goal = random.nextInt(size * size);
+			int[] expected = manhattan.findPath(start, goal);
+			int[] actual = guided.findPath(start, goal);
+			manhattanExpanded += manhattan.getExpandedCount();
+			guidedExpanded += guided.getExpandedCount();
+			if ((expected == null ? -1 : expected.length) != (actual == null ? -1 : actual.length)) {
+				mismatches++;
+			}
+		}
+		System.out.println("Landmarks: " + landmarks.getLandmarks().length + " | Build: "
+				+ landmarks.getBuildTimeNanos() / 1_000_000.0 + " ms | Memory: " + landmarks.getMemoryBytes() / 1024
+				+ " KB");
+		System.out.println("Expanded with Manhattan: " + manhattanExpanded + " | With landmarks: " + guidedExpanded
+				+ " (" + 100 * guidedExpanded / Math.max(1, manhattanExpanded) + "%) | Length mismatches: "
+				+ mismatches);
+
+		// Added obstacles keep the bounds valid; after a reset the heuristic falls back to Manhattan until rebuilt
+		grid.setObstacle(size / 2 + 1, size / 2);
+		boolean validAfterBlock = !landmarks.isStale();
+		grid.generateRandomObstacles(0.2);
+		boolean staleAfterReset = landmarks.isStale();
+		landmarks.rebuild();
+		System.out.println("Valid after new obstacle: " + validAfterBlock + " | Stale after reset: "
+				+ staleAfterReset + " | Valid after rebuild: " + !landmarks.isStale());
+		landmarks.detach();
+
+		// A maze of single-row corridors, longer than the 16-bit distances reach from the landmark in its first
+		// corridor. The heuristic towards a goal next to the landmark must still change by at most one per move,
+		// or A* (which never reopens cells) can return longer paths.
+		int mazeRows = 500;
+		Grid maze = new Grid(mazeRows, size);
+		for (int row = 1; row < mazeRows; row += 2) {
+			int gap = (row / 2) % 2 == 0 ? size - 1 : 0;
+			for (int col = 0; col < size; col++) {
+				if (col != gap) {
+					maze.setObstacle(row, col);
+				}
+			}
+		}
+		LandmarkHeuristic saturated = new LandmarkHeuristic(maze, new int[] { 0 });
+		int goal = 1;
+		int inconsistent = 0;
+		for (int cell = 0; cell + size < mazeRows * size; cell++) {
+			int[] neighbors = { cell + 1, cell + size };
+			for (int neighbor : neighbors) {
+				if ((neighbor % size != 0 || neighbor == cell + size) && !maze.isObstacle(cell / size, cell % size)
+						&& !maze.isObstacle(neighbor / size, neighbor % size)
+						&& Math.abs(saturated.estimate(cell, goal) - saturated.estimate(neighbor, goal)) > 1) {
+					inconsistent++;
+				}
+			}
+		}
+		int[] mazeDistances = bruteForceDistances(maze, goal);
+		GridPathPlanner mazePlanner = new GridPathPlanner(maze);
+		mazePlanner.setHeuristic(saturated);
+		int longer = 0;
+		int farthest = 0;
+		for (int q = 0; q < 10; q++) {
+			int start = (mazeRows - 2 - 2 * random.nextInt(40)) * size + random.nextInt(size);
+			int[] path = mazePlanner.findPath(start, goal);
+			if (path == null || path.length - 1 != mazeDistances[start]) {
+				longer++;
+			}
+			farthest = Math.max(farthest, mazeDistances[start]);
+		}
+		saturated.detach();
+		System.out.println("Maze paths up to " + farthest + " moves | Inconsistent moves: " + inconsistent
+				+ " | Longer or missing paths: " + longer);
+		System.out.println("-------------------------------------");
+		System.out.println();
+	}
+
+	private static void testGridRenderer() {
+		System.out.println("Testing Grid Renderer:");
+		// The buffered output must match drawing each cell with its own print call, for widths around word edges
+		Random random = new Random(53);
+		int mismatches = 0;
+		int[][] sizes = { { 1, 1 }, { 10, 10 }, { 7, 63 }, { 9, 64 }, { 5, 65 }, { 40, 130 } };
+		for (int[] size : sizes) {
+			Grid grid = Grid.generateRandomGrid(size[0], size[1], 0.3);
+			GridPathPlanner planner = new GridPathPlanner(grid);
+			int start = random.nextInt(size[0] * size[1]);
+			int goal = random.nextInt(size[0] * size[1]);
+			int[] path = planner.findPath(start, goal);
+			GridRenderer renderer = new GridRenderer(grid);
+			renderer.setStart(start / size[1], start % size[1]);
+			renderer.setGoal(goal / size[1], goal % size[1]);
+			renderer.markPath(path);
+			if (!renderToString(renderer).equals(renderCellByCell(grid, start, goal, path))) {
+				mismatches++;
+			}
+		}
+		System.out.println("Output mismatches: " + mismatches + " of " + sizes.length + " grids");
+
+		// A large grid with a long path, drawn in full and downsampled
+		int size = 2000;
+		Grid grid = Grid.generateRandomGrid(size, size, 0.2);
+		GridPathPlanner planner = new GridPathPlanner(grid);
+		int[] path = planner.findPath(0, size * size - 1);
+		GridRenderer renderer = new GridRenderer(grid);
+		renderer.markPath(path);
+		long startTime = System.nanoTime();
+		int fullLength = renderToString(renderer).length();
+		long fullTime = System.nanoTime() - startTime;
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		renderer.renderFitted(new PrintStream(bytes), 50, 100);
+		long lines = bytes.toString().lines().count();
+		System.out.println("Full " + size + "x" + size + " frame: " + fullLength + " chars in "
+				+ fullTime / 1_000_000.0 + " ms | Downsampled lines: " + lines + " (1 header + 50 rows)");
+		System.out.println("-------------------------------------");
+		System.out.println();
+	}
+
+	// Helper method to capture the full rendering of a grid
+	private static String renderToString(GridRenderer renderer) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		renderer.render(new PrintStream(bytes));
+		return bytes.toString();
+	}
+
+	// Helper method to draw a grid the way the simulation did before GridRenderer existed
+	private static String renderCellByCell(Grid grid, int start, int goal, int[] path) {
+		int numCols = grid.getNumCols();
+		boolean[] onPath = new boolean[grid.getNumRows() * numCols];
+		if (path != null) {
+			for (int cell : path) {
+				onPath[cell] = true;
+			}
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		PrintStream out = new PrintStream(bytes);
+		for (int row = 0; row < grid.getNumRows(); row++) {
+			for (int col = 0; col < numCols; col++) {
+				int cell = row * numCols + col;
+				if (grid.isObstacle(row, col)) {
+					out.print("# ");
+				} else if (cell == start) {
+					out.print("S ");
+				} else if (cell == goal) {
+					out.print("G ");
+				} else if (onPath[cell]) {
+					out.print("* ");
+				} else {
+					out.print(". ");
+				}
+			}
+			out.println();
+		}
+		out.flush();
+		return bytes.toString();
+	}
+
+	private static void testBatchScenarioRunner() {
+		System.out.println("Testing Batch Scenario Runner:");
+		int size = 200;
+		Grid grid = Grid.generateRandomGrid(size, size, 0.25);
+		Random random = new Random(59);
+		int[][] queries = new int[500][];
+		StringBuilder scenario = new StringBuilder("# start_row start_col goal_row goal_col\n\n");
+		for (int q = 0; q < queries.length; q++) {
+			queries[q] = new int[] { random.nextInt(size), random.nextInt(size), random.nextInt(size),
+					random.nextInt(size) };
+			scenario.append(queries[q][0]).append(q % 2 == 0 ? " " : ",").append(queries[q][1]).append(' ')
+					.append(queries[q][2]).append('\t').append(queries[q][3]).append('\n');
+		}
+		scenario.append("1 2 three 4\n");
+
+		try {
+			BatchScenarioRunner csvRunner = new BatchScenarioRunner(grid, PlannerMode.ASTAR, "csv");
+			StringWriter csv = new StringWriter();
+			csvRunner.run(new BufferedReader(new StringReader(scenario.toString())), csv);
+			BatchScenarioRunner jsonRunner = new BatchScenarioRunner(grid, PlannerMode.JUMP_POINT, "jsonl");
+			StringWriter jsonl = new StringWriter();
+			jsonRunner.run(new BufferedReader(new StringReader(scenario.toString())), jsonl);
+
+			// Compare the reported path lengths with planning each query directly
+			GridPathPlanner planner = new GridPathPlanner(grid);
+			String[] rows = csv.toString().split("\n");
+			String[] lines = jsonl.toString().split("\n");
+			int mismatches = 0;
+			for (int q = 0; q < queries.length; q++) {
+				int[] path = planner.findPath(queries[q][0] * size + queries[q][1],
+						queries[q][2] * size + queries[q][3]);
+				String length = String.valueOf(path == null ? 0 : path.length);
+				if (!rows[q + 1].split(",")[6].equals(length) || !lines[q].contains("\"length\":" + length + ",")) {
+					mismatches++;
+				}
+			}
+			System.out.println("Queries: " + csvRunner.getQueries() + " | Invalid lines: " + csvRunner.getInvalidLines()
+					+ " | CSV rows: " + (rows.length - 1) + " | JSON lines: " + lines.length + " | Length mismatches: "
+					+ mismatches);
+		} catch (IOException e) {
+			System.out.println("Batch scenario test failed: " + e.getMessage());
+		}
+		System.out.println("-------------------------------------");
+		System.out.println();
+	}
+
+	private static void testTerrainCosts() {
+		System.out.println("Testing Terrain Costs:");
+		int size = 150;
+		Grid grid = Grid.generateRandomGrid(size, size, 0.2);
+		Random random = new Random(61);
+		addCostZones(grid, random, 40);
+		GridPathPlanner[] planners = { new GridPathPlanner(grid), new BidirectionalPlanner(grid),
+				new JumpPointPlanner(grid), new AnytimePlanner(grid) };
+		int mismatches = 0;
+		for (int q = 0; q < 100; q++) {
+			int start = random.nextInt(size * size);
+			int goal = random.nextInt(size * size);
+			long expected = weightedDistance(grid, start, goal);
+			for (GridPathPlanner planner : planners) {
+				int[] path = planner.findPath(start, goal);
+				if ((path == null ? -1 : planner.getPathCost(path)) != expected) {
+					mismatches++;
+				}
+			}
+		}
+		System.out.println("Min cell cost: " + grid.getMinCellCost() + " | Cost mismatches against Dijkstra: "
+				+ mismatches + " (A*, bidirectional, JPS, anytime)");
+
+		// Loading a cost layer from a file
+		try {
+			File costFile = File.createTempFile("costs", ".txt");
+			costFile.deleteOnExit();
+			try (PrintWriter writer = new PrintWriter(costFile)) {
+				writer.println("0 0 7");
+				writer.println("3 4 200");
+			}
+			Grid loaded = new Grid(5, 5);
+			int count = GridLoader.loadCellCosts(loaded, costFile.getPath());
+			System.out.println("Loaded costs: " + count + " | (3, 4): " + loaded.getCellCost(3, 4) + " | (1, 1): "
+					+ loaded.getCellCost(1, 1));
+		} catch (IOException e) {
+			System.out.println("Cost file test failed: " + e.getMessage());
+		}
+
+		// Cached weighted paths follow cost changes, also when an obstacle event arrives after them
+		Grid walled = new Grid(30, 30);
+		for (int row = 0; row < 30; row++) {
+			walled.setCellCost(row, 15, 100);
+		}
+		GridPathPlanner walledPlanner = new GridPathPlanner(walled);
+		PathCache cache = new PathCache(new GridPathPlanner(walled), 1000);
+		int staleCosts = 0;
+		for (int change = 0; change < 4; change++) {
+			cache.findPath(0, 29);
+			if (change == 0) {
+				walled.setCellCost(0, 15, 1); // Cheaper, so the detour through it is no longer optimal
+			} else if (change == 1) {
+				walled.setCellCost(0, 10, 50); // On the cached path
+			} else if (change == 2) {
+				walled.clearCellCosts();
+			} else {
+				walled.setCellCost(29, 29, 5); // Not on the cached path, which stays valid
+			}
+			walled.setObstacle(29, change);
+			int[] cached = cache.findPath(0, 29);
+			if (walledPlanner.getPathCost(cached) != walledPlanner.getPathCost(walledPlanner.findPath(0, 29))) {
+				staleCosts++;
+			}
+		}
+		cache.detach();
+		System.out.println("Stale cached costs after cost changes: " + staleCosts + " | Hits: " + cache.getHits()
+				+ " | Invalidations: " + cache.getInvalidations());
+
+		// Replacing the cells drops the cost layer, including a minimum cost that was waiting to be recomputed
+		Grid replaced = new Grid(10, 10);
+		replaced.setCellCost(0, 0, 5);
+		replaced.setGrid(new boolean[10][10]);
+		try {
+			int[] path = new GridPathPlanner(replaced).findPath(0, 99);
+			System.out.println("Path after replacing a weighted grid: " + (path == null ? -1 : path.length)
+					+ " cells | Min cost: " + replaced.getMinCellCost());
+		} catch (RuntimeException e) {
+			System.out.println("Planning after replacing a weighted grid failed: " + e);
+		}
+
+		// Two routes around a wall that part only once their cost is past 2^25, where floats are 4 apart: costs of
+		// 251 and 253 would both round to 252, hiding that the upper route is the cheaper one
+		int length = 150000;
+		Grid corridors = new Grid(3, length);
+		for (int row = 0; row < 3; row++) {
+			for (int col = 0; col < length; col++) {
+				corridors.setCellCost(row, col, col < length - 100 ? Grid.MAX_CELL_COST : row == 0 ? 251 : 253);
+			}
+		}
+		for (int col = 1; col < length - 1; col++) {
+			corridors.setObstacle(1, col);
+		}
+		corridors.setCellCost(1, length - 1, Grid.MAX_CELL_COST);
+		corridors.setCellCost(2, length - 2, 249);
+		long cheaper = weightedDistance(corridors, length, 2 * length - 1);
+		GridPathPlanner[] corridorPlanners = { new GridPathPlanner(corridors), new BidirectionalPlanner(corridors),
+				new JumpPointPlanner(corridors), new AnytimePlanner(corridors) };
+		int inexact = 0;
+		for (GridPathPlanner planner : corridorPlanners) {
+			int[] path = planner.findPath(length, 2 * length - 1);
+			if (path == null || planner.getPathCost(path) != cheaper) {
+				inexact++;
+			}
+		}
+		System.out.println("Route cost: " + cheaper + " | Planners missing the cheaper route: " + inexact);
+
+		// Weighted routing should stay within a small factor of the uniform-cost speed
+		int large = 600;
+		Grid uniform = Grid.generateRandomGrid(large, large, 0.2);
+		Grid weighted = new Grid(large, large);
+		for (int row = 0; row < large; row++) {
+			for (int col = 0; col < large; col++) {
+				if (uniform.isObstacle(row, col)) {
+					weighted.setObstacle(row, col);
+				}
+			}
+		}
+		addCostZones(weighted, random, 200);
+		GridPathPlanner uniformPlanner = new GridPathPlanner(uniform);
+		GridPathPlanner weightedPlanner = new GridPathPlanner(weighted);
+		long uniformTime = 0;
+		long weightedTime = 0;
+		for (int q = 0; q < 60; q++) {
+			int start = random.nextInt(large * large);
+			int goal = random.nextInt(large * large);
+			long startTime = System.nanoTime();
+			uniformPlanner.findPath(start, goal);
+			uniformTime += System.nanoTime() - startTime;
+			startTime = System.nanoTime();
+			weightedPlanner.findPath(start, goal);
+			weightedTime += System.nanoTime() - startTime;
+		}
+		System.out.println("Uniform: " + uniformTime / 1_000_000.0 + " ms | Weighted: " + weightedTime / 1_000_000.0
+				+ " ms for 60 queries on " + large + "x" + large);
+		System.out.println("-------------------------------------");
+		System.out.println();
+	}
+
+	// Helper method to give random rectangles of the grid costs between 2 and 9
+	private static void addCostZones(Grid grid, Random random, int zones) {
+		for (int zone = 0; zone < zones; zone++) {
+			int top = random.nextInt(grid.getNumRows());
+			int left = random.nextInt(grid.getNumCols());
+			int cost = 2 + random.nextInt(8);
+			for (int row = top; row < Math.min(grid.getNumRows(), top + 20); row++) {
+				for (int col = left; col < Math.min(grid.getNumCols(), left + 20); col++) {
+					grid.setCellCost(row, col, cost);
+				}
+			}
+		}
+	}
+
+	// Helper method to compute the cheapest cost between two cells with Dijkstra's algorithm, or -1
+	private static long weightedDistance(Grid grid, int start, int goal) {
+		int numCols = grid.getNumCols();
+		int numRows = grid.getNumRows();
+		if (grid.isObstacle(start / numCols, start % numCols) || grid.isObstacle(goal / numCols, goal % numCols)) {
+			return start == goal ? 0 : -1;
+		}
+		long[] distance = new long[numRows * numCols];
+		Arrays.fill(distance, Long.MAX_VALUE);
+		distance[start] = 0;
+		PriorityQueue<long[]> queue = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+		queue.add(new long[] { 0, start });
+		int[][] steps = { { -1, 0 }, { 1, 0 }, { 0, -1 }, { 0, 1 } };
+		while (!queue.isEmpty()) {
+			long[] entry = queue.poll();
+			int cell = (int) entry[1];
+			if (entry[0] > distance[cell]) {
+				continue;
+			}
+			if (cell == goal) {
+				return entry[0];
+			}
+			for (int[] step : steps) {
+				int row = cell / numCols + step[0];
+				int col = cell % numCols + step[1];
+				if (grid.isValidPosition(row, col) && !grid.isObstacle(row, col)) {
+					long next = entry[0] + grid.getCellCost(row, col);
+					if (next < distance[row * numCols + col]) {
+						distance[row * numCols + col] = next;
+						queue.add(new long[] { next, row * numCols + col });
+					}
+				}
+			}
+		}
+		return -1;
+	}
+
+	private static void testGridGenerator() {
+		System.out.println("Testing Grid Generator:");
+		GridGenerator generator = new GridGenerator(67);
+		int size = 4000;
+		long startTime = System.nanoTime();
+		Grid grid = generator.random(size, size, 0.3);
+		long generateTime = System.nanoTime() - startTime;
+		long obstacles = 0;
+		for (int row = 0; row < size; row++) {
+			for (int word = 0; word < grid.getWordsPerRow(); word++) {
+				obstacles += Long.bitCount(grid.getObstacleWord(row, word));
+			}
+		}
+
+		// The same seed gives the same map on a single worker thread, and in array storage
+		boolean sameOnOneThread;
+		ForkJoinPool singleThread = new ForkJoinPool(1);
+		try {
+			sameOnOneThread = gridHash(grid) == singleThread.submit(() -> gridHash(generator.random(size, size, 0.3)))
+					.get();
+		} catch (InterruptedException | ExecutionException e) {
+			sameOnOneThread = false;
+		} finally {
+			singleThread.shutdown();
+		}
+		boolean sameInArray = gridHash(Grid.generateRandomGrid(300, 300, 0.3, 67)) == gridHash(
+				generator.random(300, 300, 0.3));
+		boolean differentSeed = gridHash(new GridGenerator(68).random(300, 300, 0.3)) != gridHash(
+				generator.random(300, 300, 0.3));
+		System.out.println(size + "x" + size + " generated in " + generateTime / 1_000_000.0 + " ms | Density: "
+				+ (double) obstacles / ((long) size * size));
+		System.out.println("Same on one thread: " + sameOnOneThread + " | Same in array storage: " + sameInArray
+				+ " | Other seed differs: " + differentSeed);
+
+		// Structured maps without clutter are fully connected
+		Grid rooms = generator.rooms(500, 500, 12);
+		Grid corridors = generator.corridors(500, 500, 25, 3);
+		Grid warehouse = generator.warehouse(500, 500, 0);
+		System.out.println("Components: rooms " + new ConnectivityIndex(rooms).getComponentCount() + " | corridors "
+				+ new ConnectivityIndex(corridors).getComponentCount() + " | warehouse "
+				+ new ConnectivityIndex(warehouse).getComponentCount());
+		System.out.println("-------------------------------------");
+		System.out.println();
+	}
+
+	// Helper method to hash the obstacle words of a grid
+	private static long gridHash(Grid grid) {
+		long hash = 1;
+		for (int row = 0; row < grid.getNumRows(); row++) {
+			for (int word = 0; word < grid.getWordsPerRow(); word++) {
+				hash = hash * 31 + grid.getObstacleWord(row, word);
+			}
+		}
+		return hash;
+	}
+
+	// Test the clearance map against brute force, its incremental updates, and planning for larger robots
+	private static void testClearanceMap() {
+		System.out.println("Testing Clearance Map:");
+		Random random = new Random(71);
+		int mismatches = 0;
+		int[][] sizes = { { 1, 1 }, { 1, 70 }, { 70, 1 }, { 37, 130 }, { 64, 64 }, { 90, 45 } };
+		for (int[] size : sizes) {
+			for (double density : new double[] { 0.0, 0.02, 0.2 }) {
+				Grid grid = Grid.generateRandomGrid(size[0], size[1], density, random.nextLong());
+				ClearanceMap clearance = new ClearanceMap(grid);
+				mismatches += countClearanceMismatches(grid, clearance);
+				// New obstacles are applied incrementally and must match a map built from scratch
+				for (int i = 0; i < 30; i++) {
+					grid.setObstacle(random.nextInt(size[0]), random.nextInt(size[1]));
+				}
+				mismatches += countClearanceMismatches(grid, clearance);
+				if (clearance.getRebuildCount() != 1) {
+					mismatches++;
+				}
+			}
+		}
+		System.out.println("Clearance mismatches: " + mismatches);
+
+		// A 3x3 robot (radius 1) on the grid finds the same path lengths as a single-cell robot on the grid with
+		// every cell it does not fit at blocked, and never enters such a cell
+		int pathMismatches = 0;
+		int found = 0;
+		for (int trial = 0; trial < 20; trial++) {
+			Grid grid = Grid.generateRandomGrid(40, 40, 0.05, random.nextLong());
+			boolean[][] inflated = new boolean[40][40];
+			for (int row = 0; row < 40; row++) {
+				for (int col = 0; col < 40; col++) {
+					inflated[row][col] = bruteForceClearance(grid, row, col) <= 1;
+				}
+			}
+			ClearanceMap clearance = new ClearanceMap(grid);
+			GridPathPlanner reference = new GridPathPlanner(new Grid(inflated));
+			GridPathPlanner[] planners = { new GridPathPlanner(grid), new JumpPointPlanner(grid),
+					new BidirectionalPlanner(grid), new HierarchicalPlanner(grid, 8) };
+			for (GridPathPlanner planner : planners) {
+				planner.setFootprint(clearance, 1);
+			}
+			for (int query = 0; query < 10; query++) {
+				int start = random.nextInt(1600);
+				int goal = random.nextInt(1600);
+				int[] expected = reference.findPath(start, goal);
+				if (expected != null) {
+					found++;
+				}
+				for (GridPathPlanner planner : planners) {
+					int[] path = planner.findPath(start, goal);
+					if ((path == null) != (expected == null) || (path != null && path.length != expected.length)) {
+						pathMismatches++;
+					} else if (path != null) {
+						for (int cell : path) {
+							if (inflated[cell / 40][cell % 40]) {
+								pathMismatches++;
+							}
+						}
+					}
+				}
+			}
+		}
+		System.out.println("Footprint paths found: " + found + " | Footprint mismatches: " + pathMismatches);
+
+		int size = 4000;
+		Grid large = new GridGenerator(71).random(size, size, 0.05);
+		ClearanceMap clearance = new ClearanceMap(large);
+		long startTime = System.nanoTime();
+		for (int i = 0; i < 1000; i++) {
+			large.setObstacle(random.nextInt(size), random.nextInt(size));
+		}
+		long updateTime = System.nanoTime() - startTime;
+		System.out.println(size + "x" + size + " transform: " + clearance.getBuildTimeNanos() / 1_000_000.0
+				+ " ms | 1000 incremental updates: " + updateTime / 1_000_000.0 + " ms");
+
+		// Planner threads sharing a map while cells below row 20 are blocked and freed, so queries keep finding it
+		// dirty: the clearance of a cell in the top ten rows, away from the sides, is always its row plus one
+		Grid shared = new Grid(300, 300);
+		for (int cell = 20 * 300; cell < 300 * 300; cell++) {
+			if (random.nextInt(100) < 30) {
+				shared.setObstacle(cell / 300, cell % 300);
+			}
+		}
+		ClearanceMap sharedClearance = new ClearanceMap(shared);
+		int[] concurrent = queryWhileEditing(readerRandom -> {
+			int row = readerRandom.nextInt(10);
+			return sharedClearance.getClearance(row, 10 + readerRandom.nextInt(280)) == row + 1;
+		}, () -> {
+			for (int i = 0; i < 2000; i++) {
+				int row = 20 + random.nextInt(280);
+				int col = random.nextInt(300);
+				if (shared.isObstacle(row, col)) {
+					shared.clearObstacle(row, col);
+				} else {
+					shared.setObstacle(row, col);
+				}
+				if (i % 100 == 99) {
+					Thread.yield();
+				}
+			}
+		});
+		sharedClearance.detach();
+		System.out.println("Concurrent queries: " + concurrent[0] + " | Wrong clearances: " + concurrent[1]
+				+ " | Rebuilds: " + sharedClearance.getRebuildCount());
+		System.out.println("-------------------------------------");
+		System.out.println();
+	}
+
+	// Helper method to count the cells whose clearance differs from brute force
+	private static int countClearanceMismatches(Grid grid, ClearanceMap clearance) {
+		int mismatches = 0;
+		for (int row = 0; row < grid.getNumRows(); row++) {
+			for (int col = 0; col < grid.getNumCols(); col++) {
+				if (clearance.getClearance(row, col) != bruteForceClearance(grid, row, col)) {
+					mismatches++;
+				}
+			}
+		}
+		return mismatches;
+	}
+
+	// Helper method to compute the Chebyshev distance from a cell to the nearest obstacle or to outside the grid
+	private static int bruteForceClearance(Grid grid, int row, int col) {
+		int best = Math.min(Math.min(row + 1, grid.getNumRows() - row), Math.min(col + 1, grid.getNumCols() - col));
+		for (int r = 0; r < grid.getNumRows(); r++) {
+			for (int c = 0; c < grid.getNumCols(); c++) {
+				if (grid.isObstacle(r, c)) {
+					best = Math.min(best, Math.max(Math.abs(r - row), Math.abs(c - col)));
+				}
+			}
+		}
+		return Math.min(best, ClearanceMap.MAX_CLEARANCE);
+	}
+
+	// Test waypoint compression and any-angle shortcutting of planned paths
+	private static void testPathPostProcessor() {
+		System.out.println("Testing Path Post-Processor:");
+		Random random = new Random(73);
+		int mismatches = 0;
+		int paths = 0;
+		for (int trial = 0; trial < 40; trial++) {
+			Grid grid = Grid.generateRandomGrid(60, 45, 0.25, random.nextLong());
+			GridPathPlanner planner = new GridPathPlanner(grid);
+			PathPostProcessor postProcessor = new PathPostProcessor(grid);
+			int[] path = planner.findPath(random.nextInt(2700), random.nextInt(2700));
+			if (path == null) {
+				continue;
+			}
+			paths++;
+			// Compression only drops cells in the middle of straight runs, and expanding restores the path
+			int[] waypoints = postProcessor.compress(path);
+			if (!Arrays.equals(postProcessor.expand(waypoints), path)) {
+				mismatches++;
+			}
+			for (int i = 2; i < waypoints.length; i++) {
+				if (sameLine(waypoints[i - 2], waypoints[i - 1], waypoints[i], 45)) {
+					mismatches++; // Collinear waypoints left in
+				}
+			}
+			// Shortcut segments keep the ends, never cross an obstacle and are no longer than the grid path
+			int[] smoothed = postProcessor.shortcut(path);
+			if (smoothed[0] != path[0] || smoothed[smoothed.length - 1] != path[path.length - 1]
+					|| postProcessor.getLength(smoothed) > path.length - 1 + 1e-9) {
+				mismatches++;
+			}
+			for (int i = 1; i < smoothed.length; i++) {
+				if (!segmentIsFree(grid, smoothed[i - 1], smoothed[i])) {
+					mismatches++;
+				}
+			}
+		}
+
+		// An open grid needs a single segment, and a segment cannot squeeze between diagonally touching obstacles
+		Grid open = new Grid(50, 30);
+		int[] openPath = new GridPathPlanner(open).findPath(0, 50 * 30 - 1);
+		if (new PathPostProcessor(open).shortcut(openPath).length != 2) {
+			mismatches++;
+		}
+		Grid corner = new Grid(new boolean[][] { { false, true }, { true, false } });
+		if (new PathPostProcessor(corner).hasLineOfSight(0, 3)) {
+			mismatches++;
+		}
+		System.out.println("Paths checked: " + paths + " | Mismatches: " + mismatches);
+
+		// Smoothed for a 3x3 robot, no point of a segment may bring the robot's square over an obstacle
+		int footprintSegments = 0;
+		int collisions = 0;
+		for (int trial = 0; trial < 20; trial++) {
+			Grid grid = Grid.generateRandomGrid(40, 40, 0.04, random.nextLong());
+			ClearanceMap clearance = new ClearanceMap(grid);
+			GridPathPlanner planner = new GridPathPlanner(grid);
+			planner.setFootprint(clearance, 1);
+			PathPostProcessor postProcessor = new PathPostProcessor(grid);
+			postProcessor.setFootprint(clearance, 1);
+			int[] footprintPath = planner.findPath(random.nextInt(1600), random.nextInt(1600));
+			int[] smoothed = postProcessor.shortcut(footprintPath);
+			for (int i = 1; smoothed != null && i < smoothed.length; i++) {
+				footprintSegments++;
+				if (!sweptSquareIsFree(grid, smoothed[i - 1], smoothed[i], 1)) {
+					collisions++;
+				}
+			}
+			clearance.detach();
+		}
+		System.out.println("Radius 1 segments: " + footprintSegments + " | Segments overlapping obstacles: "
+				+ collisions);
+
+		int size = 2000;
+		Grid large = new GridGenerator(73).random(size, size, 0.2);
+		int start = 0;
+		int goal = size * size - 1;
+		while (large.isObstacle(0, start)) {
+			start++;
+		}
+		while (large.isObstacle(size - 1, goal % size)) {
+			goal--;
+		}
+		int[] path = new GridPathPlanner(large).findPath(start, goal);
+		if (path != null) {
+			PathPostProcessor postProcessor = new PathPostProcessor(large);
+			long startTime = System.nanoTime();
+			int[] waypoints = postProcessor.compress(path);
+			long compressTime = System.nanoTime() - startTime;
+			startTime = System.nanoTime();
+			int[] smoothed = postProcessor.shortcut(path);
+			long shortcutTime = System.nanoTime() - startTime;
+			System.out.println("Path cells: " + path.length + " | Waypoints: " + waypoints.length + " in "
+					+ compressTime / 1_000_000.0 + " ms | Any-angle waypoints: " + smoothed.length + " in "
+					+ shortcutTime / 1_000_000.0 + " ms");
+			System.out.println("Grid path length: " + (path.length - 1) + " | Any-angle length: "
+					+ postProcessor.getLength(smoothed));
+		}
+		System.out.println("-------------------------------------");
+		System.out.println();
+	}
+
+	// Helper method to check whether three cells lie on one straight line
+	private static boolean sameLine(int a, int b, int c, int numCols) {
+		int rowA = a / numCols;
+		int colA = a % numCols;
+		return (b / numCols - rowA) * (c % numCols - colA) == (c / numCols - rowA) * (b % numCols - colA);
+	}
+
+	// Helper method to check a segment between two cell centers by sampling points densely along it
+	private static boolean segmentIsFree(Grid grid, int from, int to) {
+		int numCols = grid.getNumCols();
+		double row = from / numCols + 0.5;
+		double col = from % numCols + 0.5;
+		double dRow = to / numCols - from / numCols;
+		double dCol = to % numCols - from % numCols;
+		int samples = 50 * (int) (Math.abs(dRow) + Math.abs(dCol) + 1);
+		for (int i = 0; i <= samples; i++) {
+			double t = (double) i / samples;
+			if (grid.isObstacle((int) Math.floor(row + t * dRow), (int) Math.floor(col + t * dCol))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// Helper method to check that a robot covering the square of the given radius around its position never
+	// overlaps an obstacle while its center moves along the segment between two cell centers, sampling densely
+	private static boolean sweptSquareIsFree(Grid grid, int from, int to, int radius) {
+		int numCols = grid.getNumCols();
+		double row = from / numCols + 0.5;
+		double col = from % numCols + 0.5;
+		double dRow = to / numCols - from / numCols;
+		double dCol = to % numCols - from % numCols;
+		int samples = 50 * (int) (Math.abs(dRow) + Math.abs(dCol) + 1);
+		double reach = radius + 0.5 - 1e-9; // Squares that only touch an obstacle's edge do not overlap it
+		for (int i = 0; i <= samples; i++) {
+			double centerRow = row + (double) i / samples * dRow;
+			double centerCol = col + (double) i / samples * dCol;
+			for (int r = (int) Math.floor(centerRow - reach); r <= (int) Math.floor(centerRow + reach); r++) {
+				for (int c = (int) Math.floor(centerCol - reach); c <= (int) Math.floor(centerCol + reach); c++) {
+					if (!grid.isValidPosition(r, c) || grid.isObstacle(r, c)) {
+						return false;
+					}
+				}
+			}
+		}
+		return true;
+	}
+
+	// Test the planning server over a socket with pipelined requests, a hot reload and malformed requests
+	private static void testPlanningServer() {
+		System.out.println("Testing Planning Server:");
+		Random random = new Random(79);
+		Grid first = Grid.generateRandomGrid(80, 80, 0.25, 79);
+		Grid second = Grid.generateRandomGrid(80, 80, 0.25, 80);
+		int queries = 200;
+		int[][] cells = new int[queries][4];
+		StringBuilder requests = new StringBuilder();
+		for (int[] query : cells) {
+			for (int i = 0; i < 4; i++) {
+				query[i] = random.nextInt(80);
+			}
+			requests.append("PATH ").append(query[0]).append(' ').append(query[1]).append(' ').append(query[2])
+					.append(' ').append(query[3]).append('\n');
+		}
+
+		int mismatches = 0;
+		try (PlanningServer server = new PlanningServer(first, PlannerMode.ASTAR, 4)) {
+			File secondFile = File.createTempFile("grid", ".grid");
+			secondFile.deleteOnExit();
+			GridLoader.writeBinary(second, secondFile.getPath(), GridLoader.ENCODING_RLE);
+			int port = server.start(0);
+			long startTime = System.nanoTime();
+			List<String> responses = new ArrayList<>();
+			try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+				// Everything is sent before any response is read; the reload sits between two batches of queries
+				BufferedWriter out = new BufferedWriter(
+						new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+				out.write(requests.toString());
+				out.write("RELOAD " + secondFile.getPath() + "\n");
+				out.write(requests.toString());
+				out.write("PATH 1 2\nPATH 0 0 99 99\nJUMP\nSTATS\nQUIT\n");
+				out.flush();
+				BufferedReader in = new BufferedReader(
+						new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+				String line;
+				while ((line = in.readLine()) != null) {
+					responses.add(line);
+				}
+			}
+			long elapsed = System.nanoTime() - startTime;
+
+			if (responses.size() != 2 * queries + 5) {
+				mismatches++;
+			} else {
+				mismatches += countServerMismatches(first, cells, responses.subList(0, queries));
+				if (!responses.get(queries).startsWith("OK map 2 80 80")) {
+					mismatches++;
+				}
+				mismatches += countServerMismatches(second, cells, responses.subList(queries + 1, 2 * queries + 1));
+				for (int i = 2 * queries + 1; i < 2 * queries + 4; i++) {
+					if (!responses.get(i).startsWith("ERR")) {
+						mismatches++;
+					}
+				}
+				System.out.println("Stats: " + responses.get(2 * queries + 4));
+			}
+			System.out.println("Responses: " + responses.size() + " in " + elapsed / 1_000_000.0 + " ms | Map version: "
+					+ server.getMapVersion() + " | Mismatches: " + mismatches);
+
+			// The same protocol over a plain stream, as used with standard input
+			StringWriter output = new StringWriter();
+			server.serve(new BufferedReader(new StringReader(requests.toString())), output);
+			int streamMismatches = countServerMismatches(second, cells,
+					Arrays.asList(output.toString().split("\n")));
+			System.out.println("Stream mismatches: " + streamMismatches);
+		} catch (IOException e) {
+			System.out.println("Server test failed: " + e.getMessage());
+		}
+
+		// A one-worker server goes through five maps, planning on each. Once the worker has planned on the new map,
+		// nothing may still hold a replaced grid.
+		List<WeakReference<Grid>> replaced = new ArrayList<>();
+		try (PlanningServer reloading = new PlanningServer(Grid.generateRandomGrid(200, 200, 0.2, 1), PlannerMode.ASTAR,
+				1)) {
+			for (int i = 2; i <= 5; i++) {
+				reloading.serve(new BufferedReader(new StringReader("PATH 0 0 199 199\n")), new StringWriter());
+				replaced.add(new WeakReference<>(reloading.getGrid()));
+				reloading.swapMap(Grid.generateRandomGrid(200, 200, 0.2, i));
+			}
+			reloading.serve(new BufferedReader(new StringReader("PATH 0 0 199 199\n")), new StringWriter());
+			System.gc();
+			System.out.println("Replaced maps still reachable: "
+					+ replaced.stream().filter(reference -> reference.get() != null).count() + " of "
+					+ replaced.size());
+		} catch (IOException e) {
+			System.out.println("Server reload test failed: " + e.getMessage());
+		}
+		System.out.println("-------------------------------------");
+		System.out.println();
+	}
+
+	// Helper method to compare PATH responses with the path lengths found by A* on the given grid
+	private static int countServerMismatches(Grid grid, int[][] cells, List<String> responses) {
+		if (responses.size() != cells.length) {
+			return cells.length;
+		}
+		GridPathPlanner planner = new GridPathPlanner(grid);
+		int mismatches = 0;
+		for (int i = 0; i < cells.length; i++) {
+			int[] path = planner.findPath(planner.cellIndex(cells[i][0], cells[i][1]),
+					planner.cellIndex(cells[i][2], cells[i][3]));
+			String[] fields = responses.get(i).split(" ");
+			if (path == null ? !fields[0].equals("NONE")
+					: !fields[0].equals("OK") || Integer.parseInt(fields[1]) != path.length
+							|| !fields[4].equals(String.valueOf(cells[i][0]))
+							|| !fields[fields.length - 1].equals(String.valueOf(cells[i][3]))) {
+				mismatches++;
+			}
+		}
+		return mismatches;
+	}
+
+	// Test the station routing table against A*, across a save and load, and after obstacle changes
+	private static void testStationRoutingTable() {
+		System.out.println("Testing Station Routing Table:");
+		Random random = new Random(83);
+		Grid grid = Grid.generateRandomGrid(120, 120, 0.25, 83);
+		int[] stations = randomFreeCells(grid, 40, random);
+		StationRoutingTable table = new StationRoutingTable(grid, stations);
+		int mismatches = countRouteMismatches(grid, table);
+
+		// A saved table loads back unchanged, and only for the grid it was built on
+		try {
+			File file = File.createTempFile("routes", ".srt");
+			file.deleteOnExit();
+			table.save(file.getPath());
+			StationRoutingTable loaded = StationRoutingTable.load(grid, file.getPath());
+			for (int i = 0; i < stations.length; i++) {
+				for (int j = 0; j < stations.length; j++) {
+					if (loaded.getDistance(i, j) != table.getDistance(i, j)
+							|| loaded.getFirstMove(i, j) != table.getFirstMove(i, j)) {
+						mismatches++;
+					}
+				}
+			}
+			loaded.detach();
+			try {
+				StationRoutingTable.load(Grid.generateRandomGrid(120, 120, 0.25, 84), file.getPath());
+				mismatches++;
+			} catch (IOException e) {
+				// Expected: the obstacles differ
+			}
+		} catch (IOException e) {
+			System.out.println("Save or load failed: " + e.getMessage());
+			mismatches++;
+		}
+
+		// The table follows new obstacles
+		for (int i = 0; i < 60; i++) {
+			grid.setObstacle(random.nextInt(120), random.nextInt(120));
+			if (i % 10 == 9) {
+				mismatches += countRouteMismatches(grid, table);
+			}
+		}
+
+		// Docks along the clear border of a warehouse: pallets dropped deep inside cannot lie on a route between
+		// them, so only pallets dropped next to the docks send stations back to search
+		Grid warehouse = new GridGenerator(83).warehouse(120, 120, 0);
+		int[] dockCells = new int[20];
+		for (int i = 0; i < dockCells.length; i++) {
+			dockCells[i] = (i % 2) * 120 + 3 + 6 * i;
+		}
+		StationRoutingTable dockTable = new StationRoutingTable(warehouse, dockCells);
+		long searchedBefore = dockTable.getRebuiltStations();
+		for (int i = 0; i < 50; i++) {
+			warehouse.setObstacle(60 + random.nextInt(60), random.nextInt(120));
+			dockTable.getDistance(0, 1);
+		}
+		long searchedInside = dockTable.getRebuiltStations() - searchedBefore;
+		warehouse.setObstacle(0, 20);
+		dockTable.getDistance(0, 1);
+		long searchedNearDocks = dockTable.getRebuiltStations() - searchedBefore - searchedInside;
+		mismatches += countRouteMismatches(warehouse, dockTable);
+		System.out.println("Mismatches: " + mismatches + " | Stations searched again: " + searchedInside
+				+ " after 50 pallets inside, " + searchedNearDocks + " after one next to the docks");
+
+		// Routes are also served by the planning server
+		try (PlanningServer server = new PlanningServer(grid, PlannerMode.ASTAR, 2, stations)) {
+			StringWriter output = new StringWriter();
+			server.serve(new BufferedReader(new StringReader("ROUTE " + stations[0] / 120 + " " + stations[0] % 120
+					+ " " + stations[1] / 120 + " " + stations[1] % 120 + "\nROUTE 0 0 0 0\n")), output);
+			String[] responses = output.toString().split("\n");
+			int distance = table.getDistance(0, 1);
+			boolean routeMatches = responses.length == 2
+					&& responses[0].startsWith(distance < 0 ? "NONE" : "OK " + distance + " ")
+					&& (responses[1].startsWith("ERR") || table.stationIndex(0) >= 0);
+			System.out.println("Server route matches: " + routeMatches);
+		} catch (IOException e) {
+			System.out.println("Server route failed: " + e.getMessage());
+		}
+
+		Grid large = new GridGenerator(83).warehouse(1000, 1000, 5);
+		int[] docks = randomFreeCells(large, 100, random);
+		StationRoutingTable largeTable = new StationRoutingTable(large, docks);
+		long startTime = System.nanoTime();
+		long total = 0;
+		for (int i = 0; i < 1_000_000; i++) {
+			total += largeTable.getDistance(i % 100, (i / 100) % 100);
+		}
+		long lookupTime = System.nanoTime() - startTime;
+		System.out.println("1000x1000 warehouse, 100 stations: built in " + largeTable.getBuildTimeNanos() / 1_000_000.0
+				+ " ms | 1000000 lookups in " + lookupTime / 1_000_000.0 + " ms (checksum " + total + ")");
+
+		// Planner threads sharing a table while cells below the two free top rows are blocked and freed. The routes
+		// of the stations below keep being searched again, and with them every route ending at a station on top,
+		// but two stations on the top row are always exactly as many moves apart as their columns are.
+		int sharedSize = 600;
+		int spacing = sharedSize / 20;
+		Grid shared = new Grid(sharedSize, sharedSize);
+		for (int cell = 2 * sharedSize; cell < sharedSize * sharedSize; cell++) {
+			if (random.nextInt(100) < 30) {
+				shared.setObstacle(cell / sharedSize, cell % sharedSize);
+			}
+		}
+		int[] sharedStations = new int[40];
+		for (int i = 0; i < 20; i++) {
+			sharedStations[i] = i * spacing;
+			int row = 2 + random.nextInt(sharedSize - 2);
+			shared.clearObstacle(row, i * spacing);
+			sharedStations[20 + i] = row * sharedSize + i * spacing;
+		}
+		StationRoutingTable sharedTable = new StationRoutingTable(shared, sharedStations);
+		int[] concurrent = queryWhileEditing(readerRandom -> {
+			int from = readerRandom.nextInt(20);
+			int to = readerRandom.nextInt(20);
+			return sharedTable.getDistance(from, to) == spacing * Math.abs(from - to)
+					&& (from == to) == (sharedTable.getFirstMove(from, to) == null);
+		}, () -> {
+			// Edits come in bursts, with pauses in which the readers refresh the table
+			for (int i = 0; i < 2000; i++) {
+				int row = 2 + random.nextInt(sharedSize - 2);
+				int col = random.nextInt(sharedSize);
+				if (shared.isObstacle(row, col)) {
+					shared.clearObstacle(row, col);
+				} else {
+					shared.setObstacle(row, col);
+				}
+				if (i % 50 == 49) {
+					try {
+						Thread.sleep(50);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+			}
+		});
+		sharedTable.detach();
+		System.out.println("Concurrent queries: " + concurrent[0] + " | Wrong routes: " + concurrent[1]
+				+ " | Stations searched again: " + sharedTable.getRebuiltStations());
+		System.out.println("-------------------------------------");
+		System.out.println();
+	}
+
+	// Helper method to run a query on three reader threads, each with its own seeded Random, while the calling
+	// thread edits the grid. Returns the number of queries and of wrong answers; a query that throws counts as
+	// wrong, since a half-built structure can fail that way too.
+	private static int[] queryWhileEditing(Predicate<Random> query, Runnable edits) {
+		AtomicBoolean editing = new AtomicBoolean(true);
+		AtomicInteger wrong = new AtomicInteger();
+		AtomicInteger queried = new AtomicInteger();
+		Thread[] readers = new Thread[3];
+		for (int t = 0; t < readers.length; t++) {
+			Random readerRandom = new Random(t);
+			readers[t] = new Thread(() -> {
+				while (editing.get()) {
+					try {
+						if (!query.test(readerRandom)) {
+							wrong.incrementAndGet();
+						}
+					} catch (RuntimeException e) {
+						wrong.incrementAndGet();
+					}
+					queried.incrementAndGet();
+				}
+			});
+			readers[t].start();
+		}
+		edits.run();
+		editing.set(false);
+		for (Thread reader : readers) {
+			try {
+				reader.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		return new int[] { queried.get(), wrong.get() };
+	}
+
+	// Helper method to pick distinct free cells at random
+	private static int[] randomFreeCells(Grid grid, int count, Random random) {
+		int[] cells = new int[count];
+		boolean[] taken = new boolean[grid.getNumRows() * grid.getNumCols()];
+		for (int i = 0; i < count;) {
+			int row = random.nextInt(grid.getNumRows());
+			int col = random.nextInt(grid.getNumCols());
+			int cell = row * grid.getNumCols() + col;
+			if (!grid.isObstacle(row, col) && !taken[cell]) {
+				taken[cell] = true;
+				cells[i++] = cell;
+			}
+		}
+		return cells;
+	}
+
+	// Helper method to compare every route of a table with A*: the distance must match, and the first move must
+	// lead to a free cell one move closer to the destination
+	private static int countRouteMismatches(Grid grid, StationRoutingTable table) {
+		GridPathPlanner planner = new GridPathPlanner(grid);
+		int mismatches = 0;
+		for (int i = 0; i < table.getStationCount(); i++) {
+			for (int j = 0; j < table.getStationCount(); j++) {
+				int[] path = planner.findPath(table.getStation(i), table.getStation(j));
+				int expected = path == null ? -1 : path.length - 1;
+				if (table.getDistance(i, j) != expected) {
+					mismatches++;
+					continue;
+				}
+				int hop = table.getNextHop(i, j);
+				if (expected > 0) {
+					int[] rest = planner.findPath(hop, table.getStation(j));
+					int step = Math.abs(hop - table.getStation(i));
+					if ((step != 1 && step != grid.getNumCols()) || rest == null || rest.length - 1 != expected - 1) {
+						mismatches++;
+					}
+				} else if (hop != -1) {
+					mismatches++;
+				}
+			}
+		}
+		return mismatches;
+	}
+
+	// This method checks the frontier-parallel breadth-first search against a plain queue-based one on grids whose
+	// widths fall on and around word boundaries, then times it on large maps
+	private static void testFrontierBFS() {
+		System.out.println("Testing Frontier BFS:");
+		Random random = new Random(89);
+		int mismatches = 0;
+		int[][] sizes = { { 1, 1 }, { 1, 200 }, { 200, 1 }, { 37, 63 }, { 64, 64 }, { 90, 65 }, { 150, 129 } };
+		for (int[] size : sizes) {
+			for (double density : new double[] { 0, 0.2, 0.4 }) {
+				Grid grid = Grid.generateRandomGrid(size[0], size[1], density, random.nextLong());
+				int cellCount = size[0] * size[1];
+				int[] sources = new int[1 + random.nextInt(3)];
+				for (int i = 0; i < sources.length; i++) {
+					sources[i] = random.nextInt(cellCount);
+				}
+				FrontierBFS bfs = new FrontierBFS(grid);
+				int[] expected = bruteForceDistances(grid, sources);
+				int[] field = bfs.distanceField(sources);
+				long reachable = 0;
+				for (int cell = 0; cell < cellCount; cell++) {
+					if (field[cell] != expected[cell]) {
+						mismatches++;
+					}
+					if (expected[cell] >= 0) {
+						reachable++;
+					}
+				}
+				if (bfs.countReachable(sources) != reachable) {
+					mismatches++;
+				}
+				int target = random.nextInt(cellCount);
+				if (bfs.isReachable(sources[0], target) != (bruteForceDistances(grid, sources[0])[target] >= 0)) {
+					mismatches++;
+				}
+			}
+		}
+
+		// The same instance follows changes of the grid between searches
+		Grid warehouse = new GridGenerator(89).warehouse(200, 300, 10);
+		FrontierBFS warehouseBfs = new FrontierBFS(warehouse);
+		for (int i = 0; i < 20; i++) {
+			warehouse.setObstacle(random.nextInt(200), random.nextInt(300));
+			int goal = 2 * 300 + 2;
+			if (!Arrays.equals(warehouseBfs.distanceField(goal), bruteForceDistances(warehouse, goal))) {
+				mismatches++;
+			}
+		}
+		System.out.println("Mismatches: " + mismatches);
+
+		Grid large = new GridGenerator(89).random(4000, 4000, 0.25);
+		FrontierBFS largeBfs = new FrontierBFS(large);
+		int[] field = largeBfs.distanceField(2000 * 4000 + 2000);
+		System.out.println("4000x4000 distance field: " + largeBfs.getLastReached() + " cells reached, depth "
+				+ largeBfs.getLastDepth() + " in " + largeBfs.getLastTimeNanos() / 1_000_000.0 + " ms");
+		long startTime = System.nanoTime();
+		int[] plain = bruteForceDistances(large, 2000 * 4000 + 2000);
+		System.out.println("Queue-based search: " + (System.nanoTime() - startTime) / 1_000_000.0
+				+ " ms | Fields match: " + Arrays.equals(field, plain));
+		field = null;
+		plain = null;
+
+		Grid huge = new GridGenerator(89).warehouse(10000, 10000, 5);
+		FrontierBFS hugeBfs = new FrontierBFS(huge);
+		long covered = hugeBfs.countReachable(0);
+		System.out.println("10000x10000 warehouse coverage: " + covered + " cells reached, depth "
+				+ hugeBfs.getLastDepth() + " in " + hugeBfs.getLastTimeNanos() / 1_000_000.0 + " ms");
+		System.out.println("-------------------------------------");
+		System.out.println();
+	}
+
+	// Helper method to compute a distance field with a plain queue-based breadth-first search
+	private static int[] bruteForceDistances(Grid grid, int... sources) {
+		int numRows = grid.getNumRows();
+		int numCols = grid.getNumCols();
+		int[] distances = new int[numRows * numCols];
+		Arrays.fill(distances, -1);
+		int[] queue = new int[distances.length];
+		int head = 0;
+		int tail = 0;
+		for (int source : sources) {
+			if (!grid.isObstacle(source / numCols, source % numCols) && distances[source] < 0) {
+				distances[source] = 0;
+				queue[tail++] = source;
+			}
+		}
+		while (head < tail) {
+			int cell = queue[head++];
+			int row = cell / numCols;
+			int col = cell % numCols;
+			int[][] neighbors = { { row - 1, col }, { row + 1, col }, { row, col - 1 }, { row, col + 1 } };
+			for (int[] neighbor : neighbors) {
+				if (grid.isValidPosition(neighbor[0], neighbor[1]) && !grid.isObstacle(neighbor[0], neighbor[1])
+						&& distances[neighbor[0] * numCols + neighbor[1]] < 0) {
+					distances[neighbor[0] * numCols + neighbor[1]] = distances[cell] + 1;
+					queue[tail++] = neighbor[0] * numCols + neighbor[1];
+				}
+			}
+		}
+		return distances;
+	}
+
+	// Take obstacles away from a walled grid one at a time, with every kind of grid listener attached, and check
+	// after each change that none of them still answers as if the cell were blocked
+	private static void testClearedObstacles() {
+		System.out.println("Testing Cleared Obstacles:");
+		int size = 60;
+		Random random = new Random(98);
+		Grid grid = Grid.generateRandomGrid(size, size, 0.2, 98);
+		for (int row = 0; row < size; row++) {
+			grid.setObstacle(row, size / 2);
+		}
+		int start = 0;
+		int goal = size * size - 1;
+		grid.clearObstacle(0, 0);
+		grid.clearObstacle(size - 1, size - 1);
+		int[] cells = randomFreeCells(grid, 12, random);
+
+		GridPathPlanner astar = new GridPathPlanner(grid);
+		PathCache cache = new PathCache(new GridPathPlanner(grid), 100_000);
+		ConnectivityIndex connectivity = new ConnectivityIndex(grid);
+		ClearanceMap clearance = new ClearanceMap(grid);
+		StationRoutingTable table = new StationRoutingTable(grid, cells);
+		LandmarkHeuristic landmarks = new LandmarkHeuristic(grid, 6);
+		HierarchicalPlanner hierarchical = new HierarchicalPlanner(grid, 10);
+		RobotState robot = new RobotState(0, 0, Direction.UP);
+		DStarLitePlanner dstar = new DStarLitePlanner(grid, robot, new RobotState(size - 1, size - 1, Direction.UP));
+		dstar.plan();
+		for (int from : cells) {
+			for (int to : cells) {
+				cache.findPath(from, to);
+			}
+		}
+
+		int cleared = 0;
+		int cacheMismatches = 0;
+		int connectivityMismatches = 0;
+		int clearanceMismatches = 0;
+		int routeMismatches = 0;
+		int landmarkOverestimates = 0;
+		int hierarchicalMismatches = 0;
+		int dstarMismatches = 0;
+		boolean staleAfterClear = true;
+		for (int step = 0; step < 40; step++) {
+			// Half of the changes open the dividing wall, the others remove a random obstacle
+			int row = random.nextInt(size);
+			int col = step % 2 == 0 ? size / 2 : random.nextInt(size);
+			if (!grid.isObstacle(row, col)) {
+				continue;
+			}
+			grid.clearObstacle(row, col);
+			cleared++;
+			staleAfterClear &= landmarks.isStale();
+			if (step % 8 == 0) {
+				landmarks.rebuild();
+			}
+
+			int[] distances = bruteForceDistances(grid, goal);
+			for (int from : cells) {
+				int[] reach = bruteForceDistances(grid, from);
+				for (int to : cells) {
+					int[] expected = astar.findPath(from, to);
+					int[] cached = cache.findPath(from, to);
+					if ((expected == null ? -1 : expected.length) != (cached == null ? -1 : cached.length)) {
+						cacheMismatches++;
+					}
+					if (connectivity.isConnected(from, to) != reach[to] >= 0) {
+						connectivityMismatches++;
+					}
+					if ((hierarchical.findPath(from, to) == null) != (expected == null)) {
+						hierarchicalMismatches++;
+					}
+				}
+				if (distances[from] >= 0 && landmarks.estimate(from, goal) > distances[from]) {
+					landmarkOverestimates++;
+				}
+			}
+			clearanceMismatches += countClearanceMismatches(grid, clearance);
+			routeMismatches += countRouteMismatches(grid, table);
+			int[] path = dstar.replan(robot);
+			int[] expected = astar.findPath(start, goal);
+			if ((path == null ? -1 : path.length) != (expected == null ? -1 : expected.length)) {
+				dstarMismatches++;
+			}
+		}
+		cache.detach();
+		connectivity.detach();
+		clearance.detach();
+		table.detach();
+		landmarks.detach();
+		hierarchical.detach();
+		dstar.detach();
+		System.out.println("Cleared cells: " + cleared + " | Goal reachable: " + (astar.findPath(start, goal) != null)
+				+ " | Landmarks stale after each clear: " + staleAfterClear);
+		System.out.println("Mismatches: cache " + cacheMismatches + " | connectivity " + connectivityMismatches
+				+ " | clearance " + clearanceMismatches + " | routes " + routeMismatches + " | hierarchical "
+				+ hierarchicalMismatches + " | D* Lite " + dstarMismatches);
+		System.out.println("Landmark overestimates: " + landmarkOverestimates);
+		System.out.println("-------------------------------------");
+		System.out.println();
+	}
+
 	private static void testScenario(String scenarioName, Grid grid, RobotState startState, RobotState goalState) {
 		System.out.println("Testing " + scenarioName + ":");
 		PathPlanningSimulation.testAlgorithm(grid, startState, goalState);
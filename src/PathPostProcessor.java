@@ -0,0 +1,181 @@
+import java.util.Arrays;
+import java.util.List;
+
+// This PathPostProcessor class turns the cell-by-cell paths returned by the planners into short arrays of
+// waypoints for the robot controllers, encoded like the paths themselves as cell indices (row * numCols + col).
+// - compress keeps the start, the goal and the cells where the path turns; the robot still moves along rows and
+//   columns only, and expand recovers the original path.
+// - shortcut (any-angle smoothing) replaces the path with straight segments between waypoints that can see each
+//   other, greedily reaching as far along the path as possible from each waypoint.
+// Line of sight is checked by walking the cells that the segment between the two cell centers passes through,
+// stepping with integer error terms like Bresenham's algorithm. Where the segment passes exactly through the
+// corner of four cells, both cells beside the corner must be free, so segments never squeeze between two
+// diagonally touching obstacles.
+// With a footprint of radius r, the cells a diagonal segment passes through must have room for radius r + 1:
+// between cell centers the robot can be up to half a cell off the center of the cell it is in, so its square
+// reaches into the next ring of cells. Waypoints and straight runs along a row or column keep the robot on cell
+// centers and only need radius r.
+public class PathPostProcessor {
+	private final Grid grid;
+	private final int numCols;
+	private ClearanceMap clearance; // Clearances of the grid's cells when smoothing for a larger robot, or null
+	private int footprintRadius;
+
+	// Constructor to post-process paths planned on the given grid
+	public PathPostProcessor(Grid grid) {
+		this.grid = grid;
+		this.numCols = grid.getNumCols();
+	}
+
+	// Method to check segments for a robot covering the (2 * radius + 1) x (2 * radius + 1) square of cells around
+	// its position, like GridPathPlanner.setFootprint (null and 0 for a single-cell robot)
+	public void setFootprint(ClearanceMap clearance, int radius) {
+		if (radius < 0 || radius >= ClearanceMap.MAX_CLEARANCE || (radius > 0 && clearance == null)) {
+			throw new IllegalArgumentException("Invalid footprint radius: " + radius);
+		}
+		this.clearance = radius == 0 ? null : clearance;
+		this.footprintRadius = radius;
+	}
+
+	// Method to keep only the first and last cells of a path and the cells where it changes direction
+	public int[] compress(int[] path) {
+		if (path == null || path.length <= 2) {
+			return path == null ? null : path.clone();
+		}
+		int[] waypoints = new int[path.length];
+		int count = 0;
+		waypoints[count++] = path[0];
+		int step = path[1] - path[0];
+		for (int i = 1; i < path.length - 1; i++) {
+			int next = path[i + 1] - path[i];
+			if (next != step) {
+				waypoints[count++] = path[i]; // The path turns here
+				step = next;
+			}
+		}
+		waypoints[count++] = path[path.length - 1];
+		return Arrays.copyOf(waypoints, count);
+	}
+
+	// Method to replace a path with straight, collision-free segments: from each waypoint the next one is the
+	// furthest cell along the path that is still in line of sight
+	public int[] shortcut(int[] path) {
+		if (path == null || path.length <= 2) {
+			return path == null ? null : path.clone();
+		}
+		int[] waypoints = new int[path.length];
+		int count = 0;
+		waypoints[count++] = path[0];
+		int anchor = 0;
+		while (anchor < path.length - 1) {
+			int reach = anchor + 1;
+			while (reach + 1 < path.length && hasLineOfSight(path[anchor], path[reach + 1])) {
+				reach++;
+			}
+			waypoints[count++] = path[reach];
+			anchor = reach;
+		}
+		return Arrays.copyOf(waypoints, count);
+	}
+
+	// Method to check that every cell the segment between the centers of two cells passes through is free
+	public boolean hasLineOfSight(int from, int to) {
+		int row = from / numCols;
+		int col = from % numCols;
+		int toRow = to / numCols;
+		int toCol = to % numCols;
+		int rowStep = toRow > row ? 1 : -1;
+		int colStep = toCol > col ? 1 : -1;
+		int dRow = Math.abs(toRow - row);
+		int dCol = Math.abs(toCol - col);
+		if (isBlocked(row, col, footprintRadius)) {
+			return false;
+		}
+		int sweptRadius = footprintRadius > 0 && dRow > 0 && dCol > 0 ? footprintRadius + 1 : footprintRadius;
+		// The sign of error tells whether the segment leaves the current cell through a vertical side (positive),
+		// a horizontal side (negative) or exactly through a corner (zero)
+		int error = dCol - dRow;
+		for (int remaining = dRow + dCol; remaining > 0; remaining--) {
+			if (error > 0) {
+				col += colStep;
+				error -= 2 * dRow;
+			} else if (error < 0) {
+				row += rowStep;
+				error += 2 * dCol;
+			} else {
+				if (isBlocked(row, col + colStep, sweptRadius) || isBlocked(row + rowStep, col, sweptRadius)) {
+					return false;
+				}
+				row += rowStep;
+				col += colStep;
+				error += 2 * (dCol - dRow);
+				remaining--;
+			}
+			boolean end = row == toRow && col == toCol;
+			if (isBlocked(row, col, end ? footprintRadius : sweptRadius)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// Helper method to check whether a cell cannot be occupied, by an obstacle or by a robot of the given radius
+	private boolean isBlocked(int row, int col, int radius) {
+		if (clearance != null) {
+			return !clearance.fits(row * numCols + col, radius);
+		}
+		return grid.isObstacle(row, col);
+	}
+
+	// Method to recover the cell-by-cell path from waypoints that are joined by horizontal or vertical segments,
+	// such as the output of compress
+	public int[] expand(int[] waypoints) {
+		if (waypoints == null || waypoints.length == 0) {
+			return waypoints == null ? null : waypoints.clone();
+		}
+		int length = 1;
+		for (int i = 1; i < waypoints.length; i++) {
+			int rows = Math.abs(waypoints[i] / numCols - waypoints[i - 1] / numCols);
+			int cols = Math.abs(waypoints[i] % numCols - waypoints[i - 1] % numCols);
+			if (rows != 0 && cols != 0) {
+				throw new IllegalArgumentException("Waypoints " + (i - 1) + " and " + i + " are not in a row or column");
+			}
+			length += rows + cols;
+		}
+		int[] path = new int[length];
+		int index = 0;
+		path[index++] = waypoints[0];
+		for (int i = 1; i < waypoints.length; i++) {
+			int from = waypoints[i - 1];
+			int to = waypoints[i];
+			int step = from / numCols == to / numCols ? Integer.signum(to - from) : (to > from ? numCols : -numCols);
+			for (int cell = from; cell != to;) {
+				cell += step;
+				path[index++] = cell;
+			}
+		}
+		return path;
+	}
+
+	// Method to return the length of the straight segments joining the waypoints, in cells
+	public double getLength(int[] waypoints) {
+		double length = 0;
+		for (int i = 1; i < waypoints.length; i++) {
+			length += Math.hypot(waypoints[i] / numCols - waypoints[i - 1] / numCols,
+					waypoints[i] % numCols - waypoints[i - 1] % numCols);
+		}
+		return length;
+	}
+
+	// Method to convert a path of graph nodes into cell indices, so it can be post-processed
+	public int[] toCells(List<PathPlanner.Node> path) {
+		if (path == null) {
+			return null;
+		}
+		int[] cells = new int[path.size()];
+		for (int i = 0; i < cells.length; i++) {
+			cells[i] = path.get(i).row * numCols + path.get(i).col;
+		}
+		return cells;
+	}
+}
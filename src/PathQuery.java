@@ -0,0 +1,20 @@
+// This PathQuery class pairs the start and goal states of one path planning request.
+public class PathQuery {
+	private final RobotState start; // State the robot plans from
+	private final RobotState goal; // State the robot wants to reach
+
+	// Constructor to initialize the query with its start and goal states
+	public PathQuery(RobotState start, RobotState goal) {
+		this.start = start;
+		this.goal = goal;
+	}
+
+	// Getters
+	public RobotState getStart() {
+		return start;
+	}
+
+	public RobotState getGoal() {
+		return goal;
+	}
+}
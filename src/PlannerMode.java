@@ -0,0 +1,29 @@
+// This PlannerMode enum lists the index-based planners that can be selected in the simulation and the CLI.
+public enum PlannerMode {
+	ASTAR("A*"),
+	JUMP_POINT("Jump Point Search"),
+	BIDIRECTIONAL("Bidirectional A*");
+
+	private final String displayName;
+
+	PlannerMode(String displayName) {
+		this.displayName = displayName;
+	}
+
+	public String getDisplayName() {
+		return displayName;
+	}
+
+	// Method to create a planner of this mode for the given grid
+	public GridPathPlanner create(Grid grid) {
+		switch (this) {
+		case JUMP_POINT:
+			return new JumpPointPlanner(grid);
+		case BIDIRECTIONAL:
+			return new BidirectionalPlanner(grid);
+		case ASTAR:
+		default:
+			return new GridPathPlanner(grid);
+		}
+	}
+}
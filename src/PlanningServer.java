@@ -0,0 +1,427 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+// This PlanningServer class keeps a grid and warm planners resident and answers path requests from clients on a
+// local socket or on standard input, so queries no longer pay for JVM startup and map loading.
+// The protocol is one request per line and one response line per request, in request order:
+//   PATH startRow startCol goalRow goalCol
+//     -> OK cells cost micros row col row col ...   (the path's start, turning cells and goal)
+//     -> NONE micros                                (no path exists)
+//   ROUTE fromRow fromCol toRow toCol
+//     -> OK moves firstMove                         (between two stations, looked up in the routing table)
+//     -> NONE                                       (no path exists)
+//   RELOAD file   -> OK map version rows cols       (hot-swaps to the grid in the file)
+//   STATS         -> OK queries n found n p50_us n p99_us n max_us n map n
+//   QUIT          closes the connection
+// Malformed requests are answered with "ERR message".
+// PATH requests from all connections are planned concurrently on a fixed pool of worker threads, and each
+// connection may send requests without waiting for the responses to earlier ones. Every worker keeps one planner,
+// replaced by its first request on a new map, so the planners of replaced maps are not kept alive.
+// The current map is held in an AtomicReference: a request plans on the map that was current when it was read, so
+// a reload swaps in the new map without disturbing queries already in flight. Latencies are measured from the
+// moment a request is read until its response is ready, queueing included.
+public class PlanningServer implements AutoCloseable {
+	private static final int MAX_IN_FLIGHT = 1024; // Pending responses per connection before reading pauses
+	private static final int IO_BUFFER_CHARS = 1 << 16;
+	private static final Future<String> END_OF_STREAM = CompletableFuture.completedFuture(null);
+
+	private final PlannerMode mode;
+	private final int[] stationRows; // Station positions routed by table lookup on every map, or null
+	private final int[] stationCols;
+	private final ExecutorService workers;
+	private final ExecutorService connections = Executors.newCachedThreadPool();
+	private final AtomicReference<MapSnapshot> map = new AtomicReference<>();
+	private final SearchMetrics metrics = new SearchMetrics(); // Planning statistics of every worker planner
+	private final LatencyHistogram requestLatency = new LatencyHistogram();
+	private final ThreadLocal<GridPathPlanner> planners = new ThreadLocal<>(); // Each worker's planner
+	private volatile ServerSocket serverSocket;
+
+	// One loaded map with its own connectivity index and station routing table
+	private final class MapSnapshot {
+		final Grid grid;
+		final int version;
+		final ConnectivityIndex connectivity;
+		final StationRoutingTable routes;
+
+		MapSnapshot(Grid grid, int version) {
+			this.grid = grid;
+			this.version = version;
+			this.connectivity = new ConnectivityIndex(grid);
+			this.routes = stationRows == null ? null : new StationRoutingTable(grid, stationCells(grid));
+		}
+
+		// Method to create a planner for this map; planners on one map share its connectivity index
+		GridPathPlanner createPlanner() {
+			GridPathPlanner planner = mode.create(grid);
+			planner.setConnectivity(connectivity);
+			planner.setMetrics(metrics);
+			return planner;
+		}
+	}
+
+	// Constructor to serve the given grid with the given planner mode and number of worker threads
+	public PlanningServer(Grid grid, PlannerMode mode, int workers) {
+		this(grid, mode, workers, null);
+	}
+
+	// Constructor to serve the given grid and answer ROUTE requests between the given station cells
+	// (row * numCols + col) from a routing table built for each map
+	public PlanningServer(Grid grid, PlannerMode mode, int workers, int[] stations) {
+		this.mode = mode;
+		this.stationRows = stations == null ? null : new int[stations.length];
+		this.stationCols = stations == null ? null : new int[stations.length];
+		for (int i = 0; stations != null && i < stations.length; i++) {
+			stationRows[i] = stations[i] / grid.getNumCols();
+			stationCols[i] = stations[i] % grid.getNumCols();
+		}
+		this.workers = Executors.newFixedThreadPool(workers);
+		map.set(new MapSnapshot(grid, 1));
+	}
+
+	// Helper method to return the station cells on a grid, which may be wider or narrower than the first one
+	private int[] stationCells(Grid grid) {
+		int[] cells = new int[stationRows.length];
+		for (int i = 0; i < cells.length; i++) {
+			if (!grid.isValidPosition(stationRows[i], stationCols[i])) {
+				throw new IllegalArgumentException("Station (" + stationRows[i] + ", " + stationCols[i]
+						+ ") is outside the grid");
+			}
+			cells[i] = stationRows[i] * grid.getNumCols() + stationCols[i];
+		}
+		return cells;
+	}
+
+	// Method to replace the served map; queries already planning finish on the previous one
+	public synchronized int swapMap(Grid grid) {
+		MapSnapshot next = new MapSnapshot(grid, map.get().version + 1);
+		map.set(next);
+		return next.version;
+	}
+
+	public Grid getGrid() {
+		return map.get().grid;
+	}
+
+	public int getMapVersion() {
+		return map.get().version;
+	}
+
+	public SearchMetrics getMetrics() {
+		return metrics;
+	}
+
+	public LatencyHistogram getRequestLatency() {
+		return requestLatency;
+	}
+
+	// Method to start accepting connections on the loopback interface (port 0 picks a free port), returning the
+	// port listened on. Each connection is served on its own thread until it closes or sends QUIT.
+	public int start(int port) throws IOException {
+		ServerSocket socket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+		serverSocket = socket;
+		connections.execute(() -> acceptConnections(socket));
+		return socket.getLocalPort();
+	}
+
+	// Method to hand every accepted connection to a thread of its own until the server socket is closed
+	private void acceptConnections(ServerSocket socket) {
+		while (!socket.isClosed()) {
+			try {
+				Socket client = socket.accept();
+				connections.execute(() -> serveConnection(client));
+			} catch (IOException e) {
+				if (!socket.isClosed()) {
+					System.err.println("Accept failed: " + e.getMessage());
+				}
+			}
+		}
+	}
+
+	private void serveConnection(Socket client) {
+		try (Socket connection = client) {
+			serve(new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8)),
+					new BufferedWriter(new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.UTF_8),
+							IO_BUFFER_CHARS));
+		} catch (IOException e) {
+			System.err.println("Connection failed: " + e.getMessage());
+		}
+	}
+
+	// Method to answer the requests of one client stream until it ends or sends QUIT.
+	// Requests are read on the calling thread and planned on the workers, while a writer thread sends the
+	// responses in request order, flushing whenever it has caught up.
+	public void serve(BufferedReader in, Writer out) throws IOException {
+		BlockingQueue<Future<String>> pending = new ArrayBlockingQueue<>(MAX_IN_FLIGHT);
+		Thread writer = new Thread(() -> writeResponses(pending, out), "planning-server-writer");
+		writer.start();
+		try {
+			String line;
+			while ((line = in.readLine()) != null) {
+				long received = System.nanoTime();
+				String request = line.trim();
+				if (request.isEmpty()) {
+					continue;
+				}
+				if (request.equalsIgnoreCase("QUIT")) {
+					break;
+				}
+				if (request.regionMatches(true, 0, "PATH", 0, 4)) {
+					MapSnapshot snapshot = map.get();
+					pending.put(workers.submit(() -> handlePath(request, snapshot, received)));
+				} else {
+					// Commands run in order on the reading thread, so a reload applies to every later request
+					pending.put(CompletableFuture.completedFuture(handleCommand(request)));
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			try {
+				pending.put(END_OF_STREAM);
+				writer.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			out.flush();
+		}
+	}
+
+	// Method to write the responses in order as they complete; after a write error the rest are dropped
+	private void writeResponses(BlockingQueue<Future<String>> pending, Writer out) {
+		boolean failed = false;
+		try {
+			for (Future<String> response = pending.take(); response != END_OF_STREAM; response = pending.take()) {
+				String text;
+				try {
+					text = response.get();
+				} catch (ExecutionException e) {
+					text = "ERR " + e.getCause();
+				}
+				if (failed) {
+					continue;
+				}
+				try {
+					out.write(text);
+					out.write('\n');
+					if (pending.isEmpty()) {
+						out.flush();
+					}
+				} catch (IOException e) {
+					failed = true;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	// Method to plan one PATH request on the given map and format its response
+	private String handlePath(String request, MapSnapshot snapshot, long received) {
+		String[] tokens = request.split("\\s+");
+		if (tokens.length != 5) {
+			return "ERR expected PATH startRow startCol goalRow goalCol";
+		}
+		int[] values = new int[4];
+		for (int i = 0; i < 4; i++) {
+			try {
+				values[i] = Integer.parseInt(tokens[i + 1]);
+			} catch (NumberFormatException e) {
+				return "ERR invalid number: " + tokens[i + 1];
+			}
+		}
+		Grid grid = snapshot.grid;
+		if (!grid.isValidPosition(values[0], values[1]) || !grid.isValidPosition(values[2], values[3])) {
+			return "ERR position outside the " + grid.getNumRows() + "x" + grid.getNumCols() + " grid";
+		}
+		GridPathPlanner planner = planners.get();
+		if (planner == null || planner.getConnectivity() != snapshot.connectivity) {
+			planner = snapshot.createPlanner(); // The worker's first request, or its first on a new map
+			planners.set(planner);
+		}
+		long startTime = System.nanoTime();
+		int[] path = planner.findPath(planner.cellIndex(values[0], values[1]), planner.cellIndex(values[2], values[3]));
+		long micros = (System.nanoTime() - startTime) / 1000;
+
+		StringBuilder response = new StringBuilder(64);
+		if (path == null) {
+			response.append("NONE ").append(micros);
+		} else {
+			response.append("OK ").append(path.length).append(' ').append(planner.getPathCost(path)).append(' ')
+					.append(micros);
+			for (int cell : new PathPostProcessor(grid).compress(path)) {
+				response.append(' ').append(planner.rowOf(cell)).append(' ').append(planner.colOf(cell));
+			}
+		}
+		requestLatency.record(System.nanoTime() - received);
+		return response.toString();
+	}
+
+	// Method to run a ROUTE, RELOAD or STATS command and format its response
+	private String handleCommand(String request) {
+		String[] tokens = request.split("\\s+", 2);
+		String command = tokens[0].toUpperCase();
+		if (command.equals("ROUTE")) {
+			return handleRoute(request);
+		}
+		if (command.equals("STATS")) {
+			return "OK queries " + metrics.getQueries() + " found " + metrics.getPathsFound() + " p50_us "
+					+ requestLatency.getPercentile(0.5) / 1000 + " p99_us " + requestLatency.getPercentile(0.99) / 1000
+					+ " max_us " + requestLatency.getMax() / 1000 + " map " + getMapVersion();
+		}
+		if (command.equals("RELOAD")) {
+			if (tokens.length < 2) {
+				return "ERR expected RELOAD file";
+			}
+			try {
+				Grid grid = GridLoader.load(tokens[1].trim());
+				return "OK map " + swapMap(grid) + " " + grid.getNumRows() + " " + grid.getNumCols();
+			} catch (IOException | IllegalArgumentException e) {
+				return "ERR could not load " + tokens[1].trim() + ": " + e.getMessage();
+			}
+		}
+		return "ERR unknown command: " + tokens[0];
+	}
+
+	// Method to look up a ROUTE request between two stations in the current map's routing table
+	private String handleRoute(String request) {
+		long received = System.nanoTime();
+		MapSnapshot snapshot = map.get();
+		StationRoutingTable routes = snapshot.routes;
+		if (routes == null) {
+			return "ERR no stations configured";
+		}
+		String[] tokens = request.split("\\s+");
+		if (tokens.length != 5) {
+			return "ERR expected ROUTE fromRow fromCol toRow toCol";
+		}
+		int[] values = new int[4];
+		for (int i = 0; i < 4; i++) {
+			try {
+				values[i] = Integer.parseInt(tokens[i + 1]);
+			} catch (NumberFormatException e) {
+				return "ERR invalid number: " + tokens[i + 1];
+			}
+		}
+		Grid grid = snapshot.grid;
+		int from = grid.isValidPosition(values[0], values[1]) ? routes.stationIndex(values[0] * grid.getNumCols()
+				+ values[1]) : -1;
+		int to = grid.isValidPosition(values[2], values[3]) ? routes.stationIndex(values[2] * grid.getNumCols()
+				+ values[3]) : -1;
+		if (from < 0 || to < 0) {
+			return "ERR not a station";
+		}
+		int moves = routes.getDistance(from, to);
+		Direction firstMove = routes.getFirstMove(from, to);
+		requestLatency.record(System.nanoTime() - received);
+		if (moves < 0) {
+			return "NONE";
+		}
+		return "OK " + moves + " " + (firstMove == null ? "NONE" : firstMove.name());
+	}
+
+	// Method to stop accepting connections and stop the worker threads
+	@Override
+	public void close() {
+		ServerSocket socket = serverSocket;
+		if (socket != null) {
+			try {
+				socket.close();
+			} catch (IOException e) {
+				System.err.println("Could not close server socket: " + e.getMessage());
+			}
+		}
+		connections.shutdown();
+		workers.shutdown();
+	}
+
+	// Method to run a server from command-line arguments:
+	// <grid file> [--port p | --stdin] [--mode ASTAR|JUMP_POINT|...] [--workers n] [--stations file]
+	// With --stdin requests are read from standard input and answered on standard output until the input ends;
+	// otherwise the server listens on the loopback interface until the process is stopped.
+	// Returns the process exit code.
+	public static int runFromArgs(String[] args) {
+		if (args.length < 1) {
+			System.err.println("Usage: --serve <grid file> [--port p | --stdin] [--mode ASTAR|JUMP_POINT|...] "
+					+ "[--workers n] [--stations file]");
+			return 2;
+		}
+		int port = 7070;
+		boolean stdin = false;
+		PlannerMode mode = PlannerMode.ASTAR;
+		int workers = Runtime.getRuntime().availableProcessors();
+		String stationsPath = null;
+		for (int i = 1; i < args.length; i++) {
+			if (args[i].equals("--stdin")) {
+				stdin = true;
+				continue;
+			}
+			if (i + 1 == args.length) {
+				System.err.println("Missing value for option: " + args[i]);
+				return 2;
+			}
+			String value = args[++i];
+			try {
+				switch (args[i - 1]) {
+				case "--port":
+					port = Integer.parseInt(value);
+					break;
+				case "--workers":
+					workers = Integer.parseInt(value);
+					break;
+				case "--stations":
+					stationsPath = value;
+					break;
+				case "--mode":
+					mode = PlannerMode.valueOf(value.toUpperCase());
+					break;
+				default:
+					System.err.println("Unknown option: " + args[i - 1]);
+					return 2;
+				}
+			} catch (IllegalArgumentException e) {
+				System.err.println("Invalid value for " + args[i - 1] + ": " + value);
+				return 2;
+			}
+		}
+
+		try {
+			long loadStart = System.nanoTime();
+			Grid grid = GridLoader.load(args[0]);
+			int[] stations = stationsPath == null ? null : StationRoutingTable.readStations(grid, stationsPath);
+			PlanningServer server = new PlanningServer(grid, mode, workers, stations);
+			System.err.println("Grid " + grid.getNumRows() + "x" + grid.getNumCols() + " loaded in "
+					+ (System.nanoTime() - loadStart) / 1_000_000.0 + " ms");
+			if (stdin) {
+				try (PlanningServer running = server) {
+					running.serve(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)),
+							new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8),
+									IO_BUFFER_CHARS));
+					running.getMetrics().printSummary(System.err);
+				}
+			} else {
+				System.err.println("Listening on " + InetAddress.getLoopbackAddress().getHostAddress() + ":"
+						+ server.start(port));
+			}
+			return 0;
+		} catch (IOException e) {
+			System.err.println("Server failed: " + e.getMessage());
+			return 1;
+		}
+	}
+}
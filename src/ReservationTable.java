@@ -0,0 +1,249 @@
+import java.util.Arrays;
+
+// This ReservationTable class records which cells and moves are taken at which time step by robots that have
+// already been planned, for cooperative multi-robot planning.
+// Only reserved entries are stored, in open-addressing hash tables of primitive longs, so memory grows with the
+// total length of the planned paths rather than with the grid size times the time horizon:
+// - a cell occupied at time t is the key (t << 31) | cell,
+// - a move out of a cell at time t is the key (t << 33) | (cell << 2) | direction, so two robots swapping cells
+//   (which would pass through each other) can be detected,
+// - a robot that stays at its goal for good parks there from its arrival time onwards.
+public class ReservationTable {
+	private static final long EMPTY = -1;
+
+	// Move directions, as used in move keys
+	public static final int UP = 0;
+	public static final int DOWN = 1;
+	public static final int LEFT = 2;
+	public static final int RIGHT = 3;
+
+	private final int numCols;
+	private final LongSet cells = new LongSet();
+	private final LongSet moves = new LongSet();
+	private final CellMap parked = new CellMap(); // Arrival time of the robot parked at each goal cell
+	private final CellMap lastUse = new CellMap(); // Latest time each cell is reserved
+
+	// Constructor to create an empty table for a grid with the given number of columns
+	public ReservationTable(int numCols) {
+		this.numCols = numCols;
+	}
+
+	// Method to reserve a path of cells, one per time step from time 0; the robot parks at the last cell
+	public void reservePath(int[] path) {
+		for (int t = 0; t < path.length; t++) {
+			cells.add(cellKey(path[t], t));
+			updateLastUse(path[t], t);
+			if (t > 0 && path[t] != path[t - 1]) {
+				moves.add(moveKey(path[t - 1], directionOf(path[t - 1], path[t]), t - 1));
+			}
+		}
+		int goal = path[path.length - 1];
+		parked.put(goal, path.length - 1);
+	}
+
+	// Method to reserve a single cell at one time step
+	public void reserveCell(int cell, int t) {
+		cells.add(cellKey(cell, t));
+		updateLastUse(cell, t);
+	}
+
+	// Method to check whether moving (or waiting, when from == to) from one cell at time t to another cell at
+	// time t + 1 conflicts with a reservation
+	public boolean isFree(int from, int to, int t) {
+		if (cells.contains(cellKey(to, t + 1)) || isParked(to, t + 1)) {
+			return false;
+		}
+		// The robot moving the opposite way over the same edge would swap places with this one
+		return from == to || !moves.contains(moveKey(to, directionOf(to, from), t));
+	}
+
+	// Method to check whether a robot could stay at a cell forever from time t without meeting anyone
+	public boolean canParkFrom(int cell, int t) {
+		return lastUse.get(cell) < t && parked.get(cell) < 0;
+	}
+
+	// Method to return the first time from which a robot could park at a cell, or -1 if another robot parks there
+	public int earliestParkingTime(int cell) {
+		return parked.get(cell) >= 0 ? -1 : lastUse.get(cell) + 1;
+	}
+
+	// Method to check whether another robot is parked at a cell at time t
+	private boolean isParked(int cell, int t) {
+		int since = parked.get(cell);
+		return since >= 0 && since <= t;
+	}
+
+	private void updateLastUse(int cell, int t) {
+		if (lastUse.get(cell) < t) {
+			lastUse.put(cell, t);
+		}
+	}
+
+	// Method to forget all reservations
+	public void clear() {
+		cells.clear();
+		moves.clear();
+		parked.clear();
+		lastUse.clear();
+	}
+
+	// Method to return the number of stored reservations
+	public int size() {
+		return cells.size() + moves.size() + parked.size();
+	}
+
+	private static long cellKey(int cell, int t) {
+		return ((long) t << 31) | cell;
+	}
+
+	private static long moveKey(int cell, int direction, int t) {
+		return ((long) t << 33) | ((long) cell << 2) | direction;
+	}
+
+	// Helper method to return the direction of a move between two adjacent cells
+	private int directionOf(int from, int to) {
+		int delta = to - from;
+		if (delta == -numCols) {
+			return UP;
+		} else if (delta == numCols) {
+			return DOWN;
+		}
+		return delta < 0 ? LEFT : RIGHT;
+	}
+
+	// Open-addressing hash set of non-negative longs
+	private static final class LongSet {
+		private long[] slots = new long[16];
+		private int size;
+
+		LongSet() {
+			Arrays.fill(slots, EMPTY);
+		}
+
+		void add(long value) {
+			if (contains(value)) {
+				return;
+			}
+			if (2 * (size + 1) > slots.length) {
+				grow();
+			}
+			insert(value);
+			size++;
+		}
+
+		boolean contains(long value) {
+			int mask = slots.length - 1;
+			for (int i = slotOf(value, mask);; i = (i + 1) & mask) {
+				long slot = slots[i];
+				if (slot == EMPTY) {
+					return false;
+				}
+				if (slot == value) {
+					return true;
+				}
+			}
+		}
+
+		void clear() {
+			Arrays.fill(slots, EMPTY);
+			size = 0;
+		}
+
+		int size() {
+			return size;
+		}
+
+		private void insert(long value) {
+			int mask = slots.length - 1;
+			int i = slotOf(value, mask);
+			while (slots[i] != EMPTY) {
+				i = (i + 1) & mask;
+			}
+			slots[i] = value;
+		}
+
+		private void grow() {
+			long[] old = slots;
+			slots = new long[old.length * 2];
+			Arrays.fill(slots, EMPTY);
+			for (long value : old) {
+				if (value != EMPTY) {
+					insert(value);
+				}
+			}
+		}
+	}
+
+	// Open-addressing map from cells to a non-negative int per cell, packed as (cell << 32) | value
+	private static final class CellMap {
+		private long[] slots = new long[16];
+		private int size;
+
+		CellMap() {
+			Arrays.fill(slots, EMPTY);
+		}
+
+		// Method to return the value stored for a cell, or -1
+		int get(int cell) {
+			int mask = slots.length - 1;
+			for (int i = slotOf(cell, mask);; i = (i + 1) & mask) {
+				long slot = slots[i];
+				if (slot == EMPTY) {
+					return -1;
+				}
+				if (slot >>> 32 == cell) {
+					return (int) slot;
+				}
+			}
+		}
+
+		void put(int cell, int value) {
+			int mask = slots.length - 1;
+			for (int i = slotOf(cell, mask);; i = (i + 1) & mask) {
+				long slot = slots[i];
+				if (slot == EMPTY) {
+					break;
+				}
+				if (slot >>> 32 == cell) {
+					slots[i] = ((long) cell << 32) | value;
+					return;
+				}
+			}
+			if (2 * (size + 1) > slots.length) {
+				long[] old = slots;
+				slots = new long[old.length * 2];
+				Arrays.fill(slots, EMPTY);
+				for (long entry : old) {
+					if (entry != EMPTY) {
+						insert(entry);
+					}
+				}
+			}
+			insert(((long) cell << 32) | value);
+			size++;
+		}
+
+		void clear() {
+			Arrays.fill(slots, EMPTY);
+			size = 0;
+		}
+
+		int size() {
+			return size;
+		}
+
+		private void insert(long entry) {
+			int mask = slots.length - 1;
+			int i = slotOf(entry >>> 32, mask);
+			while (slots[i] != EMPTY) {
+				i = (i + 1) & mask;
+			}
+			slots[i] = entry;
+		}
+	}
+
+	// Helper method to spread a key over the slots of a power-of-two table
+	private static int slotOf(long key, int mask) {
+		return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+	}
+}
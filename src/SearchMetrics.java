@@ -0,0 +1,97 @@
+import java.io.PrintStream;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// This SearchMetrics class aggregates per-query search statistics across many path queries:
+// how many queries ran and found a path, total expansions, pushes and reopenings, the largest open list seen,
+// and a latency histogram giving p50/p99/max query times.
+// Attach one to a planner with GridPathPlanner.setMetrics (or pass it to PathPlanner.findPath); planners without
+// metrics skip the timing and recording entirely. Recording is thread-safe, so one instance can collect the
+// queries of a whole BatchPathPlanner.
+public class SearchMetrics {
+	private final LongAdder queries = new LongAdder();
+	private final LongAdder pathsFound = new LongAdder();
+	private final LongAdder expanded = new LongAdder();
+	private final LongAdder pushed = new LongAdder();
+	private final LongAdder reopened = new LongAdder();
+	private final LongAccumulator maxExpanded = new LongAccumulator(Math::max, 0);
+	private final LongAccumulator maxHeapSize = new LongAccumulator(Math::max, 0);
+	private final LatencyHistogram latency = new LatencyHistogram();
+
+	// Method to record the statistics of one query
+	public void record(long nanos, int expandedNodes, int pushedNodes, int heapHighWater, int reopenings,
+			boolean found) {
+		queries.increment();
+		if (found) {
+			pathsFound.increment();
+		}
+		expanded.add(expandedNodes);
+		pushed.add(pushedNodes);
+		reopened.add(reopenings);
+		maxExpanded.accumulate(expandedNodes);
+		maxHeapSize.accumulate(heapHighWater);
+		latency.record(nanos);
+	}
+
+	// Getters for the aggregated statistics
+	public long getQueries() {
+		return queries.sum();
+	}
+
+	public long getPathsFound() {
+		return pathsFound.sum();
+	}
+
+	public long getExpanded() {
+		return expanded.sum();
+	}
+
+	public long getPushed() {
+		return pushed.sum();
+	}
+
+	public long getReopened() {
+		return reopened.sum();
+	}
+
+	public long getMaxExpanded() {
+		return maxExpanded.get();
+	}
+
+	public long getMaxHeapSize() {
+		return maxHeapSize.get();
+	}
+
+	public LatencyHistogram getLatency() {
+		return latency;
+	}
+
+	// Method to forget all recorded queries
+	public void reset() {
+		queries.reset();
+		pathsFound.reset();
+		expanded.reset();
+		pushed.reset();
+		reopened.reset();
+		maxExpanded.reset();
+		maxHeapSize.reset();
+		latency.reset();
+	}
+
+	// Method to print a summary of the recorded queries
+	public void printSummary() {
+		printSummary(System.out);
+	}
+
+	// Method to print the summary to the given stream
+	public void printSummary(PrintStream out) {
+		long n = Math.max(1, getQueries());
+		out.println("Queries: " + getQueries() + " | Paths found: " + getPathsFound());
+		out.println("Expanded nodes: " + getExpanded() + " total, " + getExpanded() / n + " mean, "
+				+ getMaxExpanded() + " max");
+		out.println("Pushed nodes: " + getPushed() + " total, " + getPushed() / n + " mean | Reopenings: "
+				+ getReopened() + " | Heap high-water mark: " + getMaxHeapSize());
+		out.println("Latency: p50 " + latency.getPercentile(0.5) / 1_000_000.0 + " ms | p99 "
+				+ latency.getPercentile(0.99) / 1_000_000.0 + " ms | max " + latency.getMax() / 1_000_000.0 + " ms");
+	}
+}
@@ -0,0 +1,418 @@
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+// This StationRoutingTable class answers trips between a fixed set of station cells (docks, pick stations) by
+// table lookup instead of searching the grid. For every ordered pair of stations it holds the number of moves of
+// a shortest path and the first move to take from the start station.
+// The table is filled by one breadth-first search per destination station, run in parallel across stations.
+// Each search stops as soon as it has reached every station, and records the first move of each station towards
+// the destination as the step back to the cell it was reached from. Searches run over a bitmap of the grid padded
+// with a blocked border (a row above and below, at least one column to the right), so neighbors need no bounds
+// checks and a single bit test covers both obstacles and visited cells. Distances are move counts; terrain costs are
+// not taken into account.
+// Tables can be saved to and loaded from a compact little-endian binary file:
+//   bytes 0-3    magic "SRTB"
+//   bytes 4-7    format version (1)
+//   bytes 8-19   rows, cols, station count (int each)
+//   bytes 20-27  hash of the grid's obstacles, checked on load
+// followed by the station cells (int each), the distances (int each, -1 when unreachable, grouped by destination)
+// and the first moves (one byte each, the Direction ordinal or -1, in the same order).
+// The table listens to the grid. A changed cell c can only matter for a pair (i, j) when a path through c could be
+// as short as the stored one, which needs manhattan(i, c) + manhattan(c, j) <= distance(i, j) for a new obstacle,
+// or strictly less (or no stored path at all) for a freed cell. Only the destination stations with such a pair
+// are searched again, lazily by the next query.
+// A refresh searches into copies of the distances and first moves and swaps them in once every search is done, so
+// queries on other threads read complete tables throughout; grid changes wait for a running refresh to finish.
+public class StationRoutingTable implements GridListener {
+	private static final int MAGIC = 0x42545253; // "SRTB" read as a little-endian int
+	private static final int VERSION = 1;
+	private static final int HEADER_BYTES = 28;
+	private static final int UNREACHABLE = -1;
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	private final Grid grid;
+	private final int numRows;
+	private final int numCols;
+	private final int[] stations;
+	private final int[] sortedStations; // Station cells in increasing order, to find a station by its cell
+	private final int[] sortedIndex; // Station index of each entry of sortedStations
+	private volatile int[] distances; // Moves from station i to station j at j * count + i, or UNREACHABLE
+	private volatile byte[] firstMoves; // Direction ordinal of the first move from i towards j, or -1, like distances
+	private final boolean[] dirty; // Destination stations whose searches must be run again
+	private volatile boolean anyDirty;
+	private final int stride; // Bits per row of the padded bitmaps, a multiple of 64 above numCols
+	private final long[] stationBits; // Padded bitmap of the station cells
+
+	private long buildTimeNanos;
+	private long rebuiltStations;
+
+	// Constructor to compute the table between the given station cells (row * numCols + col) of the grid
+	public StationRoutingTable(Grid grid, int[] stations) {
+		this(grid, stations, null, null);
+		rebuild();
+	}
+
+	// Constructor to build a table object around given or empty contents, without searching
+	private StationRoutingTable(Grid grid, int[] stations, int[] distances, byte[] firstMoves) {
+		this.grid = grid;
+		this.numRows = grid.getNumRows();
+		this.numCols = grid.getNumCols();
+		this.stations = stations.clone();
+		int cells = GridPathPlanner.cellCount(grid);
+		for (int cell : this.stations) {
+			if (cell < 0 || cell >= cells) {
+				throw new IllegalArgumentException("Station cell outside the grid: " + cell);
+			}
+		}
+		Integer[] order = new Integer[stations.length];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, (a, b) -> Integer.compare(this.stations[a], this.stations[b]));
+		this.sortedStations = new int[stations.length];
+		this.sortedIndex = new int[stations.length];
+		for (int i = 0; i < order.length; i++) {
+			sortedStations[i] = this.stations[order[i]];
+			sortedIndex[i] = order[i];
+			if (i > 0 && sortedStations[i] == sortedStations[i - 1]) {
+				throw new IllegalArgumentException("Duplicate station cell: " + sortedStations[i]);
+			}
+		}
+		int pairs = Math.multiplyExact(stations.length, stations.length);
+		this.distances = distances != null ? distances : new int[pairs];
+		this.firstMoves = firstMoves != null ? firstMoves : new byte[pairs];
+		this.dirty = new boolean[stations.length];
+		this.stride = ((numCols + 64) >>> 6) << 6;
+		this.stationBits = new long[(numRows + 2) * (stride >>> 6)];
+		for (int cell : this.stations) {
+			int bit = toBit(cell);
+			stationBits[bit >>> 6] |= 1L << bit;
+		}
+		grid.addListener(this);
+	}
+
+	// Method to return the number of moves from one station to another (station indices), or -1 if unreachable
+	public int getDistance(int from, int to) {
+		if (anyDirty) {
+			refresh();
+		}
+		return distances[to * stations.length + from];
+	}
+
+	// Method to return the first move from one station towards another, or null if there is none
+	public Direction getFirstMove(int from, int to) {
+		if (anyDirty) {
+			refresh();
+		}
+		int move = firstMoves[to * stations.length + from];
+		return move < 0 ? null : DIRECTIONS[move];
+	}
+
+	// Method to return the cell entered by the first move from one station towards another, or -1
+	public int getNextHop(int from, int to) {
+		Direction move = getFirstMove(from, to);
+		if (move == null) {
+			return -1;
+		}
+		int cell = stations[from];
+		switch (move) {
+		case UP:
+			return cell - numCols;
+		case DOWN:
+			return cell + numCols;
+		case LEFT:
+			return cell - 1;
+		default:
+			return cell + 1;
+		}
+	}
+
+	// Method to return the index of the station at a cell, or -1 if the cell is not a station
+	public int stationIndex(int cell) {
+		int position = Arrays.binarySearch(sortedStations, cell);
+		return position < 0 ? -1 : sortedIndex[position];
+	}
+
+	public int getStation(int index) {
+		return stations[index];
+	}
+
+	public int getStationCount() {
+		return stations.length;
+	}
+
+	// Method to search again from every station, in parallel
+	public synchronized void rebuild() {
+		Arrays.fill(dirty, true);
+		anyDirty = true;
+		refresh();
+	}
+
+	// Method to search again from the stations marked by grid changes, in parallel, then publish the new columns
+	// together with the unchanged ones
+	public synchronized void refresh() {
+		if (!anyDirty) {
+			return;
+		}
+		long startTime = System.nanoTime();
+		int[] targets = IntStream.range(0, stations.length).filter(j -> dirty[j]).toArray();
+		long[] blocked = blockedBitmap();
+		int[] newDistances = distances.clone();
+		byte[] newFirstMoves = firstMoves.clone();
+		IntStream.of(targets).parallel().forEach(j -> searchFrom(j, blocked, newDistances, newFirstMoves));
+		firstMoves = newFirstMoves;
+		distances = newDistances;
+		Arrays.fill(dirty, false);
+		anyDirty = false;
+		rebuiltStations += targets.length;
+		buildTimeNanos = System.nanoTime() - startTime;
+	}
+
+	// Method to fill the column of a destination station by breadth-first search outwards from it, stopping once
+	// every station has been reached
+	private void searchFrom(int destination, long[] blocked, int[] distances, byte[] firstMoves) {
+		int count = stations.length;
+		int base = destination * count;
+		Arrays.fill(distances, base, base + count, UNREACHABLE);
+		Arrays.fill(firstMoves, base, base + count, (byte) -1);
+		int source = toBit(stations[destination]);
+		long[] visited = blocked.clone(); // Obstacles and border start out as visited
+		if ((visited[source >>> 6] & (1L << source)) != 0) {
+			return; // The station itself is blocked
+		}
+		// Offsets of the neighbors and, for each, the move from the neighbor back to the current cell
+		int[] offsets = { -stride, stride, -1, 1 };
+		byte[] back = { (byte) Direction.DOWN.ordinal(), (byte) Direction.UP.ordinal(),
+				(byte) Direction.RIGHT.ordinal(), (byte) Direction.LEFT.ordinal() };
+		// The search usually stops long before covering the grid, so the queue grows as needed
+		int[] queue = new int[1024];
+		distances[base + destination] = 0;
+		int remaining = count - 1;
+		int head = 0;
+		int tail = 0;
+		int level = 0;
+		int levelEnd = 1; // Queue position where the cells of the current level end
+		queue[tail++] = source;
+		visited[source >>> 6] |= 1L << source;
+		while (head < tail && remaining > 0) {
+			if (head == levelEnd) {
+				level++;
+				levelEnd = tail;
+			}
+			int bit = queue[head++];
+			for (int side = 0; side < 4; side++) {
+				int neighbor = bit + offsets[side];
+				long mask = 1L << neighbor;
+				if ((visited[neighbor >>> 6] & mask) != 0) {
+					continue;
+				}
+				visited[neighbor >>> 6] |= mask;
+				if (tail == queue.length) {
+					queue = Arrays.copyOf(queue, Math.min(numRows * numCols, queue.length * 2));
+				}
+				queue[tail++] = neighbor;
+				if ((stationBits[neighbor >>> 6] & mask) != 0) {
+					int station = stationIndex((neighbor / stride - 1) * numCols + neighbor % stride);
+					distances[base + station] = level + 1;
+					firstMoves[base + station] = back[side];
+					remaining--;
+				}
+			}
+		}
+	}
+
+	// Helper method to return the bit of a cell in the padded bitmaps
+	private int toBit(int cell) {
+		return (cell / numCols + 1) * stride + cell % numCols;
+	}
+
+	// Method to build the padded bitmap of obstacles: the grid's obstacle words row by row, with the padding
+	// columns and the rows above and below the grid blocked
+	private long[] blockedBitmap() {
+		int wordsPerRow = stride >>> 6;
+		long[] bitmap = new long[stationBits.length];
+		Arrays.fill(bitmap, 0, wordsPerRow, -1L);
+		Arrays.fill(bitmap, bitmap.length - wordsPerRow, bitmap.length, -1L);
+		for (int row = 0; row < numRows; row++) {
+			int offset = (row + 1) * wordsPerRow;
+			for (int word = 0; word < wordsPerRow; word++) {
+				int remaining = numCols - (word << 6); // Columns of the grid within this word
+				long padding = remaining >= 64 ? 0 : remaining <= 0 ? -1L : -1L << remaining;
+				long obstacles = remaining <= 0 ? 0 : grid.getObstacleWord(row, word);
+				bitmap[offset + word] = obstacles | padding;
+			}
+		}
+		return bitmap;
+	}
+
+	// Method to mark the destination stations whose routes may run through a changed cell
+	@Override
+	public synchronized void cellChanged(int row, int col, boolean obstacle) {
+		int count = stations.length;
+		int[] toCell = new int[count]; // Manhattan distance from each station to the changed cell
+		for (int i = 0; i < count; i++) {
+			toCell[i] = Math.abs(stations[i] / numCols - row) + Math.abs(stations[i] % numCols - col);
+		}
+		boolean marked = false;
+		for (int j = 0; j < count; j++) {
+			if (dirty[j]) {
+				continue;
+			}
+			int base = j * count;
+			for (int i = 0; i < count; i++) {
+				int distance = distances[base + i];
+				int bound = toCell[i] + toCell[j];
+				boolean affected = obstacle ? distance != UNREACHABLE && bound <= distance
+						: distance == UNREACHABLE || bound < distance;
+				if (affected) {
+					dirty[j] = true;
+					marked = true;
+					break;
+				}
+			}
+		}
+		if (marked) {
+			anyDirty = true;
+		}
+	}
+
+	@Override
+	public synchronized void gridReset() {
+		Arrays.fill(dirty, true);
+		anyDirty = true;
+	}
+
+	// Method to stop following changes of the grid
+	public void detach() {
+		grid.removeListener(this);
+	}
+
+	// Method to save the table (refreshed first) to a binary file
+	public synchronized void save(String filePath) throws IOException {
+		refresh();
+		int count = stations.length;
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + count * Integer.BYTES + distances.length * Integer.BYTES
+				+ firstMoves.length).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(MAGIC).putInt(VERSION).putInt(numRows).putInt(numCols).putInt(count).putLong(obstacleHash(grid));
+		for (int cell : stations) {
+			buffer.putInt(cell);
+		}
+		for (int distance : distances) {
+			buffer.putInt(distance);
+		}
+		buffer.put(firstMoves);
+		buffer.flip();
+		try (RandomAccessFile file = new RandomAccessFile(filePath, "rw"); FileChannel channel = file.getChannel()) {
+			channel.truncate(0);
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		}
+	}
+
+	// Method to load a table saved for the same grid, without searching
+	public static StationRoutingTable load(Grid grid, String filePath) throws IOException {
+		try (RandomAccessFile file = new RandomAccessFile(filePath, "r"); FileChannel channel = file.getChannel()) {
+			if (channel.size() < HEADER_BYTES || channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("Not a station routing table: " + filePath);
+			}
+			ByteBuffer buffer = ByteBuffer.allocate((int) channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer) < 0) {
+					throw new IOException("Station routing table is truncated");
+				}
+			}
+			buffer.flip();
+			if (buffer.getInt() != MAGIC) {
+				throw new IOException("Not a station routing table: " + filePath);
+			}
+			int version = buffer.getInt();
+			if (version != VERSION) {
+				throw new IOException("Unsupported station routing table version " + version);
+			}
+			int numRows = buffer.getInt();
+			int numCols = buffer.getInt();
+			int count = buffer.getInt();
+			long hash = buffer.getLong();
+			if (numRows != grid.getNumRows() || numCols != grid.getNumCols() || hash != obstacleHash(grid)) {
+				throw new IOException("Station routing table was built for another grid: " + filePath);
+			}
+			long pairs = (long) count * count;
+			if (count < 0 || buffer.remaining() != count * 4L + pairs * 5) {
+				throw new IOException("Station routing table is truncated");
+			}
+			int[] stations = new int[count];
+			buffer.asIntBuffer().get(stations);
+			buffer.position(buffer.position() + count * Integer.BYTES);
+			int[] distances = new int[(int) pairs];
+			buffer.asIntBuffer().get(distances);
+			buffer.position(buffer.position() + distances.length * Integer.BYTES);
+			byte[] firstMoves = new byte[(int) pairs];
+			buffer.get(firstMoves);
+			return new StationRoutingTable(grid, stations, distances, firstMoves);
+		}
+	}
+
+	// Method to read station cells from a text file of "row col" pairs, one station per pair
+	public static int[] readStations(Grid grid, String filePath) throws IOException {
+		int[] stations = new int[16];
+		int count = 0;
+		try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("#")) {
+					continue;
+				}
+				String[] fields = line.split("[\\s,]+");
+				int row;
+				int col;
+				try {
+					row = Integer.parseInt(fields[0]);
+					col = Integer.parseInt(fields[1]);
+				} catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+					throw new IOException("Invalid station line: " + line);
+				}
+				if (!grid.isValidPosition(row, col)) {
+					throw new IOException("Station outside the grid: " + line);
+				}
+				if (count == stations.length) {
+					stations = Arrays.copyOf(stations, count * 2);
+				}
+				stations[count++] = row * grid.getNumCols() + col;
+			}
+		}
+		return Arrays.copyOf(stations, count);
+	}
+
+	// Helper method to hash the obstacle words of a grid, so a saved table is only loaded for the same map
+	private static long obstacleHash(Grid grid) {
+		long hash = 1;
+		for (int row = 0; row < grid.getNumRows(); row++) {
+			for (int word = 0; word < grid.getWordsPerRow(); word++) {
+				hash = hash * 31 + grid.getObstacleWord(row, word);
+			}
+		}
+		return hash;
+	}
+
+	// Getters for the statistics of the searches
+	public long getBuildTimeNanos() {
+		return buildTimeNanos;
+	}
+
+	public long getRebuiltStations() {
+		return rebuiltStations;
+	}
+
+	public boolean isDirty() {
+		return anyDirty;
+	}
+}